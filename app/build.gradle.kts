@@ -14,6 +14,10 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Device persistence benchmarks are skipped unless -Pbenchmark is passed, like the JVM ones
+        if (project.hasProperty("benchmark")) {
+            testInstrumentationRunnerArguments["benchmark"] = "true"
+        }
     }
 
     buildTypes {
@@ -29,6 +33,17 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests.all {
+            // JVM persistence benchmarks only run with -Pbenchmark (sizes: -Pbenchmark.sizes=1000,100000)
+            if (!project.hasProperty("benchmark")) {
+                it.exclude("**/*JvmBenchmark*")
+            }
+            it.systemProperty("benchmark.output",
+                layout.buildDirectory.file("benchmark-results/persistence.json").get().asFile.path)
+            project.findProperty("benchmark.sizes")?.let { sizes -> it.systemProperty("benchmark.sizes", sizes) }
+        }
+    }
 }
 
 dependencies {
@@ -36,6 +51,7 @@ dependencies {
     // AndroidX libraries
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("androidx.constraintlayout:constraintlayout:2.1.4")
+    implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("androidx.activity:activity:1.7.2")
     implementation("androidx.lifecycle:lifecycle-runtime-ktx:2.6.2")
 
@@ -44,6 +60,7 @@ dependencies {
 
     // **JUnit 4 for Local Unit Tests**
     testImplementation("junit:junit:4.13.2")
+    testImplementation("org.robolectric:robolectric:4.11.1") // ✅ Android framework + SQLite on the JVM
 
     // **Android Instrumented Tests**
     androidTestImplementation("androidx.test.ext:junit:1.1.5") // ✅ Provides AndroidJUnit4
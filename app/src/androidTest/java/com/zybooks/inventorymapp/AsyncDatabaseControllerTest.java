@@ -0,0 +1,155 @@
+package com.zybooks.inventorymapp;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.os.Looper;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class AsyncDatabaseControllerTest {
+    private static final String TEST_DB = "async_test.db";
+
+    private Context context = ApplicationProvider.getApplicationContext();
+    private RecordingDatabaseHelper dbHelper;
+    private AsyncDatabaseController asyncController;
+
+    // / Counts every connection request and remembers whether it came from the main looper
+    private static class RecordingDatabaseHelper extends DatabaseHelper {
+        final AtomicInteger databaseCalls = new AtomicInteger();
+        final AtomicInteger mainThreadCalls = new AtomicInteger();
+        volatile boolean failing;
+
+        RecordingDatabaseHelper(Context context) {
+            super(context, TEST_DB);
+        }
+
+        private void record() {
+            if (failing) {
+                throw new SQLiteException("disk I/O error");
+            }
+            databaseCalls.incrementAndGet();
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                mainThreadCalls.incrementAndGet();
+            }
+        }
+
+        @Override
+        public SQLiteDatabase getWritableDatabase() {
+            record();
+            return super.getWritableDatabase();
+        }
+
+        @Override
+        public SQLiteDatabase getReadableDatabase() {
+            record();
+            return super.getReadableDatabase();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new RecordingDatabaseHelper(context);
+        asyncController = new AsyncDatabaseController(new DatabaseController(dbHelper));
+    }
+
+    @After
+    public void tearDown() {
+        asyncController.shutdown();
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    // / Issues a call from the main thread, waits for its callback and checks where it ran
+    private <T> T callFromMainThread(Consumer<AsyncDatabaseController.Callback<T>> call)
+            throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Object[] result = new Object[1];
+        boolean[] callbackOnMain = new boolean[1];
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> call.accept(value -> {
+            result[0] = value;
+            callbackOnMain[0] = Looper.myLooper() == Looper.getMainLooper();
+            latch.countDown();
+        }));
+
+        assertTrue("Callback should be delivered", latch.await(10, TimeUnit.SECONDS));
+        assertTrue("Callback should run on the main thread", callbackOnMain[0]);
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    // ✅ Test that no database call issued through the facade runs on the main looper
+    @Test
+    public void testNoDatabaseCallRunsOnMainLooper() throws InterruptedException {
+        Boolean registered = callFromMainThread(cb -> asyncController.registerUser("asyncUser", "asyncPass", "5555555555", cb));
+        assertTrue("User should be registered", registered);
+
+        Integer userId = callFromMainThread(cb -> asyncController.authenticateUser("asyncUser", "asyncPass", cb));
+        assertNotEquals("User should authenticate", -1, (int) userId);
+
+        Boolean added = callFromMainThread(cb -> asyncController.addItem("Scanner", 4, userId, cb));
+        assertTrue("Item should be added", added);
+
+        List<Item> items = callFromMainThread(cb -> asyncController.getAllItems(userId, cb));
+        assertEquals(1, items.size());
+
+        int itemId = items.get(0).getId();
+        Boolean updated = callFromMainThread(cb -> asyncController.updateItem(itemId, "Scanner", 9, userId, cb));
+        assertTrue("Item should be updated", updated);
+
+        Boolean smsUpdated = callFromMainThread(cb -> asyncController.updateSmsPreference(userId, true, cb));
+        assertTrue("SMS preference should be updated", smsUpdated);
+
+        Boolean smsEnabled = callFromMainThread(cb -> asyncController.getSmsPreference(userId, cb));
+        assertTrue("SMS should be enabled", smsEnabled);
+
+        Boolean deleted = callFromMainThread(cb -> asyncController.deleteItem(itemId, userId, cb));
+        assertTrue("Item should be deleted", deleted);
+
+        assertTrue("Database should have been used", dbHelper.databaseCalls.get() > 0);
+        assertEquals("No database call may run on the main looper", 0, dbHelper.mainThreadCalls.get());
+    }
+
+    // ❌ A failing task still answers its callback, with the call's "did not happen" value
+    @Test
+    public void testFailedTaskStillCallsBack() throws InterruptedException {
+        Boolean registered = callFromMainThread(cb -> asyncController.registerUser("asyncUser", "asyncPass", "5555555555", cb));
+        assertTrue(registered);
+        Integer userId = callFromMainThread(cb -> asyncController.authenticateUser("asyncUser", "asyncPass", cb));
+        assertNotEquals(-1, (int) userId);
+
+        dbHelper.failing = true;
+        Boolean updated = callFromMainThread(cb -> asyncController.updateItem(1, "Scanner", 9, userId, cb));
+        assertFalse("Failed write reports false", updated);
+        Item created = callFromMainThread(cb -> asyncController.createItem("Scanner", 4, userId, cb));
+        assertNull("Failed insert reports null", created);
+        List<Item> items = callFromMainThread(cb -> asyncController.getLowStockItems(userId, cb));
+        assertNull("Failed read reports null", items);
+        dbHelper.failing = false;
+    }
+
+    // ❌ A call that cannot be queued still answers its callback
+    @Test
+    public void testRejectedTaskStillCallsBack() throws InterruptedException {
+        asyncController.shutdown();
+        Boolean added = callFromMainThread(cb -> asyncController.addItem("Scanner", 4, 1, cb));
+        assertFalse("Rejected write reports false", added);
+        Integer userId = callFromMainThread(cb -> asyncController.authenticateUser("asyncUser", "asyncPass", cb));
+        assertEquals(-1, (int) userId);
+    }
+}
@@ -9,6 +9,8 @@ import androidx.test.core.app.ApplicationProvider;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class DatabaseControllerTest {
@@ -57,6 +59,37 @@ public class DatabaseControllerTest {
         assertTrue("Item should be inserted", success);
     }
 
+    // ✅ Test bulk inserting items skips invalid rows
+    @Test
+    public void testAddItems_SkipsInvalidItems() {
+        int userId = registerTestUser();
+        List<Item> batch = Arrays.asList(
+                new Item(0, "Bolt", 100),
+                new Item(0, "", 5),
+                new Item(0, "Nut", 0),
+                new Item(0, "Washer", 250));
+
+        int inserted = dbController.addItems(batch, userId);
+
+        assertEquals("Only valid items should be inserted", 2, inserted);
+        assertEquals(2, dbController.getAllItems(userId).size());
+    }
+
+    // ✅ Test streaming bulk insert spanning several chunks
+    @Test
+    public void testAddItems_StreamingAcrossChunks() {
+        int userId = registerTestUser();
+        List<Item> batch = new ArrayList<>();
+        for (int i = 0; i < 12_000; i++) {
+            batch.add(new Item(0, "Part " + i, i + 1));
+        }
+
+        int inserted = dbController.addItems(batch.iterator(), userId);
+
+        assertEquals(12_000, inserted);
+        assertEquals(12_000, dbController.getAllItems(userId).size());
+    }
+
     // ✅ Test retrieving items
     @Test
     public void testRetrieveItems() {
@@ -110,6 +143,57 @@ public class DatabaseControllerTest {
         assertTrue("User's inventory should be empty", items.isEmpty());
     }
 
+    // ✅ Test the item cache serves repeat reads and stays in sync with writes
+    @Test
+    public void testItemCache_WriteThrough() {
+        int userId = registerTestUser();
+        dbController.addItem("Cable", 4, userId);
+
+        dbController.getAllItems(userId); // Miss: loads the user into the cache
+        long missesAfterLoad = dbController.getCacheMissCount();
+
+        Item created = dbController.createItem("Adapter", 2, userId);
+        assertNotNull(created);
+        int cableId = dbController.getAllItems(userId).get(0).getId();
+        dbController.updateItem(cableId, "Cable", 40, userId);
+        dbController.deleteItem(created.getId(), userId);
+
+        List<Item> items = dbController.getAllItems(userId);
+        assertEquals("Writes should not cause further misses", missesAfterLoad, dbController.getCacheMissCount());
+        assertTrue("Reads should be served from the cache", dbController.getCacheHitCount() >= 2);
+        assertEquals(1, items.size());
+        assertEquals(40, items.get(0).getQuantity());
+
+        // The cached view must match what is actually stored
+        List<Item> stored = dbHelper.getAllItems(userId);
+        assertEquals(stored.size(), items.size());
+        assertEquals(stored.get(0).getQuantity(), items.get(0).getQuantity());
+    }
+
+    // ✅ Test that inactive users are evicted and oversized users are not cached
+    @Test
+    public void testItemCache_Bounds() {
+        int userId = registerTestUser();
+        assertTrue(dbHelper.registerUser("otheruser", "password456", "0987654321"));
+        int otherUserId = dbHelper.authenticateUser("otheruser", "password456");
+
+        DatabaseController bounded = new DatabaseController(dbHelper, 1, 2);
+        bounded.addItem("A", 1, userId);
+        bounded.addItem("B", 1, otherUserId);
+
+        bounded.getAllItems(userId);      // miss, cached
+        bounded.getAllItems(otherUserId); // miss, evicts userId
+        bounded.getAllItems(userId);      // miss again
+        assertEquals(3, bounded.getCacheMissCount());
+        assertEquals(0, bounded.getCacheHitCount());
+
+        bounded.addItem("C", 1, userId);
+        bounded.addItem("D", 1, userId); // Now three items: over the per-user bound
+        assertEquals(3, bounded.getAllItems(userId).size());
+        assertEquals(3, bounded.getAllItems(userId).size());
+        assertEquals("A user over the item bound is never served from the cache", 0, bounded.getCacheHitCount());
+    }
+
     // ✅ Test enabling SMS notifications
     @Test
     public void testEnableSmsNotifications() {
@@ -154,4 +238,14 @@ public class DatabaseControllerTest {
     public void tearDown() {
         dbHelper.clearUsersTable(); // Clean up database after tests
     }
+
+    // ❌ Repeated wrong passwords lock the username out, even for the right password
+    @Test
+    public void testAuthenticateUser_ThrottlesAfterFailures() {
+        registerTestUser();
+        for (int i = 0; i < LoginThrottle.FREE_ATTEMPTS; i++) {
+            assertEquals(-1, dbController.authenticateUser("testuser", "wrong" + i));
+        }
+        assertEquals(DatabaseController.LOGIN_THROTTLED, dbController.authenticateUser("testuser", "password123"));
+    }
 }
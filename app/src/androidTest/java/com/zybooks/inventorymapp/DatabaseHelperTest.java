@@ -1,6 +1,10 @@
 package com.zybooks.inventorymapp;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
@@ -125,6 +129,20 @@ public class DatabaseHelperTest {
         assertTrue("Item should be inserted", result);
     }
 
+    // ✅ Test Bulk Insert Keeps Going Past an Item Without a Name
+    @Test
+    public void testInsertItems_NullName() {
+        int userId = registerTestUser();
+        List<Item> batch = Arrays.asList(new Item(0, "Stapler", 4), new Item(0, null, 2), new Item(0, "Tape", 9));
+        assertEquals(3, dbHelper.insertItems(batch.iterator(), userId));
+
+        List<Item> items = dbHelper.getAllItems(userId);
+        assertEquals(3, items.size());
+        assertNull(items.get(1).getName());
+        assertEquals(2, items.get(1).getQuantity());
+        assertEquals("Tape", items.get(2).getName());
+    }
+
     // ✅ Test Retrieving Items
     @Test
     public void testRetrieveItems() {
@@ -134,6 +152,31 @@ public class DatabaseHelperTest {
         assertFalse("Item list should not be empty", items.isEmpty());
     }
 
+    // ✅ Test Keyset Paging Walks Every Item Exactly Once, Forwards and Backwards
+    @Test
+    public void testGetItemsPage_WalksAllItems() {
+        int userId = registerTestUser();
+        for (int i = 0; i < 25; i++) {
+            dbHelper.insertItem("Item " + i, i + 1, userId);
+        }
+
+        List<Item> walked = new ArrayList<>();
+        List<Item> page = dbHelper.getItemsPage(userId, 0, 10);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            page = dbHelper.getItemsPage(userId, page.get(page.size() - 1).getId(), 10);
+        }
+        assertEquals("Every item should be returned once", 25, walked.size());
+        assertEquals("Item 0", walked.get(0).getName());
+        assertEquals("Item 24", walked.get(24).getName());
+
+        int lastId = walked.get(24).getId();
+        List<Item> before = dbHelper.getItemsPageBefore(userId, lastId, 10);
+        assertEquals(10, before.size());
+        assertEquals("Backward page should be in id order", "Item 14", before.get(0).getName());
+        assertEquals("Item 23", before.get(9).getName());
+    }
+
     // ✅ Test Updating an Item
     @Test
     public void testUpdateItem() {
@@ -166,7 +209,356 @@ public class DatabaseHelperTest {
         assertTrue("User's inventory should be empty", items.isEmpty());
     }
 
+    // ✅ Test Upgrading a Version 3 Database Keeps Users and Items
+    @Test
+    public void testUpgradeFromVersion3_PreservesData() {
+        String migrationDb = "migration_test.db";
+        context.deleteDatabase(migrationDb);
+
+        // Build the database exactly as version 3 of the app created it
+        SQLiteDatabase legacy = context.openOrCreateDatabase(migrationDb, Context.MODE_PRIVATE, null);
+        legacy.execSQL("CREATE TABLE users (user_id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE, " +
+                "password TEXT, sms_enabled INTEGER DEFAULT 0, phone_number TEXT)");
+        legacy.execSQL("CREATE TABLE items (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, quantity INTEGER, " +
+                "user_id INTEGER, FOREIGN KEY(user_id) REFERENCES users(user_id))");
+        legacy.execSQL("INSERT INTO users (username, password, sms_enabled, phone_number) " +
+                "VALUES ('legacyUser', 'legacyPass', 0, '1234567890')");
+        legacy.execSQL("INSERT INTO items (name, quantity, user_id) VALUES ('Stapler', 12, 1)");
+        legacy.setVersion(3);
+        legacy.close();
+
+        DatabaseHelper upgraded = new DatabaseHelper(context, migrationDb);
+        int userId = upgraded.authenticateUser("legacyUser", "legacyPass");
+        assertEquals("Existing user should survive the upgrade", 1, userId);
+
+        List<Item> items = upgraded.getAllItems(userId);
+        assertEquals("Existing items should survive the upgrade", 1, items.size());
+        assertEquals("Stapler", items.get(0).getName());
+        assertEquals("Existing items should get the default threshold",
+                DatabaseHelper.DEFAULT_REORDER_THRESHOLD, items.get(0).getReorderThreshold());
+        assertEquals("Existing items should be indexed for search",
+                1, upgraded.searchItems(userId, "stap", 10, null).size());
+
+        Cursor cursor = upgraded.getReadableDatabase().rawQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = 'items' AND name LIKE 'idx_items_%'", null);
+        assertTrue("Item indexes should be created by the upgrade", cursor.getCount() >= 2);
+        cursor.close();
+
+        upgraded.close();
+        context.deleteDatabase(migrationDb);
+    }
+
+    // ✅ Low-stock query uses each item's own threshold
+    @Test
+    public void testGetLowStockItems_UsesPerItemThreshold() {
+        int userId = registerTestUser();
+        dbHelper.insertItemAndGetId("Tape", 2, userId);          // Below default threshold of 3
+        dbHelper.insertItemAndGetId("Glue", 8, 10, userId);      // Below its own threshold
+        dbHelper.insertItemAndGetId("Pens", 8, 5, userId);       // Above its own threshold
+        long paper = dbHelper.insertItemAndGetId("Paper", 3, userId); // Equal is not low
+
+        List<String> names = new ArrayList<>();
+        for (Item item : dbHelper.getLowStockItems(userId)) {
+            names.add(item.getName());
+        }
+        assertEquals(Arrays.asList("Tape", "Glue"), names);
+
+        assertTrue(dbHelper.updateReorderThreshold((int) paper, 4, userId));
+        assertTrue(dbHelper.isLowStock((int) paper, userId));
+        assertEquals(3, dbHelper.getLowStockItems(userId).size());
+    }
+
+    // ✅ The low-stock query is answered from the partial index
+    @Test
+    public void testGetLowStockItems_UsesPartialIndex() {
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery(
+                "EXPLAIN QUERY PLAN SELECT id FROM items WHERE user_id = 1 AND quantity < reorder_threshold ORDER BY id", null);
+        StringBuilder plan = new StringBuilder();
+        while (cursor.moveToNext()) {
+            plan.append(cursor.getString(3));
+        }
+        cursor.close();
+        assertTrue(plan.toString(), plan.toString().contains("idx_items_low_stock"));
+    }
+
+    // ✅ Passwords are stored as salted hashes, never as typed
+    @Test
+    public void testPasswordIsHashed() {
+        int userId = registerTestUser();
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery("SELECT password FROM users WHERE user_id = ?",
+                new String[]{String.valueOf(userId)});
+        assertTrue(cursor.moveToFirst());
+        String stored = cursor.getString(0);
+        cursor.close();
+        assertNotEquals("password123", stored);
+        assertTrue(stored.startsWith("pbkdf2$"));
+    }
+
+    // ✅ A legacy plaintext row still logs in and is rehashed by that login
+    @Test
+    public void testLegacyPlaintextRehashedOnLogin() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("INSERT INTO users (username, password, sms_enabled, phone_number) " +
+                "VALUES ('legacyUser', 'legacyPass', 0, '1234567890')");
+
+        int userId = dbHelper.authenticateUser("legacyUser", "legacyPass");
+        assertNotEquals(-1, userId);
+
+        Cursor cursor = db.rawQuery("SELECT password FROM users WHERE user_id = ?", new String[]{String.valueOf(userId)});
+        assertTrue(cursor.moveToFirst());
+        String stored = cursor.getString(0);
+        cursor.close();
+        assertTrue("Plaintext should be replaced by a hash", stored.startsWith("pbkdf2$"));
+        assertEquals("The rehashed row should still log in", userId, dbHelper.authenticateUser("legacyUser", "legacyPass"));
+        assertEquals(-1, dbHelper.authenticateUser("legacyUser", "wrongPass"));
+    }
+
+    // ✅ Search matches word prefixes, in any order, for the owner only
+    @Test
+    public void testSearchItems_PrefixMatch() {
+        int userId = registerTestUser();
+        dbHelper.insertItem("Paper Stapler", 4, userId);
+        dbHelper.insertItem("Staples", 9, userId);
+        dbHelper.insertItem("Tape", 2, userId);
+        dbHelper.insertItem("Stapler", 1, userId + 1); // Another user's item
+
+        assertEquals(2, dbHelper.searchItems(userId, "sta", 10, null).size());
+        List<Item> both = dbHelper.searchItems(userId, "STA pap", 10, null);
+        assertEquals(1, both.size());
+        assertEquals("Paper Stapler", both.get(0).getName());
+        assertEquals(1, dbHelper.searchItems(userId, "sta", 1, null).size());
+        assertTrue(dbHelper.searchItems(userId, "glue", 10, null).isEmpty());
+    }
+
+    // ✅ The index follows inserts, renames and deletes
+    @Test
+    public void testSearchItems_TracksChanges() {
+        int userId = registerTestUser();
+        int id = (int) dbHelper.insertItemAndGetId("Stapler", 4, userId);
+        assertTrue(dbHelper.updateItem(id, "Hole Punch", 4, userId));
+        assertTrue(dbHelper.searchItems(userId, "stap", 10, null).isEmpty());
+        assertEquals(1, dbHelper.searchItems(userId, "hole", 10, null).size());
+
+        assertTrue(dbHelper.deleteItem(id, userId));
+        assertTrue(dbHelper.searchItems(userId, "hole", 10, null).isEmpty());
+    }
+
+    // ❌ Query syntax in the search box is treated as plain text
+    @Test
+    public void testSearchItems_IgnoresQuerySyntax() {
+        int userId = registerTestUser();
+        dbHelper.insertItem("Tape OR Glue", 4, userId);
+        assertEquals(1, dbHelper.searchItems(userId, "\"tape\" OR -(glue", 10, null).size());
+        assertTrue(dbHelper.searchItems(userId, "*:\"()", 10, null).isEmpty());
+        assertNull(DatabaseHelper.buildMatchQuery("  --  "));
+    }
+
+    // ✅ Every sort order walks all items exactly once, in order, even with equal sort keys
+    @Test
+    public void testSortedPages_WalkInOrder() {
+        int userId = registerTestUser();
+        String[] names = {"tape", "Glue", "paper", "Tape", "box", "glue", "Ink"};
+        for (int i = 0; i < names.length; i++) {
+            dbHelper.insertItemAndGetId(names[i], i % 3 + 1, DatabaseHelper.DEFAULT_REORDER_THRESHOLD, userId, 1000 + i % 2);
+        }
+
+        for (ItemSort sort : ItemSort.values()) {
+            List<Item> walked = new ArrayList<>();
+            List<Item> page = dbHelper.getItemsPage(userId, sort, ItemFilter.ALL, null, 2);
+            while (!page.isEmpty()) {
+                walked.addAll(page);
+                page = dbHelper.getItemsPage(userId, sort, ItemFilter.ALL, page.get(page.size() - 1), 2);
+            }
+            assertEquals(sort.name(), names.length, walked.size());
+            for (int i = 1; i < walked.size(); i++) {
+                assertTrue(sort.name() + " out of order at " + i, compare(sort, walked.get(i - 1), walked.get(i)) < 0);
+            }
+
+            // ✅ Walking back from the last item gives the same order
+            Item last = walked.get(walked.size() - 1);
+            assertEquals(ids(walked.subList(walked.size() - 3, walked.size() - 1)),
+                    ids(dbHelper.getItemsPageBefore(userId, sort, ItemFilter.ALL, last, 2)));
+            assertEquals(last.getId(), dbHelper.getItemsPageFrom(userId, sort, ItemFilter.ALL, last, 2).get(0).getId());
+        }
+    }
+
+    private static List<Integer> ids(List<Item> items) {
+        List<Integer> ids = new ArrayList<>();
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static int compare(ItemSort sort, Item a, Item b) {
+        switch (sort) {
+            case NAME:
+                int byName = a.getName().compareToIgnoreCase(b.getName());
+                return byName != 0 ? byName : Integer.compare(a.getId(), b.getId());
+            case QUANTITY:
+                int byQuantity = Integer.compare(a.getQuantity(), b.getQuantity());
+                return byQuantity != 0 ? byQuantity : Integer.compare(a.getId(), b.getId());
+            case RECENT:
+                int byTime = Long.compare(b.getUpdatedAt(), a.getUpdatedAt()); // Newest first
+                return byTime != 0 ? byTime : Integer.compare(b.getId(), a.getId());
+            default:
+                return Integer.compare(a.getId(), b.getId());
+        }
+    }
+
+    // ✅ The below-threshold filter only returns low items
+    @Test
+    public void testSortedPages_BelowThresholdFilter() {
+        int userId = registerTestUser();
+        dbHelper.insertItem("Tape", 2, userId);
+        dbHelper.insertItem("Glue", 9, userId);
+        dbHelper.insertItemAndGetId("Ink", 5, 10, userId);
+
+        List<Item> low = dbHelper.getItemsPage(userId, ItemSort.NAME, ItemFilter.BELOW_THRESHOLD, null, 10);
+        assertEquals(2, low.size());
+        assertEquals("Ink", low.get(0).getName());
+        assertEquals("Tape", low.get(1).getName());
+    }
+
+    // ✅ Each sort order is answered from its index, without a sort step
+    @Test
+    public void testSortedPages_UseIndexes() {
+        String[] orderBys = {"name COLLATE NOCASE, id", "quantity, id", "updated_at DESC, id DESC"};
+        for (String orderBy : orderBys) {
+            Cursor cursor = dbHelper.getReadableDatabase().rawQuery(
+                    "EXPLAIN QUERY PLAN SELECT id FROM items WHERE user_id = 1 ORDER BY " + orderBy + " LIMIT 50", null);
+            StringBuilder plan = new StringBuilder();
+            while (cursor.moveToNext()) {
+                plan.append(cursor.getString(3)).append("; ");
+            }
+            cursor.close();
+            assertFalse(orderBy + ": " + plan, plan.toString().contains("TEMP B-TREE"));
+        }
+    }
+
     // ✅ Test Clearing Users Table
+    // ✅ Test Concurrent Adjustments All Count
+    @Test
+    public void testAdjustQuantity_ConcurrentAdjustmentsAddUp() throws InterruptedException {
+        int userId = registerTestUser();
+        int itemId = (int) dbHelper.insertItemAndGetId("Toner", 100, userId);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) {
+                    assertNotNull(dbHelper.adjustQuantity(itemId, userId, 1, System.currentTimeMillis()));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1100, dbHelper.getItemsPage(userId, 0, 1).get(0).getQuantity());
+    }
+
+    // ✅ Test Adjustments Return the Stored Row and Stop at Zero
+    @Test
+    public void testAdjustQuantity_ReturnsStoredItem() {
+        int userId = registerTestUser();
+        int itemId = (int) dbHelper.insertItemAndGetId("Toner", 5, 2, userId);
+
+        Item item = dbHelper.adjustQuantity(itemId, userId, -4, 1234L);
+        assertEquals(1, item.getQuantity());
+        assertEquals(1234L, item.getUpdatedAt());
+        assertTrue(item.isLowStock());
+        assertEquals(0, dbHelper.adjustQuantity(itemId, userId, -10, 1235L).getQuantity());
+
+        // ❌ Unknown items and other users' items are not touched
+        assertNull(dbHelper.adjustQuantity(itemId + 1, userId, 1, 1236L));
+        assertNull(dbHelper.adjustQuantity(itemId, userId + 1, 1, 1236L));
+    }
+
+    // ✅ Test Batch Adjustments Skip Unknown Items
+    @Test
+    public void testAdjustQuantities_Batch() {
+        int userId = registerTestUser();
+        int first = (int) dbHelper.insertItemAndGetId("Pens", 10, userId);
+        int second = (int) dbHelper.insertItemAndGetId("Paper", 20, userId);
+        Map<Integer, Integer> deltas = new LinkedHashMap<>();
+        deltas.put(first, -3);
+        deltas.put(second + 100, 5);
+        deltas.put(second, 7);
+
+        List<Item> adjusted = dbHelper.adjustQuantities(deltas, userId, 1234L);
+        assertEquals(2, adjusted.size());
+        assertEquals(7, adjusted.get(0).getQuantity());
+        assertEquals(27, adjusted.get(1).getQuantity());
+    }
+
+    // ✅ Test Every Quantity Change Lands in the Ledger
+    @Test
+    public void testStockLedger_QuantityAtTime() {
+        int userId = registerTestUser();
+        int itemId = (int) dbHelper.insertItemAndGetId("Toner", 10, 3, userId, 1000L);
+        assertTrue(dbHelper.updateItem(itemId, "Toner", 7, userId, 2000L));
+        assertNotNull(dbHelper.adjustQuantity(itemId, userId, 5, 3000L));
+        assertTrue(dbHelper.updateItem(itemId, "Renamed", 12, userId, 4000L)); // Same quantity, no movement
+
+        assertEquals("Did not exist yet", -1, dbHelper.getQuantityAt(itemId, userId, 999L));
+        assertEquals(10, dbHelper.getQuantityAt(itemId, userId, 1999L));
+        assertEquals(7, dbHelper.getQuantityAt(itemId, userId, 2000L));
+        assertEquals(12, dbHelper.getQuantityAt(itemId, userId, 3500L));
+        assertEquals(12, dbHelper.getQuantityAt(itemId, userId, 5000L));
+        // ❌ Another user's item is never answered
+        assertEquals(-1, dbHelper.getQuantityAt(itemId, userId + 1, 5000L));
+
+        assertTrue(dbHelper.deleteItem(itemId, userId));
+        assertEquals("Deleting records the stock leaving", 0,
+                dbHelper.getQuantityAt(itemId, userId, System.currentTimeMillis() + 1000));
+    }
+
+    // ✅ Test Compaction Folds Old Movements Into Snapshots
+    @Test
+    public void testStockLedger_Compaction() {
+        int userId = registerTestUser();
+        int itemId = (int) dbHelper.insertItemAndGetId("Toner", 10, 3, userId, 100L);
+        assertTrue(dbHelper.updateItem(itemId, "Toner", 8, userId, 500L));
+        assertTrue(dbHelper.updateItem(itemId, "Toner", 6, userId, 1500L));
+        assertTrue(dbHelper.updateItem(itemId, "Toner", 4, userId, 2500L));
+
+        // ✅ Cut at 2000 (rounded down from 2200): three movements become two snapshots
+        assertEquals(3, dbHelper.compactStockMovements(2200L, 1000L));
+        assertEquals(0, dbHelper.compactStockMovements(2200L, 1000L));
+
+        assertEquals(8, dbHelper.getQuantityAt(itemId, userId, 600L));
+        assertEquals(6, dbHelper.getQuantityAt(itemId, userId, 1999L));
+        assertEquals(4, dbHelper.getQuantityAt(itemId, userId, 2500L));
+        // ✅ Inside a compacted period only its final quantity is kept
+        assertEquals(-1, dbHelper.getQuantityAt(itemId, userId, 300L));
+
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery("SELECT count(*) FROM stock_movements", null);
+        assertTrue(cursor.moveToFirst());
+        assertEquals(1, cursor.getInt(0));
+        cursor.close();
+    }
+
+    // ✅ Test Repeated Writes Reuse Their Compiled Statements
+    @Test
+    public void testCompiledStatements_AreReused() {
+        int userId = registerTestUser();
+        int itemId = (int) dbHelper.insertItemAndGetId("Stapler", 5, userId);
+        assertTrue(dbHelper.updateItem(itemId, "Stapler", 4, userId));
+        long compiled = dbHelper.getCompiledStatementCount();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(dbHelper.updateItem(itemId, "Stapler", i, userId));
+        }
+        assertEquals("No new statements once warm", compiled, dbHelper.getCompiledStatementCount());
+
+        // ✅ A database closed behind the helper's back is reopened with fresh statements
+        dbHelper.getWritableDatabase().close();
+        assertTrue(dbHelper.updateItem(itemId, null, 7, userId));
+        assertNull(dbHelper.getItemsPage(userId, 0, 1).get(0).getName());
+        assertTrue(dbHelper.deleteItem(itemId, userId));
+        assertFalse(dbHelper.deleteItem(itemId, userId));
+    }
+
     @Test
     public void testClearUsersTable() {
         dbHelper.registerUser("testuser", "password123", "9876543210");
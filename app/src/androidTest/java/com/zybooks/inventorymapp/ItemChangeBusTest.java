@@ -0,0 +1,176 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ItemChangeBusTest {
+    private static final String TEST_DB = "changes_test.db";
+    private static final int RAPID_WRITES = 1_000;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private int userId;
+    private final BlockingQueue<List<ItemChange>> deliveries = new LinkedBlockingQueue<>();
+    private final ItemChangeBus.Observer observer = deliveries::add;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        assertTrue(dbHelper.registerUser("busUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("busUser", "password123");
+        dbHelper.getItemChanges().addObserver(observer);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.getItemChanges().removeObserver(observer);
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    // / Everything delivered until the bus has been quiet for a while
+    private List<List<ItemChange>> drain() throws InterruptedException {
+        List<List<ItemChange>> delivered = new ArrayList<>();
+        List<ItemChange> changes;
+        while ((changes = deliveries.poll(500, TimeUnit.MILLISECONDS)) != null) {
+            delivered.add(changes);
+        }
+        return delivered;
+    }
+
+    // ✅ 1,000 rapid writes reach the observer in at most one delivery (UI refresh) per frame
+    @Test
+    public void testRapidWritesCoalescePerFrame() throws InterruptedException {
+        Set<Integer> written = new HashSet<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < RAPID_WRITES; i++) {
+            written.add((int) dbHelper.insertItemAndGetId("Rapid " + i, 5, userId));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        List<List<ItemChange>> delivered = drain();
+        Set<Integer> seen = new HashSet<>();
+        boolean reloaded = false;
+        for (List<ItemChange> changes : delivered) {
+            for (ItemChange change : changes) {
+                assertEquals(userId, change.getUserId());
+                if (change.getKind() == ItemChange.Kind.RELOAD) {
+                    reloaded = true;
+                } else {
+                    assertEquals(ItemChange.Kind.INSERTED, change.getKind());
+                    assertTrue("Each item at most once per delivery", seen.add(change.getItemId()));
+                }
+            }
+        }
+        assertTrue("Every write should be reported", reloaded || seen.equals(written));
+        assertTrue("Writes should be coalesced, got " + delivered.size() + " deliveries",
+                delivered.size() < RAPID_WRITES);
+        assertTrue(delivered.size() + " deliveries in " + elapsedMillis + " ms is more than one per frame",
+                delivered.size() <= elapsedMillis / ItemChangeBus.FRAME_MILLIS + 2);
+    }
+
+    // ✅ Changes made in a transaction are published only after it commits
+    @Test
+    public void testChangesWaitForCommit() throws InterruptedException {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        long itemId;
+        dbHelper.beginItemTransaction(db);
+        try {
+            itemId = dbHelper.insertItemAndGetId("Pens", 10, userId);
+            dbHelper.updateItem((int) itemId, "Blue Pens", 12, userId);
+            assertNull("Nothing before the commit", deliveries.poll(200, TimeUnit.MILLISECONDS));
+            db.setTransactionSuccessful();
+        } finally {
+            dbHelper.endItemTransaction(db);
+        }
+
+        List<List<ItemChange>> delivered = drain();
+        assertEquals(1, delivered.size());
+        assertEquals("Insert then update is still an insert to the observer", 1, delivered.get(0).size());
+        assertEquals(ItemChange.Kind.INSERTED, delivered.get(0).get(0).getKind());
+        assertEquals(itemId, delivered.get(0).get(0).getItemId());
+    }
+
+    // ❌ Changes from a rolled-back transaction are never published
+    @Test
+    public void testRolledBackChangesAreDropped() throws InterruptedException {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        dbHelper.beginItemTransaction(db);
+        try {
+            dbHelper.insertItemAndGetId("Ghost", 1, userId);
+        } finally {
+            dbHelper.endItemTransaction(db); // Not marked successful
+        }
+        assertTrue(drain().isEmpty());
+        assertTrue(dbHelper.getAllItems(userId).isEmpty());
+    }
+
+    // ✅ A burst larger than one frame's worth becomes a single RELOAD for the user
+    @Test
+    public void testLargeBurstBecomesReload() throws InterruptedException {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ItemChangeBus.MAX_CHANGES_PER_FRAME * 3; i++) {
+            items.add(new Item(0, "Bulk " + i, 1));
+        }
+        dbHelper.insertItems(items.iterator(), userId);
+
+        List<List<ItemChange>> delivered = drain();
+        assertEquals(1, delivered.size());
+        assertEquals(1, delivered.get(0).size());
+        assertEquals(ItemChange.Kind.RELOAD, delivered.get(0).get(0).getKind());
+        assertTrue(delivered.get(0).get(0).affects(userId));
+    }
+
+    // ✅ Deletes, adjustments and clears are reported with the right kind
+    @Test
+    public void testChangeKinds() throws InterruptedException {
+        int pens = (int) dbHelper.insertItemAndGetId("Pens", 10, userId);
+        int paper = (int) dbHelper.insertItemAndGetId("Paper", 10, userId);
+        drain();
+
+        dbHelper.adjustQuantity(pens, userId, -2, System.currentTimeMillis());
+        assertTrue(dbHelper.deleteItem(paper, userId));
+        List<List<ItemChange>> delivered = drain();
+        List<ItemChange> changes = new ArrayList<>();
+        for (List<ItemChange> batch : delivered) {
+            changes.addAll(batch);
+        }
+        assertEquals(2, changes.size());
+        assertEquals(ItemChange.Kind.UPDATED, changes.get(0).getKind());
+        assertEquals(pens, changes.get(0).getItemId());
+        assertEquals(ItemChange.Kind.DELETED, changes.get(1).getKind());
+        assertEquals(paper, changes.get(1).getItemId());
+
+        dbHelper.clearItemsForUser(userId);
+        delivered = drain();
+        assertEquals(1, delivered.size());
+        assertEquals(ItemChange.Kind.RELOAD, delivered.get(0).get(0).getKind());
+    }
+
+    // ✅ Merge rules for an item that changes twice within one frame
+    @Test
+    public void testMerge() {
+        ItemChange inserted = new ItemChange(ItemChange.Kind.INSERTED, 1, userId);
+        ItemChange updated = new ItemChange(ItemChange.Kind.UPDATED, 1, userId);
+        ItemChange deleted = new ItemChange(ItemChange.Kind.DELETED, 1, userId);
+        assertSame(inserted, ItemChangeBus.merge(null, inserted));
+        assertSame(inserted, ItemChangeBus.merge(inserted, updated));
+        assertNull("Inserted and deleted before anyone saw it", ItemChangeBus.merge(inserted, deleted));
+        assertSame(deleted, ItemChangeBus.merge(updated, deleted));
+    }
+}
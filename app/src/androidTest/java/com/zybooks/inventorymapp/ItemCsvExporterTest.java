@@ -0,0 +1,148 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItemCsvExporterTest {
+    private static final String TEST_DB = "export_test.db";
+    private static final int LARGE_ROWS = 1_000_000;
+    // / The whole 1M-row file is over 40 MB; the export must stay far below that
+    private static final long MAX_HEAP_GROWTH_BYTES = 8 * 1024 * 1024;
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private ItemCsvExporter exporter;
+    private int userId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        exporter = new ItemCsvExporter(dbHelper);
+        assertTrue(dbHelper.registerUser("exportUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("exportUser", "password123");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    // ✅ Counts bytes and throws them away, so the test itself holds nothing
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    private static long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // ✅ Header plus one escaped row per item, only the user's own
+    @Test
+    public void testExportWritesCsv() throws IOException {
+        dbHelper.insertItemAndGetId("Pens, blue", 12, 3, userId, 0L);
+        dbHelper.insertItemAndGetId("12\" ruler", 2, 5, userId, 1_700_000_000_000L);
+        dbHelper.insertItemAndGetId("Not mine", 1, userId + 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(2, exporter.export(userId, out, null, null));
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals(ItemCsvExporter.HEADER, lines[0]);
+        assertTrue(lines[1].endsWith(",\"Pens, blue\",12,3,1970-01-01T00:00:00Z"));
+        assertTrue(lines[2].endsWith(",\"12\"\" ruler\",2,5,2023-11-14T22:13:20Z"));
+    }
+
+    // ✅ Progress is reported per chunk and reaches the total
+    @Test
+    public void testProgressIsReported() throws IOException {
+        int rows = ItemCsvExporter.CHUNK_SIZE * 2 + 10;
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            items.add(new Item(0, "Item " + i, i + 1));
+        }
+        assertEquals(rows, dbHelper.insertItems(items.iterator(), userId));
+        List<Long> progress = new ArrayList<>();
+
+        exporter.export(userId, new CountingOutputStream(), (written, total) -> {
+            assertEquals(rows, total);
+            progress.add(written);
+        }, null);
+
+        assertEquals(3, progress.size());
+        assertEquals(rows, (long) progress.get(progress.size() - 1));
+    }
+
+    // ❌ A cancelled export stops
+    @Test(expected = OperationCanceledException.class)
+    public void testCancellation() throws IOException {
+        dbHelper.insertItemAndGetId("Pens", 12, userId);
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        cancellationSignal.cancel();
+        exporter.export(userId, new CountingOutputStream(), null, cancellationSignal);
+    }
+
+    // ✅ A million rows export with flat memory
+    @Test
+    public void testLargeExportUsesConstantMemory() throws IOException {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO items (name, quantity, user_id) VALUES (?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < LARGE_ROWS; i++) {
+                insert.bindString(1, "Item " + i);
+                insert.bindLong(2, i % 50);
+                insert.bindLong(3, userId);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        insert.close();
+
+        long baseline = usedHeapBytes();
+        long[] peak = {0};
+        CountingOutputStream out = new CountingOutputStream();
+        long rows = exporter.export(userId, out, (written, total) -> {
+            if (written % (100 * ItemCsvExporter.CHUNK_SIZE) == 0) {
+                peak[0] = Math.max(peak[0], usedHeapBytes() - baseline);
+            }
+        }, null);
+
+        assertEquals(LARGE_ROWS, rows);
+        assertTrue("Wrote " + out.bytes + " bytes", out.bytes > 30L * LARGE_ROWS);
+        assertTrue("Heap grew by " + peak[0] + " bytes", peak[0] < MAX_HEAP_GROWTH_BYTES);
+    }
+}
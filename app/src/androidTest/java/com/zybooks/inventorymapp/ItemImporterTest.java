@@ -0,0 +1,192 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.os.CancellationSignal;
+import android.os.OperationCanceledException;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ItemImporterTest {
+    private static final String TEST_DB = "import_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private ItemImporter importer;
+    private int userId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        importer = new ItemImporter(dbHelper);
+        assertTrue(dbHelper.registerUser("importUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("importUser", "password123");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ✅ Fails partway through, like a process dying mid-import
+    private static class FailingInputStream extends InputStream {
+        private final InputStream source;
+        private int remaining;
+
+        FailingInputStream(InputStream source, int failAfterBytes) {
+            this.source = source;
+            this.remaining = failAfterBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining-- <= 0) {
+                throw new IOException("Simulated crash");
+            }
+            return source.read();
+        }
+    }
+
+    private Map<String, Item> itemsByName() {
+        Map<String, Item> items = new HashMap<>();
+        for (Item item : dbHelper.getAllItems(userId)) {
+            assertNull("Duplicate item " + item.getName(), items.put(item.getName(), item));
+        }
+        return items;
+    }
+
+    private static String csv(int rows) {
+        StringBuilder csv = new StringBuilder("name,quantity\r\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Item ").append(i).append(',').append(i + 1).append("\r\n");
+        }
+        return csv.toString();
+    }
+
+    // ✅ Known names are updated, new names inserted, invalid rows rejected
+    @Test
+    public void testCsvUpsertAndValidation() throws IOException {
+        long tonerId = dbHelper.insertItemAndGetId("Toner", 1, 7, userId);
+        String file = "\uFEFFName,Quantity,Reorder_Threshold,Notes\r\n" +
+                "Toner,12,,restock\r\n" +
+                "\"Pens, blue\",40,10\r\n" +
+                ",5\r\n" +                 // ❌ No name
+                "Paper,0\r\n" +            // ❌ Same rule as addItem: quantity must be positive
+                "Stapler,lots\r\n" +       // ❌ Not a number
+                "Clips,3,-1\r\n" +         // ❌ Negative threshold
+                "\"Pens, blue\",45\r\n";   // ✅ Same name again: updates the row added above
+
+        ItemImporter.Result result = importer.importItems(userId, "file-1", stream(file), ItemImporter.Format.CSV, null);
+
+        assertEquals(7, result.getRowsRead());
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getUpdated());
+        assertEquals(4, result.getRejected());
+        Map<String, Item> items = itemsByName();
+        assertEquals(2, items.size());
+        assertEquals(tonerId, items.get("Toner").getId());
+        assertEquals(12, items.get("Toner").getQuantity());
+        assertEquals("Threshold kept when the file has none", 7, items.get("Toner").getReorderThreshold());
+        assertEquals(45, items.get("Pens, blue").getQuantity());
+        assertEquals(10, items.get("Pens, blue").getReorderThreshold());
+        assertNull("Finished imports leave no checkpoint", dbHelper.getImportCheckpoint("file-1", userId));
+    }
+
+    // ✅ JSON arrays of objects, numbers as numbers or strings
+    @Test
+    public void testJsonImport() throws IOException {
+        String file = "[{\"name\": \"Toner\", \"quantity\": 12, \"reorder_threshold\": 4, \"sku\": \"T-1\"}," +
+                "{\"name\": \"Paper\", \"quantity\": \"20\"}," +
+                "{\"name\": \"Pens\", \"quantity\": null}," +
+                "42]";
+
+        ItemImporter.Result result = importer.importItems(userId, "file-2", stream(file), ItemImporter.Format.JSON, null);
+
+        assertEquals(4, result.getRowsRead());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getRejected());
+        Map<String, Item> items = itemsByName();
+        assertEquals(4, items.get("Toner").getReorderThreshold());
+        assertEquals(20, items.get("Paper").getQuantity());
+    }
+
+    // ✅ An import that dies partway resumes from its last committed chunk
+    @Test
+    public void testResumeAfterCrash() throws IOException {
+        int rows = ItemImporter.CHUNK_SIZE * 4 + 17;
+        byte[] file = csv(rows).getBytes(StandardCharsets.UTF_8);
+        try {
+            importer.importItems(userId, "file-3", new FailingInputStream(new ByteArrayInputStream(file), file.length * 3 / 4),
+                    ItemImporter.Format.CSV, null);
+            fail("The simulated crash should surface");
+        } catch (IOException expected) {
+            // ✅ Rows of the chunk being written are rolled back with it
+        }
+        ItemImporter.Result checkpoint = dbHelper.getImportCheckpoint("file-3", userId);
+        assertNotNull(checkpoint);
+        assertEquals(checkpoint.getRowsRead(), dbHelper.getAllItems(userId).size());
+
+        ItemImporter.Result result = importer.importItems(userId, "file-3", new ByteArrayInputStream(file), ItemImporter.Format.CSV, null);
+
+        assertEquals(rows, result.getRowsRead());
+        assertEquals(rows, result.getInserted());
+        assertEquals(0, result.getUpdated());
+        assertEquals(rows, itemsByName().size());
+    }
+
+    // ❌ Cancelling keeps the checkpoint so the import can be resumed
+    @Test
+    public void testCancellationKeepsCheckpoint() throws IOException {
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        cancellationSignal.cancel();
+        try {
+            importer.importItems(userId, "file-4", stream(csv(10)), ItemImporter.Format.CSV, cancellationSignal);
+            fail("Cancelled imports throw");
+        } catch (OperationCanceledException expected) {
+            // ✅ Nothing was committed
+        }
+        assertTrue(dbHelper.getAllItems(userId).isEmpty());
+        assertEquals(10, importer.importItems(userId, "file-4", stream(csv(10)), ItemImporter.Format.CSV, null).getInserted());
+    }
+
+    // ✅ An export imports back as updates of the same items
+    @Test
+    public void testExportRoundTrip() throws IOException {
+        dbHelper.insertItemAndGetId("Pens, \"blue\"", 12, 3, userId);
+        dbHelper.insertItemAndGetId("Paper", 20, 5, userId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ItemCsvExporter(dbHelper).export(userId, out, null, null);
+        List<Item> before = dbHelper.getAllItems(userId);
+
+        ItemImporter.Result result = importer.importItems(userId, "export", new ByteArrayInputStream(out.toByteArray()),
+                ItemImporter.Format.CSV, null);
+
+        assertEquals(2, result.getUpdated());
+        List<Item> after = dbHelper.getAllItems(userId);
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getId(), after.get(i).getId());
+            assertEquals(before.get(i).getName(), after.get(i).getName());
+            assertEquals(before.get(i).getQuantity(), after.get(i).getQuantity());
+            assertEquals(before.get(i).getReorderThreshold(), after.get(i).getReorderThreshold());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.Map;
+
+public class ItemLocationsTest {
+    private static final String TEST_DB = "locations_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private DatabaseController controller;
+    private int userId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        controller = new DatabaseController(dbHelper);
+        assertTrue(dbHelper.registerUser("locationUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("locationUser", "password123");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    // ✅ The item's total follows every location write; stock outside locations is kept
+    @Test
+    public void testTotalFollowsLocations() {
+        Item toner = controller.createItem("Toner", 5, userId); // 5 not in any location
+
+        assertEquals(15, controller.setLocationQuantity(toner.getId(), userId, 1, 10).getQuantity());
+        assertEquals(19, controller.adjustLocationQuantity(toner.getId(), userId, 2, 4).getQuantity());
+        assertEquals(12, controller.setLocationQuantity(toner.getId(), userId, 1, 3).getQuantity());
+        assertEquals(9, controller.adjustLocationQuantity(toner.getId(), userId, 1, -100).getQuantity()); // Stops at zero
+
+        assertEquals(9, dbHelper.getItem(toner.getId(), userId).getQuantity());
+        assertEquals(9, controller.getAllItems(userId).get(0).getQuantity());
+        Map<Integer, Integer> quantities = controller.getLocationQuantities(toner.getId(), userId);
+        assertEquals(1, quantities.size()); // Location 1 ran empty and was dropped
+        assertEquals(Integer.valueOf(4), quantities.get(2));
+
+        // ✅ Editing the total only changes the unassigned part
+        assertNotNull(controller.adjustQuantity(toner.getId(), userId, -5));
+        assertEquals(4, controller.setLocationQuantity(toner.getId(), userId, 2, 4).getQuantity());
+    }
+
+    // ✅ Edits of the total never take it below what the locations hold, in any order
+    @Test
+    public void testTotalNeverBelowLocations() {
+        Item cable = controller.createItem("Cable", 2, userId);
+        controller.setLocationQuantity(cable.getId(), userId, 1, 6);
+        controller.setLocationQuantity(cable.getId(), userId, 2, 4);
+
+        // ❌ The locations hold 10, so a total of 3 is raised to 10, with nothing unassigned
+        assertTrue(controller.updateItem(cable.getId(), "Cable", 3, userId));
+        assertEquals(10, dbHelper.getItem(cable.getId(), userId).getQuantity());
+        assertEquals(10, controller.getAllItems(userId).get(0).getQuantity()); // Cache holds the stored value
+        assertEquals(10, controller.adjustQuantity(cable.getId(), userId, -5).getQuantity());
+        assertUnassigned(cable.getId(), 0);
+
+        assertEquals(13, controller.adjustQuantity(cable.getId(), userId, 3).getQuantity());
+        assertEquals(7, controller.adjustLocationQuantity(cable.getId(), userId, 1, -6).getQuantity());
+        assertEquals(3, controller.adjustLocationQuantity(cable.getId(), userId, 2, -100).getQuantity());
+        assertUnassigned(cable.getId(), 3);
+
+        // ❌ Imports are raised the same way
+        controller.setLocationQuantity(cable.getId(), userId, 3, 5);
+        assertFalse(dbHelper.upsertItemByName("Cable", 1, -1, userId, System.currentTimeMillis()));
+        assertEquals(5, dbHelper.getItem(cable.getId(), userId).getQuantity());
+        assertUnassigned(cable.getId(), 0);
+
+        // ✅ With the locations emptied the total can go to zero again
+        assertEquals(0, controller.setLocationQuantity(cable.getId(), userId, 3, 0).getQuantity());
+        assertTrue(controller.updateItem(cable.getId(), "Cable", 0, userId));
+        assertEquals(0, dbHelper.getItem(cable.getId(), userId).getQuantity());
+    }
+
+    // ✅ Moving stock keeps the total
+    @Test
+    public void testMoveStock() {
+        Item paper = controller.createItem("Paper", 1, userId);
+        controller.setLocationQuantity(paper.getId(), userId, 1, 8);
+
+        Item moved = controller.moveStock(paper.getId(), userId, 1, 2, 8);
+        assertEquals(9, moved.getQuantity());
+        Map<Integer, Integer> quantities = controller.getLocationQuantities(paper.getId(), userId);
+        assertNull(quantities.get(1));
+        assertEquals(Integer.valueOf(8), quantities.get(2));
+
+        // ❌ Not enough stock at the source: nothing moves
+        assertNull(controller.moveStock(paper.getId(), userId, 2, 3, 9));
+        assertNull(controller.moveStock(paper.getId(), userId, 2, 2, 1));
+        assertEquals(Integer.valueOf(8), controller.getLocationQuantities(paper.getId(), userId).get(2));
+        assertEquals(9, dbHelper.getItem(paper.getId(), userId).getQuantity());
+    }
+
+    // ❌ Another user's item is never written or read
+    @Test
+    public void testOtherUsersItem() {
+        Item stapler = controller.createItem("Stapler", 2, userId);
+        controller.setLocationQuantity(stapler.getId(), userId, 1, 3);
+        assertNull(controller.setLocationQuantity(stapler.getId(), userId + 1, 1, 50));
+        assertNull(controller.adjustLocationQuantity(stapler.getId(), userId + 1, 1, 50));
+        assertNull(controller.moveStock(stapler.getId(), userId + 1, 1, 2, 1));
+        assertNull(controller.setLocationQuantity(stapler.getId(), userId, 1, -1));
+        assertTrue(controller.getLocationQuantities(stapler.getId(), userId + 1).isEmpty());
+        assertEquals(5, dbHelper.getItem(stapler.getId(), userId).getQuantity());
+    }
+
+    // ✅ Deleting an item removes its location rows
+    @Test
+    public void testDeleteItemRemovesLocations() {
+        Item tape = controller.createItem("Tape", 1, userId);
+        controller.setLocationQuantity(tape.getId(), userId, 1, 3);
+        controller.setLocationQuantity(tape.getId(), userId, 2, 4);
+        assertTrue(controller.deleteItem(tape.getId(), userId));
+        assertEquals(0, countLocationRows());
+    }
+
+    // ✅ Upgrading keeps every total as it was, with all stock unassigned
+    @Test
+    public void testUpgradeKeepsTotals() {
+        Item pens = controller.createItem("Pens", 12, userId);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("DROP TRIGGER items_locations_after_delete");
+        db.execSQL("DROP TABLE item_locations");
+        dbHelper.onUpgrade(db, 12, 13);
+
+        assertEquals(12, dbHelper.getItem(pens.getId(), userId).getQuantity());
+        assertEquals(0, countLocationRows());
+        assertEquals(15, controller.setLocationQuantity(pens.getId(), userId, 1, 3).getQuantity());
+    }
+
+    private void assertUnassigned(int itemId, int expected) {
+        int located = 0;
+        for (int quantity : controller.getLocationQuantities(itemId, userId).values()) {
+            located += quantity;
+        }
+        assertEquals(expected, dbHelper.getItem(itemId, userId).getQuantity() - located);
+    }
+
+    private int countLocationRows() {
+        Cursor cursor = dbHelper.getReadableDatabase().rawQuery("SELECT count(*) FROM item_locations", null);
+        assertTrue(cursor.moveToFirst());
+        int count = cursor.getInt(0);
+        cursor.close();
+        return count;
+    }
+}
@@ -0,0 +1,159 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class LowStockAlertQueueTest {
+    private static final String TEST_DB = "alerts_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private RecordingSmsSender smsSender;
+
+    // ✅ Local fake: records messages instead of sending them
+    private static class RecordingSmsSender implements SmsSender {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch sent = new CountDownLatch(1);
+
+        @Override
+        public void sendTextMessage(String phoneNumber, String message) {
+            messages.add(phoneNumber + ": " + message);
+            sent.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        smsSender = new RecordingSmsSender();
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    private int registerUser(boolean smsEnabled) {
+        assertTrue(dbHelper.registerUser("alertUser", "password123", "1234567890"));
+        int userId = dbHelper.authenticateUser("alertUser", "password123");
+        assertTrue(dbHelper.updateSmsPreference(userId, smsEnabled));
+        return userId;
+    }
+
+    // ✅ Several low-stock updates inside one window become a single digest
+    @Test
+    public void testUpdatesCoalesceIntoOneDigest() throws InterruptedException {
+        int userId = registerUser(true);
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, smsSender, 200);
+        DatabaseController controller = new DatabaseController(dbHelper, queue);
+        Item tape = controller.createItem("Tape", 10, userId);
+        Item glue = controller.createItem("Glue", 10, userId);
+
+        assertTrue(controller.updateItem(tape.getId(), "Tape", 2, userId));
+        assertTrue(controller.updateItem(glue.getId(), "Glue", 1, userId));
+        assertTrue(controller.updateItem(tape.getId(), "Tape", 1, userId));
+
+        assertTrue("Digest should be sent after the window", smsSender.sent.await(5, TimeUnit.SECONDS));
+        queue.shutdown();
+        assertTrue(queue.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, smsSender.messages.size());
+        assertEquals("1234567890: Attention, you are running low on 2 items: Tape (1), Glue (1). Buy more!",
+                smsSender.messages.get(0));
+    }
+
+    // ✅ Inserts are checked too, against the item's own threshold
+    @Test
+    public void testInsertBelowThresholdAlerts() throws InterruptedException {
+        int userId = registerUser(true);
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, smsSender, 60_000);
+        DatabaseController controller = new DatabaseController(dbHelper, queue);
+
+        assertNotNull(controller.createItem("Toner", 4, 5, userId));
+        assertNotNull(controller.createItem("Paper", 4, 2, userId));
+        queue.shutdown();
+        assertTrue(queue.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(
+                        "1234567890: Attention, you are running low on Toner with a quantity of 4. Buy more!"),
+                smsSender.messages);
+    }
+
+    // ✅ Updates that stay above the threshold do not alert
+    @Test
+    public void testNoAlertAboveThreshold() throws InterruptedException {
+        int userId = registerUser(true);
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, smsSender, 60_000);
+        DatabaseController controller = new DatabaseController(dbHelper, queue);
+        Item tape = controller.createItem("Tape", 10, userId);
+
+        assertTrue(controller.updateItem(tape.getId(), "Tape", 3, userId));
+        queue.shutdown();
+        assertTrue(queue.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(smsSender.messages.isEmpty());
+    }
+
+    // ❌ Users with SMS alerts turned off get nothing
+    @Test
+    public void testNoAlertWhenSmsDisabled() throws InterruptedException {
+        int userId = registerUser(false);
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, smsSender, 60_000);
+        DatabaseController controller = new DatabaseController(dbHelper, queue);
+        Item tape = controller.createItem("Tape", 10, userId);
+
+        assertTrue(controller.updateItem(tape.getId(), "Tape", 1, userId));
+        queue.shutdown();
+        assertTrue(queue.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(smsSender.messages.isEmpty());
+    }
+
+    // ✅ A single item keeps the original alert wording
+    @Test
+    public void testSingleItemDigest() throws InterruptedException {
+        int userId = registerUser(true);
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, smsSender, 60_000);
+        queue.enqueue(userId, "Tape", 2);
+        queue.shutdown();
+        assertTrue(queue.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(
+                        "1234567890: Attention, you are running low on Tape with a quantity of 2. Buy more!"),
+                smsSender.messages);
+    }
+
+    // ✅ Once logged in, item edits, alerts and preference reads never query users
+    @Test
+    public void testSteadyStateEditsDoNotQueryUsers() {
+        int userId = registerUser(true);
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, smsSender, 60_000);
+        DatabaseController controller = new DatabaseController(dbHelper, queue);
+        assertEquals(userId, controller.authenticateUser("alertUser", "password123")); // Loads the session
+        Item tape = controller.createItem("Tape", 10, userId);
+
+        long queriesAfterLogin = dbHelper.getUsersQueryCount();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(controller.updateItem(tape.getId(), "Tape", 1 + (i % 2), userId));
+            assertTrue(controller.getSmsPreference(userId));
+        }
+        queue.flushAll();
+        assertEquals(1, smsSender.messages.size());
+        assertEquals("No users queries after login", queriesAfterLogin, dbHelper.getUsersQueryCount());
+
+        // ✅ Changing the preference drops the session; it is reloaded once
+        assertTrue(controller.updateSmsPreference(userId, false));
+        assertFalse(controller.getSmsPreference(userId));
+        assertFalse(controller.getSmsPreference(userId));
+        assertEquals(queriesAfterLogin + 1, dbHelper.getUsersQueryCount());
+        queue.shutdown();
+    }
+}
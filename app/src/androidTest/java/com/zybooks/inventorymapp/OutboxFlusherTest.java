@@ -0,0 +1,303 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class OutboxFlusherTest {
+    private static final String TEST_DB = "outbox_test.db";
+    private static final String PEER_DB = "outbox_peer_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private DatabaseController controller;
+    private RecordingSink sink;
+    private OutboxFlusher flusher;
+    private int userId;
+
+    // ✅ Local fake: records batches, and can fail the first few deliveries
+    private static class RecordingSink implements OutboxSink {
+        final List<List<OutboxEntry>> batches = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> keys = Collections.synchronizedSet(new HashSet<>());
+        int failuresLeft;
+        int attempts;
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        @Override
+        public void deliver(List<OutboxEntry> batch) throws IOException {
+            attempts++;
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IOException("Simulated outage");
+            }
+            batches.add(new ArrayList<>(batch));
+            for (OutboxEntry entry : batch) {
+                keys.add(entry.getIdempotencyKey());
+                delivered.countDown();
+            }
+        }
+
+        boolean receivedItem(int itemId) {
+            synchronized (batches) {
+                for (List<OutboxEntry> batch : batches) {
+                    for (OutboxEntry entry : batch) {
+                        if (entry.getItemId() == itemId) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        dbHelper.setOutboxEnabled(true); // As once a flusher has been started
+        controller = new DatabaseController(dbHelper);
+        sink = new RecordingSink();
+        assertTrue(dbHelper.registerUser("outboxUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("outboxUser", "password123");
+    }
+
+    @After
+    public void tearDown() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (dbHelper.countOutboxEntries() > 0) {
+            assertTrue("Outbox should be drained", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    // ✅ Insert, update and delete each leave one entry with the item as the write left it
+    @Test
+    public void testWritesAreAddedToOutbox() {
+        Item item = controller.createItem("Stapler", 4, userId);
+        assertTrue(controller.updateItem(item.getId(), "Stapler", 9, userId));
+        assertTrue(controller.deleteItem(item.getId(), userId));
+
+        List<OutboxEntry> entries = dbHelper.getOutboxBatch(10);
+        assertEquals(3, entries.size());
+        assertEquals(OutboxEntry.Operation.INSERT, entries.get(0).getOperation());
+        assertEquals(4, entries.get(0).getQuantity());
+        assertEquals(OutboxEntry.Operation.UPDATE, entries.get(1).getOperation());
+        assertEquals(9, entries.get(1).getQuantity());
+        assertEquals(OutboxEntry.Operation.DELETE, entries.get(2).getOperation());
+        assertNull(entries.get(2).getName());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(item.getId(), entries.get(i).getItemId());
+            assertEquals(userId, entries.get(i).getUserId());
+            assertEquals(entries.get(0).getSyncId(), entries.get(i).getSyncId());
+            assertEquals(i + 1, entries.get(i).getVersion());
+            assertEquals(entries.get(i).getSyncId() + ":" + (i + 1) + ":" + dbHelper.getDeviceId(),
+                    entries.get(i).getIdempotencyKey());
+        }
+    }
+
+    // ✅ Scans, threshold and location changes reach the outbox too; a SKU change does not
+    @Test
+    public void testStockWritesAreAddedToOutbox() {
+        Item item = controller.createItem("Toner", 4, userId);
+        assertNotNull(controller.adjustQuantity(item.getId(), userId, -1));
+        assertEquals(1, controller.adjustQuantities(Collections.singletonMap(item.getId(), 2), userId).size());
+        assertTrue(controller.setReorderThreshold(item.getId(), 7, userId));
+        assertNotNull(controller.setLocationQuantity(item.getId(), userId, 1, 10));
+        assertNotNull(controller.moveStock(item.getId(), userId, 1, 2, 4)); // Same total, new version
+        assertTrue(controller.setSku(item.getId(), userId, "A1"));
+
+        List<OutboxEntry> entries = dbHelper.getOutboxBatch(10);
+        assertEquals(6, entries.size());
+        assertEquals(3, entries.get(1).getQuantity());
+        assertEquals(5, entries.get(2).getQuantity());
+        assertEquals(7, entries.get(3).getReorderThreshold());
+        assertEquals(15, entries.get(4).getQuantity());
+        assertEquals(15, entries.get(5).getQuantity());
+        for (int i = 1; i < entries.size(); i++) {
+            assertEquals(OutboxEntry.Operation.UPDATE, entries.get(i).getOperation());
+            assertTrue(entries.get(i).getVersion() > entries.get(i - 1).getVersion());
+        }
+    }
+
+    // ✅ Two devices writing the same item from the same version produce different keys
+    @Test
+    public void testSameVersionOnTwoDevicesHasDistinctKeys() throws IOException {
+        context.deleteDatabase(PEER_DB);
+        DatabaseHelper peer = new DatabaseHelper(context, PEER_DB);
+        peer.setOutboxEnabled(true);
+        try {
+            assertTrue(peer.registerUser("outboxUser", "password123", "1234567890"));
+            int peerUserId = peer.authenticateUser("outboxUser", "password123");
+            LocalSyncServer server = new LocalSyncServer();
+            Item item = controller.createItem("Stapler", 4, userId);
+            new SyncEngine(dbHelper, server).sync(userId, "outboxUser");
+            assertEquals(1, new SyncEngine(peer, server).sync(peerUserId, "outboxUser").getApplied());
+            int peerItemId = peer.getAllItems(peerUserId).get(0).getId();
+
+            assertTrue(dbHelper.updateItem(item.getId(), "Stapler", 5, userId));
+            assertTrue(peer.updateItem(peerItemId, "Stapler", 6, peerUserId));
+
+            OutboxEntry local = dbHelper.getOutboxBatch(10).get(1);
+            OutboxEntry remote = peer.getOutboxBatch(10).get(0); // Applied by sync, so no entry before it
+            assertEquals(local.getSyncId(), remote.getSyncId());
+            assertEquals(2, local.getVersion());
+            assertEquals(2, remote.getVersion());
+            assertNotEquals(local.getIdempotencyKey(), remote.getIdempotencyKey());
+            assertTrue(remote.getIdempotencyKey().endsWith(":" + peer.getDeviceId()));
+        } finally {
+            peer.close();
+            context.deleteDatabase(PEER_DB);
+        }
+    }
+
+    // ❌ Writes that change nothing add nothing while the earlier entry is still waiting
+    @Test
+    public void testRejectedWritesAddNothing() {
+        Item item = controller.createItem("Stapler", 4, userId);
+        assertFalse(controller.updateItem(item.getId() + 1, "Missing", 1, userId));
+        assertFalse(controller.deleteItem(item.getId(), userId + 1)); // Someone else's item
+        assertTrue(controller.updateItem(item.getId(), "Stapler", 4, userId)); // Same values
+
+        assertEquals(1, dbHelper.countOutboxEntries());
+    }
+
+    // ❌ With no flusher ever started there is no sink, so writes leave no entries behind
+    @Test
+    public void testNothingRecordedWithoutSink() throws InterruptedException {
+        dbHelper.setOutboxEnabled(false);
+        Item item = controller.createItem("Stapler", 4, userId);
+        assertTrue(controller.updateItem(item.getId(), "Stapler", 9, userId));
+        assertNotNull(controller.adjustQuantity(item.getId(), userId, 1));
+        assertTrue(controller.deleteItem(item.getId(), userId));
+        assertEquals(0, dbHelper.countOutboxEntries());
+
+        flusher = new OutboxFlusher(dbHelper, sink, 10, 100, 50, 1_000);
+        flusher.start();
+        Item tape = controller.createItem("Tape", 4, userId); // Recorded from start() on
+        assertTrue(sink.delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, sink.batches.size());
+        assertEquals(tape.getId(), sink.batches.get(0).get(0).getItemId());
+    }
+
+    // ✅ The app's own path: writes made before startOutboxFlusher are not recorded, writes
+    // / after it reach the sink through the shared helper and controller
+    @Test
+    public void testApplicationOutboxFlusher() throws InterruptedException {
+        DatabaseHelper shared = InventoryApplication.getDatabaseHelper(context);
+        DatabaseController sharedController = InventoryApplication.getDatabaseController(context);
+        shared.registerUser("outboxAppUser", "password123", "1234567890"); // May exist from an earlier run
+        int appUserId = shared.authenticateUser("outboxAppUser", "password123");
+        assertTrue(appUserId > 0);
+
+        long waiting = shared.countOutboxEntries();
+        Item unsent = sharedController.createItem("Unsent", 10, appUserId);
+        assertEquals(waiting, shared.countOutboxEntries());
+
+        OutboxFlusher appFlusher = InventoryApplication.startOutboxFlusher(context, sink);
+        Item sent = null;
+        try {
+            sent = sharedController.createItem("Sent", 10, appUserId);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!sink.receivedItem(sent.getId())) {
+                assertTrue("Write should reach the sink", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+            assertFalse(sink.receivedItem(unsent.getId()));
+        } finally {
+            appFlusher.shutdown();
+            shared.setOutboxEnabled(false); // Leave the shared database as a fresh process has it
+            sharedController.deleteItem(unsent.getId(), appUserId);
+            if (sent != null) {
+                sharedController.deleteItem(sent.getId(), appUserId);
+            }
+            shared.deleteOutboxEntries(Long.MAX_VALUE);
+        }
+    }
+
+    // ✅ flush() drains everything in batches of at most batchSize, oldest first
+    @Test
+    public void testFlushDeliversInBatches() {
+        for (int i = 0; i < 25; i++) {
+            controller.addItem("Item " + i, i + 1, userId);
+        }
+        flusher = new OutboxFlusher(dbHelper, sink, 10, 60_000, 1_000, 60_000);
+
+        assertEquals(25, flusher.flush());
+        assertEquals(3, sink.batches.size());
+        assertEquals(10, sink.batches.get(0).size());
+        assertEquals(5, sink.batches.get(2).size());
+        assertEquals("Item 0", sink.batches.get(0).get(0).getName());
+        assertEquals(0, dbHelper.countOutboxEntries());
+    }
+
+    // ✅ A full batch goes out right away instead of waiting for maxDelay
+    @Test
+    public void testFullBatchIsSentWithoutWaiting() throws InterruptedException {
+        sink.delivered = new CountDownLatch(5);
+        flusher = new OutboxFlusher(dbHelper, sink, 5, 60_000, 1_000, 60_000);
+        flusher.start();
+        for (int i = 0; i < 5; i++) {
+            controller.addItem("Item " + i, i + 1, userId);
+        }
+        assertTrue("Batch should be sent long before maxDelay", sink.delivered.await(10, TimeUnit.SECONDS));
+    }
+
+    // ✅ A single write goes out once maxDelay has passed
+    @Test
+    public void testPartialBatchIsSentAfterMaxDelay() throws InterruptedException {
+        flusher = new OutboxFlusher(dbHelper, sink, 100, 200, 1_000, 60_000);
+        flusher.start();
+        controller.addItem("Stapler", 4, userId);
+        assertTrue(sink.delivered.await(10, TimeUnit.SECONDS));
+        assertEquals(1, sink.batches.get(0).size());
+    }
+
+    // ✅ After an outage the same entries are retried until the sink takes them, then removed
+    @Test
+    public void testFailedDeliveryIsRetried() throws InterruptedException {
+        sink.failuresLeft = 2;
+        sink.delivered = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            controller.addItem("Item " + i, i + 1, userId);
+        }
+        flusher = new OutboxFlusher(dbHelper, sink, 10, 100, 50, 1_000);
+        flusher.start(); // Picks up what is already waiting
+
+        assertTrue(sink.delivered.await(10, TimeUnit.SECONDS));
+        awaitEmptyOutbox(); // Entries are removed just after deliver() returns
+        assertEquals(3, sink.attempts);
+        assertEquals(3, sink.keys.size());
+    }
+
+    // ✅ Backoff doubles from the initial delay and stops at the cap
+    @Test
+    public void testBackoff() {
+        assertEquals(1_000, OutboxFlusher.backoffMillis(1, 1_000, 300_000));
+        assertEquals(2_000, OutboxFlusher.backoffMillis(2, 1_000, 300_000));
+        assertEquals(8_000, OutboxFlusher.backoffMillis(4, 1_000, 300_000));
+        assertEquals(300_000, OutboxFlusher.backoffMillis(10, 1_000, 300_000));
+        assertEquals(300_000, OutboxFlusher.backoffMillis(1_000, 1_000, 300_000));
+    }
+}
@@ -0,0 +1,1029 @@
+package com.zybooks.inventorymapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Debug;
+import android.util.Log;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+
+// / Benchmarks for the persistence layer. Each test runs against a scratch database so it never
+// / touches inventory.db, and reports its numbers to logcat under the "PersistenceBenchmark" tag.
+// /
+// / They seed millions of rows, so connectedAndroidTest skips them unless the "benchmark"
+// / instrumentation argument is set. Run with: ./gradlew :app:connectedAndroidTest -Pbenchmark
+// / -Pandroid.testInstrumentationRunnerArguments.class=com.zybooks.inventorymapp.PersistenceBenchmark
+@RunWith(AndroidJUnit4.class)
+public class PersistenceBenchmark {
+    private static final String TAG = "PersistenceBenchmark";
+    private static final String BENCHMARK_DB = "benchmark.db";
+    private static final int OPERATIONS = 10_000;
+    private static final int READER_THREADS = 4;
+    private static final int CONCURRENCY_ITEMS = 500;
+    private static final long CONCURRENCY_RUN_MILLIS = 5_000;
+    private static final int[] INDEX_DATASET_SIZES = {1_000, 100_000, 1_000_000};
+    private static final int INDEX_DATASET_USERS = 100;
+    private static final int QUERY_REPETITIONS = 20;
+    private static final int BULK_ROWS = 100_000;
+    private static final int LARGE_ACCOUNT_ROWS = 500_000;
+    private static final int ALERT_UPDATES = 2_000;
+    private static final int LOW_STOCK_ROWS = 1_000_000;
+    // / Coprime with the 50 quantities seedItems cycles through, so every user gets all of them
+    private static final int LOW_STOCK_USERS = 99;
+    private static final int LOGINS = 50;
+    private static final int SEARCH_ROWS = 1_000_000;
+    private static final int SORT_ROWS = 100_000;
+    private static final int SCANS = 20_000;
+    private static final int SCAN_ITEMS = 200;
+    // / Scans per batch. A steady few hundred a minute put only a handful in each 250 ms window;
+    // / 50 models a burst, e.g. a pallet being counted
+    private static final int SCANS_PER_WINDOW = 50;
+    private static final int LEDGER_MOVEMENTS = 10_000_000;
+    private static final int LEDGER_ITEMS = 1_000;
+    private static final int LEDGER_QUERIES = 1_000;
+    private static final int IMPORT_ROWS = 200_000;
+    private static final String SYNC_PEER_DB = "benchmark-peer.db";
+    private static final int SYNC_ROWS = 100_000;
+    private static final int SYNC_CHURN = SYNC_ROWS / 100; // 1% of the items change between syncs
+    private static final int OUTBOX_WRITES = 20_000;
+    private static final int SKU_ROWS = 1_000_000;
+    private static final int SKU_SCANS = 20_000;
+    // / SKUs a dock keeps scanning during a shift; well inside the SKU cache
+    private static final int SKU_HOT_SET = 1_000;
+    private static final int LOCATION_ITEMS = 100_000;
+    private static final int LOCATIONS = 50;
+    private static final int LOCATION_WRITES = 10_000;
+    private static final int LOCATION_READS = 5;
+    private static final String[] SEARCH_QUERIES = {"item 4", "item 12345", "it", "nothing"};
+
+    private Context context = ApplicationProvider.getApplicationContext();
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue("Benchmarks run only with -Pbenchmark",
+                "true".equals(InstrumentationRegistry.getArguments().getString("benchmark")));
+        context.deleteDatabase(BENCHMARK_DB);
+        dbHelper = new DatabaseHelper(context, BENCHMARK_DB);
+    }
+
+    @After
+    public void tearDown() {
+        if (dbHelper == null) {
+            return; // Skipped in setUp
+        }
+        dbHelper.close();
+        context.deleteDatabase(BENCHMARK_DB);
+    }
+
+    private int registerBenchmarkUser() {
+        assertTrue(dbHelper.registerUser("benchUser", "benchPass", "5555555555"));
+        return dbHelper.authenticateUser("benchUser", "benchPass");
+    }
+
+    private void report(String name, long elapsedNanos, int operations) {
+        Log.i(TAG, String.format("%s: %d ops in %.1f ms (%.2f us/op)",
+                name, operations, elapsedNanos / 1e6, elapsedNanos / 1e3 / operations));
+    }
+
+    private static long percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))];
+    }
+
+    private void reportLatencies(String name, long[] latencyNanos, long elapsedNanos) {
+        Arrays.sort(latencyNanos);
+        Log.i(TAG, String.format("%s: %d ops, %.0f ops/s, p50 %.2f ms, p99 %.2f ms",
+                name, latencyNanos.length, latencyNanos.length / (elapsedNanos / 1e9),
+                percentile(latencyNanos, 50) / 1e6, percentile(latencyNanos, 99) / 1e6));
+    }
+
+    // / Long-lived connection vs. reopening inventory.db around every call (the old behaviour)
+    @Test
+    public void benchmarkSharedConnectionVsReopenPerCall() {
+        int userId = registerBenchmarkUser();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            dbHelper.insertItem("Reopen " + i, i + 1, userId);
+            dbHelper.close();
+        }
+        report("insert, reopen per call", System.nanoTime() - start, OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            dbHelper.getSmsPreference(userId);
+            dbHelper.close();
+        }
+        report("read, reopen per call", System.nanoTime() - start, OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            dbHelper.insertItem("Shared " + i, i + 1, userId);
+        }
+        report("insert, shared connection", System.nanoTime() - start, OPERATIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            dbHelper.getSmsPreference(userId);
+        }
+        report("read, shared connection", System.nanoTime() - start, OPERATIONS);
+
+        assertEquals(2 * OPERATIONS, dbHelper.getAllItems(userId).size());
+    }
+
+    // / N reader threads running getAllItems while one writer keeps updating, under both journal modes
+    @Test
+    public void benchmarkConcurrentReadersWithWriter() throws InterruptedException {
+        dbHelper.close();
+        runConcurrencyBenchmark("rollback journal", false);
+        runConcurrencyBenchmark("WAL", true);
+    }
+
+    private void runConcurrencyBenchmark(String mode, boolean writeAheadLogging) throws InterruptedException {
+        context.deleteDatabase(BENCHMARK_DB);
+        DatabaseHelper helper = new DatabaseHelper(context, BENCHMARK_DB, writeAheadLogging);
+        assertTrue(helper.registerUser("benchUser", "benchPass", "5555555555"));
+        int userId = helper.authenticateUser("benchUser", "benchPass");
+        for (int i = 0; i < CONCURRENCY_ITEMS; i++) {
+            helper.insertItem("Item " + i, 10, userId);
+        }
+        int itemId = helper.getAllItems(userId).get(0).getId();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(READER_THREADS + 1);
+        List<List<Long>> readerLatencies = new ArrayList<>();
+        List<Long> writerLatencies = new ArrayList<>();
+
+        for (int t = 0; t < READER_THREADS; t++) {
+            List<Long> latencies = new ArrayList<>();
+            readerLatencies.add(latencies);
+            new Thread(() -> {
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    helper.getAllItems(userId);
+                    latencies.add(System.nanoTime() - start);
+                }
+                done.countDown();
+            }, "bench-reader-" + t).start();
+        }
+        new Thread(() -> {
+            int quantity = 10;
+            while (running.get()) {
+                long start = System.nanoTime();
+                helper.updateItem(itemId, "Item 0", quantity++, userId);
+                writerLatencies.add(System.nanoTime() - start);
+            }
+            done.countDown();
+        }, "bench-writer").start();
+
+        long start = System.nanoTime();
+        Thread.sleep(CONCURRENCY_RUN_MILLIS);
+        running.set(false);
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+
+        List<Long> allReads = new ArrayList<>();
+        for (List<Long> latencies : readerLatencies) {
+            allReads.addAll(latencies);
+        }
+        reportLatencies(mode + ", " + READER_THREADS + " readers", toArray(allReads), elapsed);
+        reportLatencies(mode + ", 1 writer", toArray(writerLatencies), elapsed);
+
+        helper.close();
+        context.deleteDatabase(BENCHMARK_DB);
+    }
+
+    // / Fills items with rowCount rows spread evenly over the given number of users
+    private static void seedItems(SQLiteDatabase db, int rowCount, int users) {
+        SQLiteStatement insert = db.compileStatement("INSERT INTO items (name, quantity, user_id) VALUES (?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < rowCount; i++) {
+                insert.bindString(1, "Item " + i);
+                insert.bindLong(2, i % 50);
+                insert.bindLong(3, (i % users) + 1);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        insert.close();
+    }
+
+    // / getAllItems and updateItem for one user, with and without the indexes that lead with
+    // / items.user_id
+    @Test
+    public void benchmarkUserIdIndexes() {
+        for (int rowCount : INDEX_DATASET_SIZES) {
+            context.deleteDatabase(BENCHMARK_DB);
+            DatabaseHelper helper = new DatabaseHelper(context, BENCHMARK_DB);
+            SQLiteDatabase db = helper.getWritableDatabase();
+            seedItems(db, rowCount, INDEX_DATASET_USERS);
+            int userId = INDEX_DATASET_USERS / 2;
+            int itemId = helper.getAllItems(userId).get(0).getId();
+
+            timeUserQueries(helper, userId, itemId, rowCount + " rows, indexed");
+
+            dropUserIdIndexes(db);
+            timeUserQueries(helper, userId, itemId, rowCount + " rows, no index");
+
+            helper.close();
+        }
+    }
+
+    // / Every index on items whose first column is user_id, whatever later versions added, and a
+    // / check that the user's items are now read with a full table scan
+    private static void dropUserIdIndexes(SQLiteDatabase db) {
+        List<String> indexes = new ArrayList<>();
+        Cursor list = db.rawQuery("PRAGMA index_list(items)", null);
+        while (list.moveToNext()) {
+            String index = list.getString(list.getColumnIndexOrThrow("name"));
+            Cursor info = db.rawQuery("PRAGMA index_info(" + DatabaseUtils.sqlEscapeString(index) + ")", null);
+            if (info.moveToFirst() && "user_id".equals(info.getString(info.getColumnIndexOrThrow("name")))) {
+                indexes.add(index);
+            }
+            info.close();
+        }
+        list.close();
+        for (String index : indexes) {
+            db.execSQL("DROP INDEX " + index);
+        }
+
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN SELECT id FROM items WHERE user_id = 1 ORDER BY id", null);
+        StringBuilder plan = new StringBuilder();
+        while (cursor.moveToNext()) {
+            plan.append(cursor.getString(3));
+        }
+        cursor.close();
+        assertTrue(plan.toString(), plan.toString().contains("SCAN") && !plan.toString().contains("INDEX"));
+    }
+
+    private void timeUserQueries(DatabaseHelper helper, int userId, int itemId, String label) {
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERY_REPETITIONS; i++) {
+            helper.getAllItems(userId);
+        }
+        report("getAllItems, " + label, System.nanoTime() - start, QUERY_REPETITIONS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERY_REPETITIONS; i++) {
+            helper.updateItem(itemId, "Item", 10 + i, userId);
+        }
+        report("updateItem, " + label, System.nanoTime() - start, QUERY_REPETITIONS);
+    }
+
+    // / 100k rows through DatabaseController.addItems vs. the same rows one insertItem at a time
+    @Test
+    public void benchmarkBulkInsert() {
+        int userId = registerBenchmarkUser();
+        DatabaseController controller = new DatabaseController(dbHelper);
+        List<Item> items = new ArrayList<>(BULK_ROWS);
+        for (int i = 0; i < BULK_ROWS; i++) {
+            items.add(new Item(0, "Bulk " + i, (i % 50) + 1));
+        }
+
+        long start = System.nanoTime();
+        int inserted = controller.addItems(items, userId);
+        report("addItems, chunked transactions", System.nanoTime() - start, inserted);
+        assertEquals(BULK_ROWS, inserted);
+
+        dbHelper.clearItemsForUser(userId);
+        start = System.nanoTime();
+        for (Item item : items.subList(0, OPERATIONS)) {
+            controller.addItem(item.getName(), item.getQuantity(), userId);
+        }
+        report("addItem, one transaction per row", System.nanoTime() - start, OPERATIONS);
+    }
+
+    // / updateItem latency for low-stock updates with the alert queue on vs. off. Alerts go to a
+    // / fake sender so the numbers show the cost on the write path, not the radio.
+    @Test
+    public void benchmarkLowStockAlerts() throws InterruptedException {
+        int userId = registerBenchmarkUser();
+        assertTrue(dbHelper.updateSmsPreference(userId, true));
+        int itemId = (int) dbHelper.insertItemAndGetId("Alerted", 10, userId);
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        LowStockAlertQueue queue = new LowStockAlertQueue(dbHelper, (phone, message) -> sent.add(message), 1_000);
+
+        timeLowStockUpdates(new DatabaseController(dbHelper), userId, itemId, "alerts off");
+        long usersQueries = dbHelper.getUsersQueryCount();
+        timeLowStockUpdates(new DatabaseController(dbHelper, queue), userId, itemId, "alerts on");
+        queue.shutdown();
+        assertTrue(queue.awaitTermination(5, TimeUnit.SECONDS));
+        Log.i(TAG, String.format("%d low-stock updates produced %d SMS and %d users queries",
+                ALERT_UPDATES, sent.size(), dbHelper.getUsersQueryCount() - usersQueries));
+    }
+
+    private void timeLowStockUpdates(DatabaseController controller, int userId, int itemId, String label) {
+        long[] latencies = new long[ALERT_UPDATES];
+        long start = System.nanoTime();
+        for (int i = 0; i < ALERT_UPDATES; i++) {
+            long updateStart = System.nanoTime();
+            controller.updateItem(itemId, "Alerted", 1 + (i % 2), userId);
+            latencies[i] = System.nanoTime() - updateStart;
+        }
+        reportLatencies("updateItem below threshold, " + label, latencies, System.nanoTime() - start);
+    }
+
+    // / Nightly replenishment query on 1M rows: getLowStockItems (partial index) vs. pulling
+    // / every row through getAllItems and filtering in Java
+    @Test
+    public void benchmarkLowStockQuery() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        seedItems(db, LOW_STOCK_ROWS, LOW_STOCK_USERS); // Quantities 0..49, so 3 in 50 rows are low
+        int userId = LOW_STOCK_USERS / 2;
+
+        long start = System.nanoTime();
+        List<Item> lowStock = null;
+        for (int i = 0; i < QUERY_REPETITIONS; i++) {
+            lowStock = dbHelper.getLowStockItems(userId);
+        }
+        report("getLowStockItems, 1M rows", System.nanoTime() - start, QUERY_REPETITIONS);
+
+        start = System.nanoTime();
+        List<Item> filtered = null;
+        for (int i = 0; i < QUERY_REPETITIONS; i++) {
+            filtered = new ArrayList<>();
+            for (Item item : dbHelper.getAllItems(userId)) {
+                if (item.isLowStock()) {
+                    filtered.add(item);
+                }
+            }
+        }
+        report("getAllItems + Java filter, 1M rows", System.nanoTime() - start, QUERY_REPETITIONS);
+        assertEquals(filtered.size(), lowStock.size());
+
+        db.execSQL("DROP INDEX idx_items_low_stock");
+        start = System.nanoTime();
+        for (int i = 0; i < QUERY_REPETITIONS; i++) {
+            dbHelper.getLowStockItems(userId);
+        }
+        report("getLowStockItems without partial index, 1M rows", System.nanoTime() - start, QUERY_REPETITIONS);
+    }
+
+    // / Login latency at the cost calibrated for this device, for a hashed row and for the first
+    // / login of a legacy plaintext row (verify + rehash + write)
+    @Test
+    public void benchmarkLoginLatency() {
+        long start = System.nanoTime();
+        int iterations = PasswordHasher.calibrate(PasswordHasher.TARGET_HASH_MILLIS);
+        Log.i(TAG, String.format("calibrated PBKDF2 to %d iterations for %d ms in %.1f ms",
+                iterations, PasswordHasher.TARGET_HASH_MILLIS, (System.nanoTime() - start) / 1e6));
+        dbHelper.setPasswordHasher(new PasswordHasher(iterations));
+        int userId = registerBenchmarkUser();
+
+        long[] latencies = new long[LOGINS];
+        start = System.nanoTime();
+        for (int i = 0; i < LOGINS; i++) {
+            long loginStart = System.nanoTime();
+            assertEquals(userId, dbHelper.authenticateUser("benchUser", "benchPass"));
+            latencies[i] = System.nanoTime() - loginStart;
+        }
+        reportLatencies("authenticateUser, hashed row", latencies, System.nanoTime() - start);
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        start = System.nanoTime();
+        for (int i = 0; i < LOGINS; i++) {
+            db.execSQL("UPDATE users SET password = 'benchPass' WHERE user_id = " + userId);
+            long loginStart = System.nanoTime();
+            assertEquals(userId, dbHelper.authenticateUser("benchUser", "benchPass"));
+            latencies[i] = System.nanoTime() - loginStart;
+        }
+        reportLatencies("authenticateUser, legacy row rehashed", latencies, System.nanoTime() - start);
+    }
+
+    // / Search latency at 1M items (spread over LOW_STOCK_USERS users): FTS prefix search vs. LIKE '%x%'
+    @Test
+    public void benchmarkSearch() {
+        seedItems(dbHelper.getWritableDatabase(), SEARCH_ROWS, LOW_STOCK_USERS);
+        int userId = LOW_STOCK_USERS / 2;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        for (String query : SEARCH_QUERIES) {
+            long[] latencies = new long[QUERY_REPETITIONS];
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERY_REPETITIONS; i++) {
+                long queryStart = System.nanoTime();
+                dbHelper.searchItems(userId, query, ItemSearch.MAX_RESULTS, null);
+                latencies[i] = System.nanoTime() - queryStart;
+            }
+            reportLatencies("searchItems \"" + query + "\", 1M rows", latencies, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERY_REPETITIONS; i++) {
+                long queryStart = System.nanoTime();
+                Cursor cursor = db.rawQuery("SELECT id FROM items WHERE user_id = ? AND name LIKE ? ORDER BY id LIMIT ?",
+                        new String[]{String.valueOf(userId), "%" + query + "%", String.valueOf(ItemSearch.MAX_RESULTS)});
+                cursor.getCount(); // Runs the query
+                cursor.close();
+                latencies[i] = System.nanoTime() - queryStart;
+            }
+            reportLatencies("LIKE '%" + query + "%', 1M rows", latencies, System.nanoTime() - start);
+        }
+    }
+
+    // / First page of each sort order on a 100k-item account: SQL ORDER BY on the sort index vs.
+    // / loading every item and sorting the list in Java
+    @Test
+    public void benchmarkSortedFirstPage() {
+        int userId = registerBenchmarkUser();
+        seedItems(dbHelper.getWritableDatabase(), SORT_ROWS, 1);
+
+        for (ItemSort sort : ItemSort.values()) {
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERY_REPETITIONS; i++) {
+                dbHelper.getItemsPage(userId, sort, ItemFilter.ALL, null, ItemPager.PAGE_SIZE);
+            }
+            report("SQL sort " + sort.name() + ", 100k rows", System.nanoTime() - start, QUERY_REPETITIONS);
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERY_REPETITIONS; i++) {
+                List<Item> all = dbHelper.getAllItems(userId);
+                Collections.sort(all, javaComparator(sort));
+                new ArrayList<>(all.subList(0, ItemPager.PAGE_SIZE));
+            }
+            report("Java sort " + sort.name() + ", 100k rows", System.nanoTime() - start, QUERY_REPETITIONS);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERY_REPETITIONS; i++) {
+            dbHelper.getItemsPage(userId, ItemSort.NAME, ItemFilter.BELOW_THRESHOLD, null, ItemPager.PAGE_SIZE);
+        }
+        report("SQL below-threshold by name, 100k rows", System.nanoTime() - start, QUERY_REPETITIONS);
+    }
+
+    private static Comparator<Item> javaComparator(ItemSort sort) {
+        Comparator<Item> byId = Comparator.comparingInt(Item::getId);
+        switch (sort) {
+            case NAME:
+                return Comparator.comparing(Item::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(byId);
+            case QUANTITY:
+                return Comparator.comparingInt(Item::getQuantity).thenComparing(byId);
+            case RECENT:
+                return Comparator.comparingLong(Item::getUpdatedAt).thenComparing(byId).reversed();
+            default:
+                return byId;
+        }
+    }
+
+    private static long usedHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        runtime.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // / Opening the list on a 500k-item account: everything + display strings vs. the first page.
+    // / Time to first page stands in for first-frame time, since the list draws as soon as it arrives.
+    @Test
+    public void benchmarkLargeAccountFirstScreen() {
+        int userId = registerBenchmarkUser();
+        seedItems(dbHelper.getWritableDatabase(), LARGE_ACCOUNT_ROWS, 1);
+
+        long baseline = usedHeapBytes();
+        long start = System.nanoTime();
+        List<Item> all = dbHelper.getAllItems(userId);
+        List<String> names = new ArrayList<>(all.size());
+        for (Item item : all) {
+            names.add(item.getName() + " - " + item.getQuantity());
+        }
+        long elapsed = System.nanoTime() - start;
+        long retained = usedHeapBytes() - baseline;
+        Log.i(TAG, String.format("getAllItems + strings: %.1f ms, %.1f MB retained",
+                elapsed / 1e6, retained / 1048576.0));
+        assertEquals(LARGE_ACCOUNT_ROWS, names.size());
+        all = null;
+        names = null;
+
+        baseline = usedHeapBytes();
+        start = System.nanoTime();
+        List<Item> page = dbHelper.getItemsPage(userId, 0, ItemPager.PAGE_SIZE);
+        elapsed = System.nanoTime() - start;
+        retained = usedHeapBytes() - baseline;
+        Log.i(TAG, String.format("first page of %d: %.1f ms, %.1f KB retained (window capped at %d items)",
+                page.size(), elapsed / 1e6, retained / 1024.0, ItemPager.MAX_RESIDENT_ITEMS));
+        assertEquals(ItemPager.PAGE_SIZE, page.size());
+    }
+
+    // / Bytes allocated by the runtime so far, on all threads
+    private static long allocatedBytes() {
+        return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+    }
+
+    // / The old updateItem: ContentValues, String[] arguments and SQL built on every call
+    private static boolean updateItemWithContentValues(SQLiteDatabase db, int itemId, String name, int quantity, int userId) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("quantity", quantity);
+        values.put("updated_at", System.currentTimeMillis());
+        return db.update("items", values, "id = ? AND user_id = ?",
+                new String[]{String.valueOf(itemId), String.valueOf(userId)}) > 0;
+    }
+
+    // / The old deleteItem
+    private static boolean deleteItemWithArgs(SQLiteDatabase db, int itemId, int userId) {
+        return db.delete("items", "id = ? AND user_id = ?",
+                new String[]{String.valueOf(itemId), String.valueOf(userId)}) > 0;
+    }
+
+    private void reportPerOp(String name, long[] latencyNanos, long elapsedNanos, long allocated) {
+        reportLatencies(name, latencyNanos, elapsedNanos);
+        Log.i(TAG, String.format("%s: %.0f bytes allocated/op", name, allocated / (double) latencyNanos.length));
+    }
+
+    // / updateItem/deleteItem through ContentValues and db.update/db.delete (the old code) vs.
+    // / the cached compiled statements: latency and bytes allocated per operation
+    @Test
+    public void benchmarkCompiledStatementsVsContentValues() {
+        int userId = registerBenchmarkUser();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        seedItems(db, 2 * OPERATIONS, 1);
+        List<Item> items = dbHelper.getItemsPage(userId, 0, 2 * OPERATIONS);
+        assertEquals(2 * OPERATIONS, items.size());
+        long[] latencies = new long[OPERATIONS];
+
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long opStart = System.nanoTime();
+            assertTrue(updateItemWithContentValues(db, items.get(i).getId(), "Updated", i, userId));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportPerOp("updateItem, ContentValues", latencies, System.nanoTime() - start, allocatedBytes() - allocated);
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long opStart = System.nanoTime();
+            assertTrue(dbHelper.updateItem(items.get(i).getId(), "Updated", i, userId));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportPerOp("updateItem, compiled statement", latencies, System.nanoTime() - start, allocatedBytes() - allocated);
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long opStart = System.nanoTime();
+            assertTrue(deleteItemWithArgs(db, items.get(i).getId(), userId));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportPerOp("deleteItem, String[] args", latencies, System.nanoTime() - start, allocatedBytes() - allocated);
+
+        allocated = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long opStart = System.nanoTime();
+            assertTrue(dbHelper.deleteItem(items.get(OPERATIONS + i).getId(), userId));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportPerOp("deleteItem, compiled statement", latencies, System.nanoTime() - start, allocatedBytes() - allocated);
+
+        assertEquals(0, dbHelper.getItemsPage(userId, 0, 1).size());
+    }
+
+    // / Sustained scanner throughput: one adjustQuantity transaction per scan vs. ScanBatcher,
+    // / flushed every SCANS_PER_WINDOW scans as its timer would under a steady stream
+    @Test
+    public void benchmarkScanThroughput() throws InterruptedException {
+        int userId = registerBenchmarkUser();
+        DatabaseController controller = new DatabaseController(dbHelper);
+        seedItems(dbHelper.getWritableDatabase(), SCAN_ITEMS, 1);
+        List<Item> items = dbHelper.getItemsPage(userId, 0, SCAN_ITEMS);
+        long[] latencies = new long[SCANS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            long opStart = System.nanoTime();
+            assertNotNull(controller.adjustQuantity(items.get(i % SCAN_ITEMS).getId(), userId, 1));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("scans, adjustQuantity each", latencies, System.nanoTime() - start);
+
+        ScanBatcher batcher = new ScanBatcher(controller, null, 60_000);
+        start = System.nanoTime();
+        for (int i = 0; i < SCANS; i++) {
+            batcher.record(userId, items.get(i % SCAN_ITEMS).getId(), 1);
+            if ((i + 1) % SCANS_PER_WINDOW == 0) {
+                batcher.flushAll();
+            }
+        }
+        batcher.shutdown();
+        assertTrue(batcher.awaitTermination(5, TimeUnit.SECONDS));
+        long elapsed = System.nanoTime() - start;
+        Log.i(TAG, String.format("scans, ScanBatcher: %d scans in %.1f ms (%.0f scans/s, %d per batch)",
+                SCANS, elapsed / 1e6, SCANS / (elapsed / 1e9), SCANS_PER_WINDOW));
+
+        int expected = 2 * SCANS / SCAN_ITEMS;
+        for (Item item : dbHelper.getItemsPage(userId, 0, SCAN_ITEMS)) {
+            assertEquals(item.getName(), (item.getId() - items.get(0).getId()) % 50 + expected, item.getQuantity());
+        }
+    }
+
+    private static long databaseBytes(SQLiteDatabase db) {
+        return DatabaseUtils.longForQuery(db, "PRAGMA page_count", null)
+                * DatabaseUtils.longForQuery(db, "PRAGMA page_size", null);
+    }
+
+    private void timeQuantityAt(int userId, int firstItemId, long from, long to, String label) {
+        Random random = new Random(42);
+        long[] latencies = new long[LEDGER_QUERIES];
+        long start = System.nanoTime();
+        for (int i = 0; i < LEDGER_QUERIES; i++) {
+            int itemId = firstItemId + random.nextInt(LEDGER_ITEMS);
+            long time = from + (long) (random.nextDouble() * (to - from));
+            long opStart = System.nanoTime();
+            dbHelper.getQuantityAt(itemId, userId, time);
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies(label, latencies, System.nanoTime() - start);
+    }
+
+    // / "Quantity at time T" over a year of history (LEDGER_MOVEMENTS movements), before and
+    // / after compacting everything but the last 30 days into daily snapshots
+    @Test
+    public void benchmarkStockLedgerPointInTime() {
+        int userId = registerBenchmarkUser();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        seedItems(db, LEDGER_ITEMS, 1);
+        int firstItemId = dbHelper.getItemsPage(userId, 0, 1).get(0).getId();
+        long day = DatabaseController.STOCK_SNAPSHOT_PERIOD_MILLIS;
+        long end = System.currentTimeMillis();
+        long begin = end - 365 * day;
+
+        // / Written straight into the ledger; going through items would also fire every other trigger
+        SQLiteStatement insert = db.compileStatement("INSERT INTO stock_movements (item_id, user_id, delta, quantity, created_at) VALUES (?, ?, ?, ?, ?)");
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            long step = (end - begin) / LEDGER_MOVEMENTS;
+            for (int i = 0; i < LEDGER_MOVEMENTS; i++) {
+                insert.bindLong(1, firstItemId + i % LEDGER_ITEMS);
+                insert.bindLong(2, userId);
+                insert.bindLong(3, 1);
+                insert.bindLong(4, i / LEDGER_ITEMS);
+                insert.bindLong(5, begin + i * step);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        insert.close();
+        report("ledger seed", System.nanoTime() - start, LEDGER_MOVEMENTS);
+        Log.i(TAG, String.format("ledger before compaction: %.1f MB", databaseBytes(db) / 1048576.0));
+
+        timeQuantityAt(userId, firstItemId, begin, end, "quantityAt, full history");
+
+        start = System.nanoTime();
+        int removed = dbHelper.compactStockMovements(end - DatabaseController.STOCK_HISTORY_MILLIS, day);
+        report("compaction", System.nanoTime() - start, removed);
+        db.execSQL("VACUUM"); // Give the freed pages back so the size below is the real footprint
+        Log.i(TAG, String.format("ledger after compaction: %.1f MB, %d movements, %d snapshots",
+                databaseBytes(db) / 1048576.0,
+                DatabaseUtils.queryNumEntries(db, "stock_movements"),
+                DatabaseUtils.queryNumEntries(db, "stock_snapshots")));
+
+        timeQuantityAt(userId, firstItemId, begin, end, "quantityAt, compacted");
+        assertTrue(removed > LEDGER_MOVEMENTS / 2);
+    }
+
+    // / Writes a supplier file of IMPORT_ROWS rows to the cache directory
+    private File writeImportFile(ItemImporter.Format format) throws IOException {
+        File file = new File(context.getCacheDir(), "import-benchmark." + format.name().toLowerCase());
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write(format == ItemImporter.Format.CSV ? "name,quantity,reorder_threshold\r\n" : "[");
+            for (int i = 0; i < IMPORT_ROWS; i++) {
+                if (format == ItemImporter.Format.CSV) {
+                    out.write("Supplier item " + i + "," + (i % 500 + 1) + ",5\r\n");
+                } else {
+                    out.write((i == 0 ? "" : ",") + "{\"name\":\"Supplier item " + i + "\",\"quantity\":" + (i % 500 + 1) + "}");
+                }
+            }
+            out.write(format == ItemImporter.Format.CSV ? "" : "]");
+        }
+        return file;
+    }
+
+    private void timeImport(ItemImporter importer, int userId, File file, ItemImporter.Format format, String label) throws IOException {
+        long start = System.nanoTime();
+        ItemImporter.Result result;
+        try (InputStream in = new FileInputStream(file)) {
+            result = importer.importItems(userId, label, in, format, null);
+        }
+        long elapsed = System.nanoTime() - start;
+        Log.i(TAG, String.format("%s: %d rows in %.1f ms (%.0f rows/s; %d inserted, %d updated)",
+                label, result.getRowsRead(), elapsed / 1e6, result.getRowsRead() / (elapsed / 1e9),
+                result.getInserted(), result.getUpdated()));
+        assertEquals(IMPORT_ROWS, result.getRowsRead());
+    }
+
+    // / Streaming import throughput: a fresh CSV file (all inserts), the same file again (all
+    // / updates through the (user_id, name) index), then the JSON equivalent
+    @Test
+    public void benchmarkImport() throws IOException {
+        int userId = registerBenchmarkUser();
+        ItemImporter importer = new ItemImporter(dbHelper);
+        File csv = writeImportFile(ItemImporter.Format.CSV);
+        File json = writeImportFile(ItemImporter.Format.JSON);
+        try {
+            timeImport(importer, userId, csv, ItemImporter.Format.CSV, "import CSV, new items");
+            timeImport(importer, userId, csv, ItemImporter.Format.CSV, "import CSV, existing items");
+            timeImport(importer, userId, json, ItemImporter.Format.JSON, "import JSON, existing items");
+            assertEquals(IMPORT_ROWS, dbHelper.countItems(userId));
+        } finally {
+            csv.delete();
+            json.delete();
+        }
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private SyncEngine.Result timeSync(SyncEngine engine, int userId, LocalSyncServer server, String label) throws IOException {
+        long bytesBefore = server.getBytesReceived() + server.getBytesSent();
+        long start = System.nanoTime();
+        SyncEngine.Result result = engine.sync(userId, "benchUser");
+        long elapsed = System.nanoTime() - start;
+        long bytes = server.getBytesReceived() + server.getBytesSent() - bytesBefore;
+        Log.i(TAG, String.format("%s: %.1f ms, %d pushed, %d pulled, %.1f KB transferred (%.1f bytes/row)",
+                label, elapsed / 1e6, result.getPushed(), result.getPulled(), bytes / 1024.0,
+                bytes / (double) Math.max(1, result.getPushed() + result.getPulled())));
+        return result;
+    }
+
+    // / Delta sync between two devices through LocalSyncServer: the initial copy of SYNC_ROWS
+    // / items, then a round after SYNC_CHURN of them changed on one device
+    @Test
+    public void benchmarkSyncChurn() throws IOException {
+        int userId = registerBenchmarkUser();
+        context.deleteDatabase(SYNC_PEER_DB);
+        DatabaseHelper peerHelper = new DatabaseHelper(context, SYNC_PEER_DB);
+        try {
+            assertTrue(peerHelper.registerUser("benchUser", "benchPass", "5555555555"));
+            int peerUserId = peerHelper.authenticateUser("benchUser", "benchPass");
+            List<Item> items = new ArrayList<>(SYNC_ROWS);
+            for (int i = 0; i < SYNC_ROWS; i++) {
+                items.add(new Item(0, "Synced item " + i, i % 500 + 1));
+            }
+            dbHelper.insertItems(items.iterator(), userId);
+
+            LocalSyncServer server = new LocalSyncServer();
+            SyncEngine device = new SyncEngine(dbHelper, server);
+            SyncEngine peer = new SyncEngine(peerHelper, server);
+            timeSync(device, userId, server, "sync, initial push");
+            timeSync(peer, peerUserId, server, "sync, initial pull");
+
+            int firstId = dbHelper.getItemsPage(userId, 0, 1).get(0).getId();
+            for (int i = 0; i < SYNC_CHURN; i++) {
+                dbHelper.adjustQuantity(firstId + i * (SYNC_ROWS / SYNC_CHURN), userId, 1, System.currentTimeMillis());
+            }
+            assertEquals(SYNC_CHURN, timeSync(device, userId, server, "sync, 1% churn push").getPushed());
+            assertEquals(SYNC_CHURN, timeSync(peer, peerUserId, server, "sync, 1% churn pull").getApplied());
+            assertEquals(SYNC_ROWS, peerHelper.countItems(peerUserId));
+        } finally {
+            peerHelper.close();
+            context.deleteDatabase(SYNC_PEER_DB);
+        }
+    }
+
+    // / What the outbox adds to a single-item write: the UPDATE on its own (as updateItem ran
+    // / before the outbox) vs. updateItem, which also writes the outbox entry in the same
+    // / transaction. Then sustained throughput: OUTBOX_WRITES inserts with an OutboxFlusher
+    // / draining into a sink that accepts everything, until the outbox is empty.
+    @Test
+    public void benchmarkOutbox() throws InterruptedException {
+        int userId = registerBenchmarkUser();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        seedItems(db, OPERATIONS, 1);
+        List<Item> items = dbHelper.getItemsPage(userId, 0, OPERATIONS);
+        long[] latencies = new long[OPERATIONS];
+
+        SQLiteStatement update = db.compileStatement("UPDATE items SET name = ?, quantity = ?, updated_at = ? WHERE id = ? AND user_id = ?");
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long opStart = System.nanoTime();
+            update.bindString(1, "Updated");
+            update.bindLong(2, i + 1);
+            update.bindLong(3, System.currentTimeMillis());
+            update.bindLong(4, items.get(i).getId());
+            update.bindLong(5, userId);
+            assertEquals(1, update.executeUpdateDelete());
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        update.close();
+        reportLatencies("update, without outbox", latencies, System.nanoTime() - start);
+
+        dbHelper.setOutboxEnabled(true); // As once a sink is registered
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            long opStart = System.nanoTime();
+            assertTrue(dbHelper.updateItem(items.get(i).getId(), "Outboxed", i + 1, userId));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("update, with outbox entry", latencies, System.nanoTime() - start);
+        assertEquals(OPERATIONS, dbHelper.countOutboxEntries());
+        dbHelper.deleteOutboxEntries(Long.MAX_VALUE);
+
+        AtomicInteger batches = new AtomicInteger();
+        OutboxFlusher flusher = new OutboxFlusher(dbHelper, batch -> batches.incrementAndGet());
+        flusher.start();
+        start = System.nanoTime();
+        for (int i = 0; i < OUTBOX_WRITES; i++) {
+            dbHelper.insertItemAndGetId("Outbox " + i, i % 50 + 1, userId);
+        }
+        long writeNanos = System.nanoTime() - start;
+        long backlog = dbHelper.countOutboxEntries();
+        while (flusher.getDeliveredCount() < OUTBOX_WRITES) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+        flusher.shutdown();
+        Log.i(TAG, String.format("outbox: %d writes in %.1f ms (%.0f writes/s), %d still queued when writing stopped, " +
+                        "all delivered after %.1f ms (%.0f entries/s, %d batches)",
+                OUTBOX_WRITES, writeNanos / 1e6, OUTBOX_WRITES / (writeNanos / 1e9), backlog,
+                elapsed / 1e6, OUTBOX_WRITES / (elapsed / 1e9), batches.get()));
+        assertEquals(0, dbHelper.countOutboxEntries());
+    }
+
+    private static String benchmarkSku(int itemId) {
+        return String.format(Locale.ROOT, "SKU%07d", itemId);
+    }
+
+    // / Scanner path with SKU_ROWS SKUs: findBySku for SKUs not scanned before (the (user_id, sku)
+    // / index), for a hot set scanned again and again (the SKU cache), and the whole scan,
+    // / findBySku plus adjustQuantity, in scans per second
+    @Test
+    public void benchmarkSkuScans() {
+        int userId = registerBenchmarkUser();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        seedItems(db, SKU_ROWS, 1);
+        db.execSQL("UPDATE items SET sku = printf('SKU%07d', id)");
+        DatabaseController controller = new DatabaseController(dbHelper);
+        Random random = new Random(42);
+        long[] latencies = new long[SKU_SCANS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SKU_SCANS; i++) {
+            String sku = benchmarkSku(1 + random.nextInt(SKU_ROWS));
+            long opStart = System.nanoTime();
+            assertNotNull(controller.findBySku(userId, sku));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("findBySku, first scan of each SKU", latencies, System.nanoTime() - start);
+
+        for (int itemId = 1; itemId <= SKU_HOT_SET; itemId++) {
+            controller.findBySku(userId, benchmarkSku(itemId));
+        }
+        long hits = controller.getSkuCacheHitCount();
+        start = System.nanoTime();
+        for (int i = 0; i < SKU_SCANS; i++) {
+            String sku = benchmarkSku(1 + random.nextInt(SKU_HOT_SET));
+            long opStart = System.nanoTime();
+            assertNotNull(controller.findBySku(userId, sku));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("findBySku, hot set of " + SKU_HOT_SET, latencies, System.nanoTime() - start);
+        assertEquals(hits + SKU_SCANS, controller.getSkuCacheHitCount());
+
+        start = System.nanoTime();
+        for (int i = 0; i < SKU_SCANS; i++) {
+            String sku = benchmarkSku(1 + random.nextInt(SKU_HOT_SET));
+            long opStart = System.nanoTime();
+            Item item = controller.findBySku(userId, sku);
+            assertNotNull(controller.adjustQuantity(item.getId(), userId, 1));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("scan, findBySku + adjustQuantity", latencies, System.nanoTime() - start);
+    }
+
+    // / LOCATIONS x LOCATION_ITEMS stock rows: what the triggers cost on writes, against what they
+    // / save on reads (getAllItems vs. summing the locations at read time)
+    @Test
+    public void benchmarkItemLocations() {
+        int userId = registerBenchmarkUser();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        seedItems(db, LOCATION_ITEMS, 1);
+        db.execSQL("UPDATE items SET quantity = 0"); // All stock is located, so totals must equal the sums
+
+        SQLiteStatement insert = db.compileStatement("INSERT INTO item_locations (item_id, location_id, quantity) VALUES (?, ?, ?)");
+        long start = System.nanoTime();
+        db.beginTransaction();
+        try {
+            for (int location = 1; location <= LOCATIONS; location++) {
+                for (int itemId = 1; itemId <= LOCATION_ITEMS; itemId++) {
+                    insert.bindLong(1, itemId);
+                    insert.bindLong(2, location);
+                    insert.bindLong(3, (itemId + location) % 7 + 1);
+                    insert.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        insert.close();
+        report("seed location rows, totals kept by triggers", System.nanoTime() - start, LOCATIONS * LOCATION_ITEMS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOCATION_READS; i++) {
+            assertEquals(LOCATION_ITEMS, dbHelper.getAllItems(userId).size());
+        }
+        report("getAllItems, stored totals", System.nanoTime() - start, LOCATION_READS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOCATION_READS; i++) {
+            Cursor cursor = db.rawQuery("SELECT i.id, i.name, ifnull(sum(l.quantity), 0) FROM items i " +
+                    "LEFT JOIN item_locations l ON l.item_id = i.id WHERE i.user_id = ? GROUP BY i.id",
+                    new String[]{String.valueOf(userId)});
+            int rows = 0;
+            while (cursor.moveToNext()) {
+                cursor.getInt(2);
+                rows++;
+            }
+            cursor.close();
+            assertEquals(LOCATION_ITEMS, rows);
+        }
+        report("all items, SUM at read time", System.nanoTime() - start, LOCATION_READS);
+
+        Random random = new Random(42);
+        long[] latencies = new long[LOCATION_WRITES];
+        start = System.nanoTime();
+        for (int i = 0; i < LOCATION_WRITES; i++) {
+            int itemId = 1 + random.nextInt(LOCATION_ITEMS);
+            long opStart = System.nanoTime();
+            assertNotNull(dbHelper.adjustQuantity(itemId, userId, 1, System.currentTimeMillis()));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("adjustQuantity (total only)", latencies, System.nanoTime() - start);
+        // / Not timed: back to all stock located, for the consistency check at the end
+        db.execSQL("UPDATE items SET quantity = (SELECT ifnull(sum(quantity), 0) FROM item_locations WHERE item_id = items.id)");
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOCATION_WRITES; i++) {
+            int itemId = 1 + random.nextInt(LOCATION_ITEMS);
+            int location = 1 + random.nextInt(LOCATIONS);
+            long opStart = System.nanoTime();
+            assertNotNull(dbHelper.adjustLocationQuantity(itemId, userId, location, i % 2 == 0 ? 3 : -2));
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("adjustLocationQuantity", latencies, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < LOCATION_WRITES; i++) {
+            int itemId = 1 + random.nextInt(LOCATION_ITEMS);
+            int from = 1 + random.nextInt(LOCATIONS);
+            int to = from % LOCATIONS + 1;
+            long opStart = System.nanoTime();
+            dbHelper.moveStock(itemId, userId, from, to, 1); // Null when `from` has run empty
+            latencies[i] = System.nanoTime() - opStart;
+        }
+        reportLatencies("moveStock", latencies, System.nanoTime() - start);
+
+        Cursor cursor = db.rawQuery("SELECT count(*) FROM items WHERE quantity <> " +
+                "(SELECT ifnull(sum(quantity), 0) FROM item_locations WHERE item_id = items.id)", null);
+        assertTrue(cursor.moveToFirst());
+        assertEquals("Totals drifted from their locations", 0, cursor.getInt(0));
+        cursor.close();
+    }
+}
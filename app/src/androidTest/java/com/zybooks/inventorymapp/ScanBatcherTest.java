@@ -0,0 +1,103 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ScanBatcherTest {
+    private static final String TEST_DB = "scans_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private DatabaseController controller;
+    private int userId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        controller = new DatabaseController(dbHelper);
+        assertTrue(dbHelper.registerUser("scanUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("scanUser", "password123");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    private int quantityOf(int itemId) {
+        for (Item item : controller.getAllItems(userId)) {
+            if (item.getId() == itemId) {
+                return item.getQuantity();
+            }
+        }
+        fail("Item " + itemId + " not found");
+        return -1;
+    }
+
+    // ✅ Scans inside one window are coalesced per item and written as one batch
+    @Test
+    public void testScansCoalesceIntoOneBatch() throws InterruptedException {
+        Item pens = controller.createItem("Pens", 10, userId);
+        Item paper = controller.createItem("Paper", 20, userId);
+        List<List<Item>> batches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch written = new CountDownLatch(1);
+        ScanBatcher batcher = new ScanBatcher(controller, (user, items) -> {
+            batches.add(items);
+            written.countDown();
+        }, 200);
+
+        for (int i = 0; i < 5; i++) {
+            batcher.record(userId, pens.getId(), -1);
+        }
+        batcher.record(userId, paper.getId(), 3);
+
+        assertTrue("Batch should be written after the window", written.await(5, TimeUnit.SECONDS));
+        assertEquals(1, batches.size());
+        assertEquals("One row per item, not per scan", 2, batches.get(0).size());
+        assertEquals(5, quantityOf(pens.getId()));
+        assertEquals(23, quantityOf(paper.getId()));
+        batcher.shutdown();
+    }
+
+    // ✅ Scans that cancel out write nothing
+    @Test
+    public void testNetZeroIsSkipped() {
+        Item pens = controller.createItem("Pens", 10, userId);
+        List<List<Item>> batches = Collections.synchronizedList(new ArrayList<>());
+        ScanBatcher batcher = new ScanBatcher(controller, (user, items) -> batches.add(items), 60_000);
+
+        batcher.record(userId, pens.getId(), 2);
+        batcher.record(userId, pens.getId(), -2);
+        batcher.flushAll();
+
+        assertTrue(batches.isEmpty());
+        assertEquals(10, quantityOf(pens.getId()));
+        batcher.shutdown();
+    }
+
+    // ✅ Shutdown writes what is still pending
+    @Test
+    public void testShutdownFlushesPending() throws InterruptedException {
+        Item pens = controller.createItem("Pens", 10, userId);
+        ScanBatcher batcher = new ScanBatcher(controller, null, 60_000);
+
+        batcher.record(userId, pens.getId(), 4);
+        batcher.shutdown();
+        assertTrue(batcher.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(14, quantityOf(pens.getId()));
+    }
+}
@@ -0,0 +1,118 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SkuLookupTest {
+    private static final String TEST_DB = "sku_test.db";
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private DatabaseController controller;
+    private int userId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(TEST_DB);
+        dbHelper = new DatabaseHelper(context, TEST_DB);
+        controller = new DatabaseController(dbHelper);
+        assertTrue(dbHelper.registerUser("skuUser", "password123", "1234567890"));
+        userId = dbHelper.authenticateUser("skuUser", "password123");
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    // ✅ An item is found by its SKU, and the SKU comes back with the item
+    @Test
+    public void testFindBySku() {
+        Item stapler = controller.createItem("Stapler", 4, userId);
+        assertTrue(controller.setSku(stapler.getId(), userId, " 0123456789012 "));
+
+        Item found = controller.findBySku(userId, "0123456789012");
+        assertNotNull(found);
+        assertEquals(stapler.getId(), found.getId());
+        assertEquals("0123456789012", found.getSku());
+        assertEquals("0123456789012", controller.getAllItems(userId).get(0).getSku());
+        assertNull(controller.findBySku(userId, "999"));
+        assertNull(controller.findBySku(userId, ""));
+    }
+
+    // ✅ The second scan of a SKU is answered from memory
+    @Test
+    public void testRepeatedScanHitsCache() {
+        Item stapler = controller.createItem("Stapler", 4, userId);
+        assertTrue(controller.setSku(stapler.getId(), userId, "A1"));
+
+        controller.findBySku(userId, "A1");
+        long hits = controller.getSkuCacheHitCount();
+        assertEquals(stapler.getId(), controller.findBySku(userId, "A1").getId());
+        assertEquals(hits + 1, controller.getSkuCacheHitCount());
+    }
+
+    // ❌ A SKU belongs to one item per user; other users may reuse it
+    @Test
+    public void testSkuIsUniquePerUser() {
+        Item stapler = controller.createItem("Stapler", 4, userId);
+        Item tape = controller.createItem("Tape", 9, userId);
+        assertTrue(controller.setSku(stapler.getId(), userId, "A1"));
+        assertFalse(controller.setSku(tape.getId(), userId, "A1"));
+        assertTrue(controller.setSku(tape.getId(), userId, null)); // Any number of items have none
+
+        assertTrue(dbHelper.registerUser("otherUser", "password123", "1234567890"));
+        int otherUserId = dbHelper.authenticateUser("otherUser", "password123");
+        Item otherStapler = controller.createItem("Stapler", 1, otherUserId);
+        assertTrue(controller.setSku(otherStapler.getId(), otherUserId, "A1"));
+        assertEquals(stapler.getId(), controller.findBySku(userId, "A1").getId());
+        assertEquals(otherStapler.getId(), controller.findBySku(otherUserId, "A1").getId());
+        assertFalse(controller.setSku(stapler.getId(), otherUserId, "B2")); // Not their item
+    }
+
+    // ✅ Cached SKUs follow moves and deletes
+    @Test
+    public void testStaleCacheEntriesAreDropped() {
+        Item stapler = controller.createItem("Stapler", 4, userId);
+        Item tape = controller.createItem("Tape", 9, userId);
+        assertTrue(controller.setSku(stapler.getId(), userId, "A1"));
+        assertEquals(stapler.getId(), controller.findBySku(userId, "A1").getId());
+
+        assertTrue(controller.setSku(stapler.getId(), userId, null));
+        assertTrue(controller.setSku(tape.getId(), userId, "A1"));
+        assertEquals(tape.getId(), controller.findBySku(userId, "A1").getId());
+
+        assertTrue(controller.deleteItem(tape.getId(), userId));
+        assertNull(controller.findBySku(userId, "A1"));
+    }
+
+    // ✅ A cached item follows the writes made through the controller
+    @Test
+    public void testCachedItemFollowsWrites() {
+        Item stapler = controller.createItem("Stapler", 4, userId);
+        assertTrue(controller.setSku(stapler.getId(), userId, "A1"));
+        controller.findBySku(userId, "A1");
+
+        assertNotNull(controller.adjustQuantity(stapler.getId(), userId, 3));
+        long hits = controller.getSkuCacheHitCount();
+        assertEquals(7, controller.findBySku(userId, "A1").getQuantity());
+        assertEquals("Refreshed in place, still a hit", hits + 1, controller.getSkuCacheHitCount());
+
+        assertTrue(controller.updateItem(stapler.getId(), "Long Stapler", 2, userId));
+        Item renamed = controller.findBySku(userId, "A1");
+        assertEquals("Long Stapler", renamed.getName());
+        assertEquals(2, renamed.getQuantity());
+        assertTrue(controller.setReorderThreshold(stapler.getId(), 9, userId));
+        assertEquals(9, controller.findBySku(userId, "A1").getReorderThreshold());
+
+        renamed.setSku("changed by the caller"); // Hits are copies
+        assertEquals("A1", controller.findBySku(userId, "A1").getSku());
+    }
+}
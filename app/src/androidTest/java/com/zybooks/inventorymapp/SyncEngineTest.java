@@ -0,0 +1,140 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// / Two devices (two database files) of the same user, syncing through one LocalSyncServer
+public class SyncEngineTest {
+    private static final String DEVICE_DB = "sync_device_test.db";
+    private static final String PEER_DB = "sync_peer_test.db";
+    private static final String SCOPE = "syncUser";
+
+    private Context context;
+    private DatabaseHelper device;
+    private DatabaseHelper peer;
+    private int deviceUserId;
+    private int peerUserId;
+    private LocalSyncServer server;
+    private SyncEngine deviceSync;
+    private SyncEngine peerSync;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DEVICE_DB);
+        context.deleteDatabase(PEER_DB);
+        device = new DatabaseHelper(context, DEVICE_DB);
+        peer = new DatabaseHelper(context, PEER_DB);
+        assertTrue(device.registerUser(SCOPE, "password123", "1234567890"));
+        assertTrue(peer.registerUser(SCOPE, "password123", "1234567890"));
+        deviceUserId = device.authenticateUser(SCOPE, "password123");
+        peerUserId = peer.authenticateUser(SCOPE, "password123");
+        server = new LocalSyncServer();
+        deviceSync = new SyncEngine(device, server);
+        peerSync = new SyncEngine(peer, server);
+    }
+
+    @After
+    public void tearDown() {
+        device.close();
+        peer.close();
+        context.deleteDatabase(DEVICE_DB);
+        context.deleteDatabase(PEER_DB);
+    }
+
+    private static Map<String, Item> itemsByName(DatabaseHelper helper, int userId) {
+        Map<String, Item> items = new HashMap<>();
+        for (Item item : helper.getAllItems(userId)) {
+            items.put(item.getName(), item);
+        }
+        return items;
+    }
+
+    private void syncBoth() throws IOException {
+        deviceSync.sync(deviceUserId, SCOPE);
+        peerSync.sync(peerUserId, SCOPE);
+        deviceSync.sync(deviceUserId, SCOPE);
+    }
+
+    // ✅ Every item reaches the other device on the first sync
+    @Test
+    public void testInitialSyncCopiesItems() throws IOException {
+        device.insertItems(Arrays.asList(new Item(0, "Stapler", 4), new Item(0, "Tape", 9)).iterator(), deviceUserId);
+
+        assertEquals(2, deviceSync.sync(deviceUserId, SCOPE).getPushed());
+        SyncEngine.Result result = peerSync.sync(peerUserId, SCOPE);
+        assertEquals(2, result.getApplied());
+
+        Map<String, Item> items = itemsByName(peer, peerUserId);
+        assertEquals(2, items.size());
+        assertEquals(4, items.get("Stapler").getQuantity());
+        assertEquals(9, items.get("Tape").getQuantity());
+    }
+
+    // ✅ Once in sync, only the rows that changed travel
+    @Test
+    public void testOnlyChangesArePushed() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            device.insertItemAndGetId("Item " + i, i + 1, deviceUserId);
+        }
+        syncBoth();
+        int itemId = itemsByName(device, deviceUserId).get("Item 7").getId();
+        assertTrue(device.updateItem(itemId, "Item 7", 70, deviceUserId));
+
+        assertEquals(1, deviceSync.sync(deviceUserId, SCOPE).getPushed());
+        assertEquals(1, peerSync.sync(peerUserId, SCOPE).getApplied());
+        assertEquals(70, itemsByName(peer, peerUserId).get("Item 7").getQuantity());
+    }
+
+    // ✅ Rows pulled from the server are not pushed back as local changes
+    @Test
+    public void testPulledChangesAreNotEchoed() throws IOException {
+        device.insertItemAndGetId("Stapler", 4, deviceUserId);
+        syncBoth();
+
+        SyncEngine.Result result = peerSync.sync(peerUserId, SCOPE);
+        assertEquals(0, result.getPushed());
+        assertEquals(0, result.getPulled());
+    }
+
+    // ✅ Deletes propagate, and an older copy of the item cannot bring it back
+    @Test
+    public void testDeletePropagates() throws IOException {
+        int itemId = (int) device.insertItemAndGetId("Stapler", 4, deviceUserId);
+        syncBoth();
+
+        assertTrue(device.deleteItem(itemId, deviceUserId));
+        syncBoth();
+        assertTrue(itemsByName(peer, peerUserId).isEmpty());
+
+        SyncRecord stale = new SyncRecord(device.getLocalChanges(deviceUserId, 0, 10).get(0).getSyncId(),
+                "Stapler", 4, 0, 1, 0, "other-device", false, 0);
+        assertEquals(0, peer.applyRemoteChanges(peerUserId, SCOPE, Arrays.asList(stale), 0));
+        assertTrue(itemsByName(peer, peerUserId).isEmpty());
+    }
+
+    // ✅ Concurrent edits of the same item settle on the same winner on both devices
+    @Test
+    public void testConflictConverges() throws IOException {
+        int deviceItemId = (int) device.insertItemAndGetId("Stapler", 4, deviceUserId);
+        syncBoth();
+        int peerItemId = itemsByName(peer, peerUserId).get("Stapler").getId();
+
+        assertTrue(device.updateItem(deviceItemId, "Stapler", 10, deviceUserId, 1_000));
+        assertTrue(peer.updateItem(peerItemId, "Stapler", 20, peerUserId, 2_000)); // Later, so it wins
+        syncBoth();
+
+        assertEquals(20, itemsByName(device, deviceUserId).get("Stapler").getQuantity());
+        assertEquals(20, itemsByName(peer, peerUserId).get("Stapler").getQuantity());
+        assertEquals(1, server.getItemCount(SCOPE));
+    }
+}
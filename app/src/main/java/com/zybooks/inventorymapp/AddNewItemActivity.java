@@ -25,7 +25,7 @@ import com.google.android.material.textfield.TextInputEditText;
 public class AddNewItemActivity extends AppCompatActivity {
     private TextInputEditText etItemName, etQuantity;
     private Button btnAddItem;
-    private DatabaseController dbController;
+    private AsyncDatabaseController dbController;
     private int userId;
 
     @Override
@@ -38,7 +38,7 @@ public class AddNewItemActivity extends AppCompatActivity {
         etQuantity = findViewById(R.id.etQuantity);
         btnAddItem = findViewById(R.id.btnAddItem);
 
-        dbController = new DatabaseController(this);
+        dbController = InventoryApplication.getAsyncController(this);
 
         // Retrieve userId from Intent
         userId = getIntent().getIntExtra("userId", -1);
@@ -59,15 +59,14 @@ public class AddNewItemActivity extends AppCompatActivity {
             }
 
             int quantity = Integer.parseInt(quantityStr);
-            boolean success = dbController.addItem(name, quantity, userId);
-
-            if (success) {
-                Toast.makeText(this, "Item added", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_OK); // Notify MainActivity to refresh list
-                finish();
-            } else {
-                Toast.makeText(this, "Failed to add item", Toast.LENGTH_SHORT).show();
-            }
+            dbController.createItem(name, quantity, userId, item -> {
+                if (item != null) {
+                    Toast.makeText(this, "Item added", Toast.LENGTH_SHORT).show();
+                    finish(); // MainActivity hears about the new row through the item change bus
+                } else {
+                    Toast.makeText(this, "Failed to add item", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
     }
 }
@@ -0,0 +1,325 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import android.util.Log;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous facade over DatabaseController. Every call runs on a background thread and its
+ * result is delivered to the main thread through a Callback, so activities never touch SQLite
+ * from the UI thread.
+ *
+ * Writes go through a single-threaded executor with a bounded queue, which keeps them in the
+ * order they were submitted. Reads use a separate small pool so a list refresh is never stuck
+ * behind a queue of writes.
+ */
+public class AsyncDatabaseController {
+    private static final String TAG = "AsyncDatabaseController";
+    private static final int WRITE_QUEUE_CAPACITY = 256;
+    // / inventory.db runs in WAL mode, so reads on these threads get their own pooled connections
+    // / and do not wait for the writer
+    private static final int READ_THREADS = 3;
+
+    /**
+     * Receives the result of an asynchronous call on the main thread. It is called exactly once,
+     * also when the call failed: then with the value that call uses for a rejected request
+     * (false, null, or -1 for ids and counts).
+     */
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private final DatabaseController controller;
+    private final ExecutorService writeExecutor;
+    private final ExecutorService readExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public AsyncDatabaseController(DatabaseController controller) {
+        this.controller = controller;
+        this.writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(WRITE_QUEUE_CAPACITY), namedThreads("db-write"));
+        this.readExecutor = Executors.newFixedThreadPool(READ_THREADS, namedThreads("db-read"));
+    }
+
+    // / Get All Items for a Specific User
+    public void getAllItems(int userId, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getAllItems(userId), callback, null);
+    }
+
+    // / Keyset Page of Items for a Specific User (afterId = 0 for the first page)
+    public void getItemsPage(int userId, int afterId, int limit, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getItemsPage(userId, afterId, limit), callback, null);
+    }
+
+    // / Keyset Page of Items that come before beforeId
+    public void getItemsPageBefore(int userId, int beforeId, int limit, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getItemsPageBefore(userId, beforeId, limit), callback, null);
+    }
+
+    // / Sorted and filtered keyset page (after = null for the first page)
+    public void getItemsPage(int userId, ItemSort sort, ItemFilter filter, Item after, int limit, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getItemsPage(userId, sort, filter, after, limit), callback, null);
+    }
+
+    public void getItemsPageFrom(int userId, ItemSort sort, ItemFilter filter, Item first, int limit, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getItemsPageFrom(userId, sort, filter, first, limit), callback, null);
+    }
+
+    public void getItemsPageBefore(int userId, ItemSort sort, ItemFilter filter, Item before, int limit, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getItemsPageBefore(userId, sort, filter, before, limit), callback, null);
+    }
+
+    // / Search item names by prefix. Cancel the returned signal when the results are no longer
+    // / wanted: a running query is interrupted and the callback is never called.
+    public CancellationSignal searchItems(int userId, String query, int limit, Callback<List<Item>> callback) {
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        submit(readExecutor, () -> cancellationSignal.isCanceled() ? null
+                        : controller.searchItems(userId, query, limit, cancellationSignal),
+                results -> {
+                    if (!cancellationSignal.isCanceled()) {
+                        callback.onResult(results);
+                    }
+                }, null);
+        return cancellationSignal;
+    }
+
+    // / Stream the user's items to out as CSV. Takes ownership of out and closes it when done.
+    // / Progress is reported on the main thread; the callback gets the row count, or -1 if
+    // / writing failed. Cancel the returned signal to stop: the callback is then never called.
+    public CancellationSignal exportItemsCsv(int userId, OutputStream out, ItemCsvExporter.ProgressListener progress,
+                                             Callback<Long> callback) {
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        ItemCsvExporter.ProgressListener onMainThread = progress == null ? null
+                : (rowsWritten, totalRows) -> mainHandler.post(() -> progress.onProgress(rowsWritten, totalRows));
+        submit(readExecutor, () -> {
+            try (OutputStream stream = out) {
+                return controller.exportItemsCsv(userId, stream, onMainThread, cancellationSignal);
+            } catch (IOException e) {
+                Log.e(TAG, "CSV export failed", e);
+                return -1L;
+            }
+        }, callback, -1L);
+        return cancellationSignal;
+    }
+
+    // / Import a supplier file on the write thread. Takes ownership of in and closes it when done.
+    // / The callback gets the counts, or null if the file could not be read. Cancel the returned
+    // / signal to stop after the current chunk; importing the same importId again resumes.
+    public CancellationSignal importItems(int userId, String importId, InputStream in, ItemImporter.Format format,
+                                          Callback<ItemImporter.Result> callback) {
+        CancellationSignal cancellationSignal = new CancellationSignal();
+        submit(writeExecutor, () -> {
+            try (InputStream stream = in) {
+                return controller.importItems(userId, importId, stream, format, cancellationSignal);
+            } catch (IOException | IllegalStateException e) {
+                Log.e(TAG, "Import failed", e); // Unreadable file or malformed JSON
+                return null;
+            }
+        }, callback, null);
+        return cancellationSignal;
+    }
+
+    // / Runs on the write thread; the callback gets null if the transport failed
+    public void syncItems(int userId, SyncTransport transport, Callback<SyncEngine.Result> callback) {
+        submit(writeExecutor, () -> {
+            try {
+                return controller.syncItems(userId, transport);
+            } catch (IOException e) {
+                Log.e(TAG, "Sync failed", e);
+                return null;
+            }
+        }, callback, null);
+    }
+
+    public void getLowStockItems(int userId, Callback<List<Item>> callback) {
+        submit(readExecutor, () -> controller.getLowStockItems(userId), callback, null);
+    }
+
+    public void setReorderThreshold(int itemId, int reorderThreshold, int userId, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.setReorderThreshold(itemId, reorderThreshold, userId), callback, false);
+    }
+
+    // / Insert Item with userId
+    public void addItem(String name, int quantity, int userId, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.addItem(name, quantity, userId), callback, false);
+    }
+
+    // / Insert Item with userId; the callback receives the stored item, or null if it was rejected
+    public void createItem(String name, int quantity, int userId, Callback<Item> callback) {
+        submit(writeExecutor, () -> controller.createItem(name, quantity, userId), callback, null);
+    }
+
+    // / Bulk Insert Items with userId; the callback receives how many rows were inserted
+    public void addItems(List<Item> items, int userId, Callback<Integer> callback) {
+        submit(writeExecutor, () -> controller.addItems(items, userId), callback, 0);
+    }
+
+    // / Update an Item (userId is checked by the controller)
+    public void updateItem(int id, String name, int quantity, int userId, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.updateItem(id, name, quantity, userId), callback, false);
+    }
+
+    // / Add delta to an item's stock; the callback gets the item afterwards, or null
+    public void adjustQuantity(int itemId, int userId, int delta, Callback<Item> callback) {
+        submit(writeExecutor, () -> controller.adjustQuantity(itemId, userId, delta), callback, null);
+    }
+
+    public void getQuantityAt(int itemId, int userId, long time, Callback<Integer> callback) {
+        submit(readExecutor, () -> controller.getQuantityAt(itemId, userId, time), callback, -1);
+    }
+
+    // / Location stock; the callbacks get the item with its new total, or null
+    public void setLocationQuantity(int itemId, int userId, int locationId, int quantity, Callback<Item> callback) {
+        submit(writeExecutor, () -> controller.setLocationQuantity(itemId, userId, locationId, quantity), callback, null);
+    }
+
+    public void adjustLocationQuantity(int itemId, int userId, int locationId, int delta, Callback<Item> callback) {
+        submit(writeExecutor, () -> controller.adjustLocationQuantity(itemId, userId, locationId, delta), callback, null);
+    }
+
+    public void moveStock(int itemId, int userId, int fromLocationId, int toLocationId, int amount, Callback<Item> callback) {
+        submit(writeExecutor, () -> controller.moveStock(itemId, userId, fromLocationId, toLocationId, amount), callback, null);
+    }
+
+    public void getLocationQuantities(int itemId, int userId, Callback<Map<Integer, Integer>> callback) {
+        submit(readExecutor, () -> controller.getLocationQuantities(itemId, userId), callback, null);
+    }
+
+    // / Runs on the write thread, queued behind (and ahead of) ordinary edits
+    public void compactStockHistory(Callback<Integer> callback) {
+        submit(writeExecutor, controller::compactStockHistory, callback, 0);
+    }
+
+    // / The callback gets the user's item with this SKU, or null if there is none
+    public void findBySku(int userId, String sku, Callback<Item> callback) {
+        submit(readExecutor, () -> controller.findBySku(userId, sku), callback, null);
+    }
+
+    public void setSku(int itemId, int userId, String sku, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.setSku(itemId, userId, sku), callback, false);
+    }
+
+    // / Delete an Item (userId is checked by the controller)
+    public void deleteItem(int itemId, int userId, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.deleteItem(itemId, userId), callback, false);
+    }
+
+    // / Observers are called on the bus thread, not the main thread (see ItemChangeBus)
+    public ItemChangeBus getItemChanges() {
+        return controller.getItemChanges();
+    }
+
+    public void getSmsPreference(int userId, Callback<Boolean> callback) {
+        submit(readExecutor, () -> controller.getSmsPreference(userId), callback, false);
+    }
+
+    public void updateSmsPreference(int userId, boolean isEnabled, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.updateSmsPreference(userId, isEnabled), callback, false);
+    }
+
+    public void setSmsPreference(int userId, boolean isEnabled, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.setSmsPreference(userId, isEnabled), callback, false);
+    }
+
+    // / Only touches memory, so it runs on the calling thread
+    public void endSession(int userId) {
+        controller.endSession(userId);
+    }
+
+    // / Runs on the write thread: a successful login may rehash the stored password, and every
+    // / write goes through that one thread
+    public void authenticateUser(String username, String password, Callback<Integer> callback) {
+        submit(writeExecutor, () -> controller.authenticateUser(username, password), callback, -1);
+    }
+
+    public void registerUser(String username, String password, String phoneNumber, Callback<Boolean> callback) {
+        submit(writeExecutor, () -> controller.registerUser(username, password, phoneNumber), callback, false);
+    }
+
+    // / Clear the Database; the callback gets false if it failed
+    public void clearDatabase(Callback<Boolean> callback) {
+        submit(writeExecutor, () -> {
+            controller.clearDatabase();
+            return true;
+        }, callback, false);
+    }
+
+    // / Runs the task on the given executor and posts its result back to the main thread.
+    // / A null callback means the caller does not care about the result. If the task throws or
+    // / cannot be queued, the callback still runs, with `failed`: the value each call already
+    // / uses for "did not happen" (false, null, -1), so the UI can clear its progress state.
+    private <T> void submit(ExecutorService executor, Callable<T> task, Callback<T> callback, T failed) {
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = task.call();
+                } catch (OperationCanceledException e) {
+                    return; // Cancelled on purpose; nobody is waiting for the result
+                } catch (Exception e) {
+                    Log.e(TAG, "Database task failed", e);
+                    result = failed;
+                }
+                deliver(callback, result);
+            });
+        } catch (RejectedExecutionException e) {
+            // / The write queue is full (a scan burst or bulk edit outran the disk) or we are shut
+            // / down. Failing the call beats throwing on the caller's thread, usually the UI thread.
+            Log.w(TAG, "Database task rejected", e);
+            deliver(callback, failed);
+        }
+    }
+
+    private <T> void deliver(Callback<T> callback, T result) {
+        if (callback != null) {
+            mainHandler.post(() -> callback.onResult(result));
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // / Stops accepting new work; already queued writes still run to completion
+    public void shutdown() {
+        writeExecutor.shutdown();
+        readExecutor.shutdown();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+
+/**
+ * Per-user batches written on a background thread. The first value added for a user schedules
+ * that user's flush a window later; values added in the meantime join the batch, merged by key.
+ * Subclasses say how a batch is written (ScanBatcher, LowStockAlertQueue).
+ *
+ * Adding only touches memory, so it is safe on the main thread and inside a write. All writing
+ * happens on the batch thread, including the last flush on shutdown().
+ */
+abstract class CoalescingBatcher<K, V> {
+    private final long windowMillis;
+    private final BinaryOperator<V> merge;
+    private final ScheduledExecutorService scheduler;
+    // / userId -> key -> merged value, waiting for that user's flush
+    private final Map<Integer, LinkedHashMap<K, V>> pending = new HashMap<>();
+
+    CoalescingBatcher(String threadName, long windowMillis, BinaryOperator<V> merge) {
+        this.windowMillis = windowMillis;
+        this.merge = merge;
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // / Windows still open at shutdown are dropped; the final flushAll() writes their batches
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = scheduler;
+    }
+
+    // / Called on the batch thread with a non-empty batch, in the order keys were first added.
+    // / Must not throw: nothing would be left to report the failure.
+    protected abstract void write(int userId, LinkedHashMap<K, V> batch);
+
+    void add(int userId, K key, V value) {
+        boolean firstForUser;
+        synchronized (pending) {
+            LinkedHashMap<K, V> batch = pending.get(userId);
+            firstForUser = batch == null;
+            if (firstForUser) {
+                batch = new LinkedHashMap<>();
+                pending.put(userId, batch);
+            }
+            batch.merge(key, value, merge);
+        }
+        if (firstForUser) {
+            try {
+                scheduler.schedule(() -> flush(userId), windowMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                synchronized (pending) {
+                    pending.remove(userId); // Shut down: nobody is left to write it
+                }
+            }
+        }
+    }
+
+    // / Writes whatever is pending right away, on the calling thread. For tests and benchmarks;
+    // / the app lets the window or shutdown() do it.
+    public void flushAll() {
+        List<Integer> userIds;
+        synchronized (pending) {
+            userIds = new ArrayList<>(pending.keySet());
+        }
+        for (int userId : userIds) {
+            flush(userId);
+        }
+    }
+
+    private void flush(int userId) {
+        LinkedHashMap<K, V> batch;
+        synchronized (pending) {
+            batch = pending.remove(userId);
+        }
+        if (batch != null && !batch.isEmpty()) {
+            write(userId, batch);
+        }
+    }
+
+    // / Writes anything still pending on the batch thread, then stops it. Returns at once, so it
+    // / is safe from onDestroy(); use awaitTermination() to wait for the last batch.
+    public void shutdown() {
+        try {
+            scheduler.execute(this::flushAll);
+        } catch (RejectedExecutionException e) {
+            return; // Already shut down
+        }
+        scheduler.shutdown();
+    }
+
+    // / True once the last batch is written. Only for callers that must not race it, e.g. before
+    // / closing the database.
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return scheduler.awaitTermination(timeout, unit);
+    }
+}
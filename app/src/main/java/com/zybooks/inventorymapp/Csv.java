@@ -0,0 +1,130 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV helpers shared by the item export and import. Fields that contain a comma,
+ * quote or line break are quoted, with quotes doubled; everything else is written as is.
+ * RecordReader parses the same format back one record at a time.
+ */
+final class Csv {
+    static final String LINE_END = "\r\n";
+
+    private Csv() {}
+
+    static void writeField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return; // Empty field
+        }
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads CSV records one at a time from a stream, so a file of any size is never held in
+     * memory. Quoted fields may contain commas, doubled quotes and line breaks. Both CRLF and LF
+     * line endings are accepted, and blank lines are skipped.
+     */
+    static final class RecordReader {
+        private final BufferedReader in;
+
+        RecordReader(Reader in) {
+            this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        }
+
+        // / The next record's fields, or null at the end of the input
+        List<String> next() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean started = false; // Seen anything but line breaks in this record
+            boolean quoted = false;
+            while (true) {
+                int c = in.read();
+                if (c == -1) {
+                    if (!started) {
+                        return null;
+                    }
+                    break; // An unterminated quote runs to the end of the input
+                }
+                if (quoted) {
+                    if (c == '"' && !nextIs('"')) {
+                        quoted = false;
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        nextIs('\n');
+                    }
+                    if (started) {
+                        break;
+                    }
+                } else {
+                    started = true;
+                    if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append((char) c);
+                    }
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        // / Consumes the next character if it is `expected`
+        private boolean nextIs(char expected) throws IOException {
+            in.mark(1);
+            if (in.read() == expected) {
+                return true;
+            }
+            in.reset();
+            return false;
+        }
+    }
+}
@@ -17,26 +17,259 @@
 package com.zybooks.inventorymapp;
 
 import android.content.Context;
+import android.os.CancellationSignal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 public class DatabaseController {
+    // / Defaults for the item cache: a few recently active users, each with up to this many items
+    static final int DEFAULT_CACHED_USERS = 4;
+    static final int DEFAULT_CACHED_ITEMS_PER_USER = 5_000;
+    // / SKUs remembered for the scanner, across users; a dock works through far fewer than this
+    static final int DEFAULT_CACHED_SKUS = 10_000;
+    // / Stock history is exact for this long; older movements are folded into daily snapshots
+    static final long STOCK_HISTORY_MILLIS = 30L * 24 * 60 * 60 * 1000;
+    static final long STOCK_SNAPSHOT_PERIOD_MILLIS = 24L * 60 * 60 * 1000;
     private DatabaseHelper dbHelper;
+    private final ItemCache itemCache;
+    private final SkuCache skuCache = new SkuCache(DEFAULT_CACHED_SKUS);
+    private final LowStockAlertQueue alertQueue; // null when alerts are off
+    private final LoginThrottle loginThrottle = new LoginThrottle();
+    // / Returned by authenticateUser while a username is locked out after repeated failures
+    public static final int LOGIN_THROTTLED = -2;
 
     public DatabaseController(Context context) {
-        this.dbHelper = new DatabaseHelper(context);
+        // Shared, long-lived connection and the app's alert queue
+        this(InventoryApplication.getDatabaseHelper(context), InventoryApplication.getLowStockAlertQueue(context));
+    }
+
+    // / Package-private so tests and benchmarks can supply their own helper; no alerts are sent
+    DatabaseController(DatabaseHelper dbHelper) {
+        this(dbHelper, null);
+    }
+
+    DatabaseController(DatabaseHelper dbHelper, LowStockAlertQueue alertQueue) {
+        this(dbHelper, alertQueue, DEFAULT_CACHED_USERS, DEFAULT_CACHED_ITEMS_PER_USER);
+    }
+
+    // / Item cache bounds: maxCachedUsers users are kept (least recently used evicted first), and
+    // / a user with more than maxCachedItemsPerUser items is always read from the database
+    DatabaseController(DatabaseHelper dbHelper, int maxCachedUsers, int maxCachedItemsPerUser) {
+        this(dbHelper, null, maxCachedUsers, maxCachedItemsPerUser);
+    }
+
+    DatabaseController(DatabaseHelper dbHelper, LowStockAlertQueue alertQueue, int maxCachedUsers, int maxCachedItemsPerUser) {
+        this.dbHelper = dbHelper;
+        this.alertQueue = alertQueue;
+        this.itemCache = new ItemCache(maxCachedUsers, maxCachedItemsPerUser);
+    }
+
+    // / Same rules for single and bulk inserts
+    static boolean isValidItem(String name, int quantity) {
+        return name != null && !name.trim().isEmpty() && quantity > 0;
     }
 
     // / Insert Item with userId
     public boolean addItem(String name, int quantity, int userId) {
-        if (name == null || name.trim().isEmpty() || quantity <= 0) {
-            return false; // Prevent invalid input
+        return createItem(name, quantity, userId) != null;
+    }
+
+    // / Insert Item with userId and return it with its new id, or null if it was rejected
+    public Item createItem(String name, int quantity, int userId) {
+        return createItem(name, quantity, DatabaseHelper.DEFAULT_REORDER_THRESHOLD, userId);
+    }
+
+    // / Same, with the quantity below which the item counts as low stock
+    public Item createItem(String name, int quantity, int reorderThreshold, int userId) {
+        if (!isValidItem(name, quantity) || reorderThreshold < 0) {
+            return null; // Prevent invalid input
+        }
+        long now = System.currentTimeMillis();
+        long id = dbHelper.insertItemAndGetId(name, quantity, reorderThreshold, userId, now);
+        if (id == -1) {
+            return null;
+        }
+        Item item = new Item((int) id, name, quantity, reorderThreshold, now);
+        itemCache.onInserted(userId, item);
+        if (item.isLowStock() && alertQueue != null) {
+            alertQueue.enqueue(userId, name, quantity); // New items can start out low
         }
-        return dbHelper.insertItem(name, quantity, userId);
+        return item;
     }
 
-    // / Get All Items for a Specific User
+    // / Bulk Insert Items with userId. Invalid items are skipped; returns how many were inserted
+    public int addItems(List<Item> items, int userId) {
+        return addItems(items.iterator(), userId);
+    }
+
+    // / Streaming variant: items are pulled one at a time, so the source never has to be in memory
+    public int addItems(Iterator<Item> items, int userId) {
+        try {
+            return dbHelper.insertItems(new ValidItemIterator(items), userId);
+        } finally {
+            itemCache.invalidateUser(userId); // Cheaper to reload than to apply row by row
+            skuCache.invalidateUser(userId);
+        }
+    }
+
+    // / Skips items that addItem would reject
+    private static class ValidItemIterator implements Iterator<Item> {
+        private final Iterator<Item> source;
+        private Item next;
+
+        ValidItemIterator(Iterator<Item> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                Item candidate = source.next();
+                if (candidate != null && isValidItem(candidate.getName(), candidate.getQuantity())) {
+                    next = candidate;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Item next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Item item = next;
+            next = null;
+            return item;
+        }
+    }
+
+    // / Get All Items for a Specific User, from the cache when possible
     public List<Item> getAllItems(int userId) {
-        return dbHelper.getAllItems(userId);
+        List<Item> cached = itemCache.getAll(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = itemCache.writeStamp();
+        List<Item> items = dbHelper.getAllItems(userId);
+        itemCache.putAll(userId, items, stamp);
+        return items;
+    }
+
+    // / Keyset Page of Items for a Specific User (afterId = 0 for the first page).
+    // / Opening the list of a user that fits in the cache loads all of their items once, so
+    // / later pages and refreshes come from memory.
+    public List<Item> getItemsPage(int userId, int afterId, int limit) {
+        List<Item> cached = itemCache.getPage(userId, afterId, limit);
+        if (cached != null) {
+            return cached;
+        }
+        if (afterId == 0 && !itemCache.isOversized(userId)) {
+            long stamp = itemCache.writeStamp();
+            List<Item> items = dbHelper.getItemsPage(userId, 0, itemCache.getMaxItemsPerUser() + 1);
+            itemCache.putAll(userId, items, stamp);
+            return new ArrayList<>(items.subList(0, Math.min(limit, items.size())));
+        }
+        return dbHelper.getItemsPage(userId, afterId, limit);
+    }
+
+    // / Sorted and filtered keyset page (after = null for the first page). The default order is
+    // / served by the item cache; every other order is sorted by SQLite on its index.
+    public List<Item> getItemsPage(int userId, ItemSort sort, ItemFilter filter, Item after, int limit) {
+        if (isCachedOrder(sort, filter)) {
+            return getItemsPage(userId, after == null ? 0 : after.getId(), limit);
+        }
+        return dbHelper.getItemsPage(userId, sort, filter, after, limit);
+    }
+
+    // / Page starting at `first` itself, for re-reading a window in place
+    public List<Item> getItemsPageFrom(int userId, ItemSort sort, ItemFilter filter, Item first, int limit) {
+        if (isCachedOrder(sort, filter)) {
+            return getItemsPage(userId, first.getId() - 1, limit);
+        }
+        return dbHelper.getItemsPageFrom(userId, sort, filter, first, limit);
+    }
+
+    public List<Item> getItemsPageBefore(int userId, ItemSort sort, ItemFilter filter, Item before, int limit) {
+        if (isCachedOrder(sort, filter)) {
+            return getItemsPageBefore(userId, before.getId(), limit);
+        }
+        return dbHelper.getItemsPageBefore(userId, sort, filter, before, limit);
+    }
+
+    // / The cache holds each user's items in id order, unfiltered
+    private static boolean isCachedOrder(ItemSort sort, ItemFilter filter) {
+        return sort == ItemSort.ADDED && filter == ItemFilter.ALL;
+    }
+
+    // / Prefix search over the user's item names through the full-text index
+    public List<Item> searchItems(int userId, String query, int limit) {
+        return searchItems(userId, query, limit, null);
+    }
+
+    // / Same, abandoned early if cancellationSignal is cancelled (it throws OperationCanceledException)
+    public List<Item> searchItems(int userId, String query, int limit, CancellationSignal cancellationSignal) {
+        return dbHelper.searchItems(userId, query, limit, cancellationSignal);
+    }
+
+    // / Stream the user's items to out as CSV in constant memory; see ItemCsvExporter
+    public long exportItemsCsv(int userId, OutputStream out, ItemCsvExporter.ProgressListener listener,
+                               CancellationSignal cancellationSignal) throws IOException {
+        return new ItemCsvExporter(dbHelper).export(userId, out, listener, cancellationSignal);
+    }
+
+    // / Upsert the items of a supplier file by name; see ItemImporter
+    public ItemImporter.Result importItems(int userId, String importId, InputStream in, ItemImporter.Format format,
+                                           CancellationSignal cancellationSignal) throws IOException {
+        try {
+            return new ItemImporter(dbHelper).importItems(userId, importId, in, format, cancellationSignal);
+        } finally {
+            itemCache.invalidateUser(userId); // Cheaper to reload than to apply row by row
+            skuCache.invalidateUser(userId);
+        }
+    }
+
+    // / Syncs the user's items with the other devices sharing their account (the scope is the
+    // / username). Returns null if the user does not exist.
+    public SyncEngine.Result syncItems(int userId, SyncTransport transport) throws IOException {
+        UserSession session = dbHelper.getUserSession(userId);
+        if (session == null) {
+            return null;
+        }
+        try {
+            return new SyncEngine(dbHelper, transport).sync(userId, session.getUsername());
+        } finally {
+            itemCache.invalidateUser(userId); // Pulled rows bypass the cache's write-through
+            skuCache.invalidateUser(userId);
+        }
+    }
+
+    // / Items below their reorder threshold; evaluated by SQLite against the partial index
+    public List<Item> getLowStockItems(int userId) {
+        return dbHelper.getLowStockItems(userId);
+    }
+
+    // / Change the quantity below which an item counts as low stock
+    public boolean setReorderThreshold(int itemId, int reorderThreshold, int userId) {
+        if (reorderThreshold < 0) {
+            return false;
+        }
+        boolean updated = dbHelper.updateReorderThreshold(itemId, reorderThreshold, userId);
+        if (updated) {
+            itemCache.onReorderThresholdChanged(userId, itemId, reorderThreshold);
+            skuCache.invalidateItem(itemId);
+        }
+        return updated;
+    }
+
+    // / Keyset Page of Items that come before beforeId
+    public List<Item> getItemsPageBefore(int userId, int beforeId, int limit) {
+        return dbHelper.getItemsPageBefore(userId, beforeId, limit);
     }
 
     // / Update SMS Preference in Database
@@ -48,27 +281,197 @@ public class DatabaseController {
     // / Fix: Update an Item (Ensure userId is checked)
     // / Update Item with quantity and SMS preference
     public boolean updateItem(int id, String name, int quantity, int userId) {
-        return dbHelper.updateItem(id, name, quantity, userId); // Update in database
+        // / Read back in the same transaction: the stored quantity is raised to what the item's
+        // / locations hold, so the caches and the alert use that, not the value asked for
+        Item item = dbHelper.updateItemAndRead(id, name, quantity, userId, System.currentTimeMillis());
+        if (item == null) {
+            return false;
+        }
+        itemCache.onUpdated(userId, item);
+        skuCache.invalidateItem(id);
+        // / Queued, not sent: the SMS goes out later in a per-user digest.
+        // / The row carries the item's own threshold, so no second query decides whether it is low.
+        if (alertQueue != null && item.isLowStock()) {
+            alertQueue.enqueue(userId, item.getName(), item.getQuantity());
+        }
+        return true;
+    }
+
+    // / Add delta (negative to remove) to an item's stock without reading it first, so
+    // / concurrent scans of the same item all count. The total never drops below the stock held
+    // / in the item's locations. Returns the item afterwards, or null.
+    public Item adjustQuantity(int itemId, int userId, int delta) {
+        Item item = dbHelper.adjustQuantity(itemId, userId, delta, System.currentTimeMillis());
+        if (item != null) {
+            onQuantityAdjusted(userId, item);
+        }
+        return item;
+    }
+
+    // / Apply itemId -> delta in one transaction; see ScanBatcher
+    public List<Item> adjustQuantities(Map<Integer, Integer> deltas, int userId) {
+        List<Item> items = dbHelper.adjustQuantities(deltas, userId, System.currentTimeMillis());
+        for (Item item : items) {
+            onQuantityAdjusted(userId, item);
+        }
+        return items;
+    }
+
+    // / Stock at one location (see DatabaseHelper.createItemLocations). These return the item with
+    // / its new total, or null if the user has no such item or the write was rejected.
+    public Item setLocationQuantity(int itemId, int userId, int locationId, int quantity) {
+        if (quantity < 0) {
+            return null;
+        }
+        return afterLocationWrite(userId, dbHelper.setLocationQuantity(itemId, userId, locationId, quantity));
+    }
+
+    public Item adjustLocationQuantity(int itemId, int userId, int locationId, int delta) {
+        return afterLocationWrite(userId, dbHelper.adjustLocationQuantity(itemId, userId, locationId, delta));
+    }
+
+    // / Null also if fromLocationId holds less than amount
+    public Item moveStock(int itemId, int userId, int fromLocationId, int toLocationId, int amount) {
+        if (amount <= 0 || fromLocationId == toLocationId) {
+            return null;
+        }
+        return afterLocationWrite(userId, dbHelper.moveStock(itemId, userId, fromLocationId, toLocationId, amount));
+    }
+
+    public Map<Integer, Integer> getLocationQuantities(int itemId, int userId) {
+        return dbHelper.getLocationQuantities(itemId, userId);
+    }
+
+    private Item afterLocationWrite(int userId, Item item) {
+        if (item != null) {
+            onQuantityAdjusted(userId, item);
+        }
+        return item;
+    }
+
+    private void onQuantityAdjusted(int userId, Item item) {
+        itemCache.onUpdated(userId, item);
+        skuCache.onUpdated(userId, item);
+        if (item.isLowStock() && alertQueue != null) {
+            alertQueue.enqueue(userId, item.getName(), item.getQuantity());
+        }
+    }
+
+    // / The item's quantity at a past time (milliseconds since the epoch), or -1 if it did not exist yet
+    public int getQuantityAt(int itemId, int userId, long time) {
+        return dbHelper.getQuantityAt(itemId, userId, time);
+    }
+
+    // / Compaction job for the stock ledger; returns how many movements were folded into snapshots
+    public int compactStockHistory() {
+        return dbHelper.compactStockMovements(System.currentTimeMillis() - STOCK_HISTORY_MILLIS, STOCK_SNAPSHOT_PERIOD_MILLIS);
+    }
+
+    // / Scanner lookup: the user's item with this SKU, or null. A SKU seen before is answered
+    // / from memory with no query at all; otherwise one seek on the (user_id, sku) index.
+    public Item findBySku(int userId, String sku) {
+        if (sku == null || sku.isEmpty()) {
+            return null;
+        }
+        Item cached = skuCache.get(userId, sku);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = skuCache.writeStamp();
+        Item item = dbHelper.findItemBySku(userId, sku);
+        if (item != null) {
+            skuCache.put(userId, item, stamp);
+        }
+        return item;
+    }
+
+    // / Gives an item a SKU, or removes it with null or blank. False if another of the user's
+    // / items already has this SKU.
+    public boolean setSku(int itemId, int userId, String sku) {
+        String normalized = sku == null || sku.trim().isEmpty() ? null : sku.trim();
+        boolean updated = dbHelper.setItemSku(itemId, userId, normalized);
+        if (updated) {
+            itemCache.onSkuChanged(userId, itemId, normalized);
+            skuCache.invalidateItem(itemId);
+        }
+        return updated;
     }
 
     // / Fix: Delete an Item (Ensure userId is checked)
     public boolean deleteItem(int itemId, int userId) {
-        return dbHelper.deleteItem(itemId, userId);
+        boolean deleted = dbHelper.deleteItem(itemId, userId);
+        if (deleted) {
+            itemCache.onDeleted(userId, itemId);
+            skuCache.invalidateItem(itemId);
+        }
+        return deleted;
     }
 
+    // / Committed item writes, from this app or any background job, merged per frame
+    public ItemChangeBus getItemChanges() {
+        return dbHelper.getItemChanges();
+    }
+
+    // / Served from the user's session; no users query once logged in
     public boolean getSmsPreference(int userId) {
         return dbHelper.getSmsPreference(userId);
     }
 
+    public UserSession getUserSession(int userId) {
+        return dbHelper.getUserSession(userId);
+    }
+
+    // / Forget the user's cached profile on logout
+    public void endSession(int userId) {
+        dbHelper.invalidateUserSession(userId);
+    }
+
     public boolean setSmsPreference(int userId, boolean isEnabled) {
         return dbHelper.updateSmsPreference(userId, isEnabled); // Correct method to update SMS preference
     }
 
+    // / Authenticate User and Return userId (-1 when the credentials are invalid, LOGIN_THROTTLED
+    // / after too many failures). Hashes the password, so call it off the main thread.
+    public int authenticateUser(String username, String password) {
+        if (loginThrottle.getRetryDelayMillis(username) > 0) {
+            return LOGIN_THROTTLED;
+        }
+        int userId = dbHelper.authenticateUser(username, password);
+        if (userId == -1) {
+            loginThrottle.onFailure(username);
+        } else {
+            loginThrottle.onSuccess(username);
+        }
+        return userId;
+    }
 
-
+    // / Register a New User with Phone Number
+    public boolean registerUser(String username, String password, String phoneNumber) {
+        return dbHelper.registerUser(username, password, phoneNumber);
+    }
 
     // / Fix: Clear the Database
     public void clearDatabase() {
         dbHelper.clearDatabase();
+        itemCache.clear();
+        skuCache.clear();
+    }
+
+    // / Item cache statistics: lookups answered from memory vs. ones that went to SQLite
+    public long getCacheHitCount() {
+        return itemCache.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return itemCache.getMissCount();
+    }
+
+    // / SKU lookups answered from memory vs. ones that went to the (user_id, sku) index
+    public long getSkuCacheHitCount() {
+        return skuCache.getHitCount();
+    }
+
+    public long getSkuCacheMissCount() {
+        return skuCache.getMissCount();
     }
 }
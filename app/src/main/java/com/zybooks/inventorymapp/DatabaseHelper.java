@@ -19,20 +19,227 @@ package com.zybooks.inventorymapp;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteConstraintException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
-import android.telephony.SmsManager;
+import android.database.sqlite.SQLiteStatement;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+// / The connection is kept open for the life of the process: methods never call db.close(),
+// / and the app shares a single instance through InventoryApplication.getDatabaseHelper()
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String DATABASE_NAME = "inventory.db";
-    private static final int DATABASE_VERSION = 3;
+    private static final int DATABASE_VERSION = 13;
+    // / Reorder threshold for items that were not given one (the old hard-coded low-stock rule)
+    static final int DEFAULT_REORDER_THRESHOLD = 3;
+    private static final String ITEM_COLUMNS = "id, name, quantity, reorder_threshold, updated_at, sku";
+    // / Rows per transaction for bulk inserts: large enough to amortize the commit, small enough
+    // / that the WAL file stays bounded and readers see progress during a long import
+    private static final int BULK_INSERT_CHUNK_SIZE = 5_000;
+    // / Hot writes, compiled once and reused through `statements` instead of rebuilding the SQL,
+    // / a ContentValues map and a String[] of arguments on every call
+    private static final String SQL_INSERT_ITEM = "INSERT INTO items (name, quantity, reorder_threshold, user_id, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String SQL_UPDATE_ITEM = "UPDATE items SET name = ?, quantity = MAX(?, " + DatabaseHelper.SQL_LOCATED + "), " +
+            "updated_at = ? WHERE id = ? AND user_id = ?";
+    private static final String SQL_DELETE_ITEM = "DELETE FROM items WHERE id = ? AND user_id = ?";
+    private static final String SQL_UPDATE_REORDER_THRESHOLD = "UPDATE items SET reorder_threshold = ? WHERE id = ? AND user_id = ?";
+    private static final String SQL_IS_LOW_STOCK = "SELECT count(*) FROM items WHERE id = ? AND user_id = ? AND quantity < reorder_threshold";
+    // / Relative, so concurrent adjustments of one item add up instead of overwriting each other.
+    // / Removing more than is unassigned stops at what the locations hold.
+    private static final String SQL_ADJUST_QUANTITY = "UPDATE items SET quantity = MAX(quantity + ?, " + DatabaseHelper.SQL_LOCATED + "), " +
+            "updated_at = ? WHERE id = ? AND user_id = ?";
+    private static final String SQL_SELECT_ITEM = "SELECT " + ITEM_COLUMNS + " FROM items WHERE id = ? AND user_id = ?";
+    // / What an item's locations hold. Every write of a total is raised to at least this, so the
+    // / unassigned stock (total minus locations) never goes negative. The hot writes above name it
+    // / qualified, which Java allows before the declaration; it is a constant, inlined when compiled.
+    private static final String SQL_LOCATED = "(SELECT ifnull(sum(quantity), 0) FROM item_locations WHERE item_id = items.id)";
+    // / Point-in-time reads: the newest movement at or before T, else the newest snapshot
+    private static final String SQL_QUANTITY_AT_MOVEMENT = "SELECT quantity FROM stock_movements WHERE item_id = ? AND user_id = ? AND created_at <= ? ORDER BY created_at DESC, id DESC LIMIT 1";
+    private static final String SQL_QUANTITY_AT_SNAPSHOT = "SELECT quantity FROM stock_snapshots WHERE item_id = ? AND user_id = ? AND taken_at <= ? ORDER BY taken_at DESC LIMIT 1";
+    // / Import upsert by name: the user's oldest item with exactly this name (0 if none), found on
+    // / idx_items_user_name. A negative threshold leaves the stored one alone.
+    private static final String SQL_FIND_ITEM_BY_NAME = "SELECT ifnull(min(id), 0) FROM items WHERE user_id = ? AND name = ?";
+    private static final String SQL_UPSERT_UPDATE = "UPDATE items SET quantity = MAX(?, " + SQL_LOCATED + "), " +
+            "reorder_threshold = CASE WHEN ? < 0 THEN reorder_threshold ELSE ? END, updated_at = ? WHERE id = ?";
+    // / Scanner lookup: the user's item with this SKU, one seek on idx_items_user_sku
+    private static final String SQL_FIND_ITEM_BY_SKU = "SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = ? AND sku = ?";
+    private static final String SQL_SET_SKU = "UPDATE items SET sku = ? WHERE id = ? AND user_id = ?";
+    // / Sync feed: a user's rows and tombstones changed after a local sequence number, oldest first
+    private static final String SQL_LOCAL_CHANGES = "SELECT sync_id, name, quantity, reorder_threshold, version, updated_at, origin, 0, sync_seq " +
+            "FROM items WHERE user_id = ? AND sync_seq > ? " +
+            "UNION ALL SELECT sync_id, NULL, 0, 0, version, updated_at, origin, 1, sync_seq " +
+            "FROM sync_tombstones WHERE user_id = ? AND sync_seq > ? ORDER BY sync_seq LIMIT ?";
+    // / Remote rows are written with sync_seq = 0: they came from the server, so there is nothing to push back.
+    // / Locations are local, so a remote total below what they hold here is raised to it.
+    private static final String SQL_SYNC_INSERT_ITEM = "INSERT INTO items (name, quantity, reorder_threshold, user_id, updated_at, " +
+            "sync_id, version, origin, sync_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String SQL_SYNC_UPDATE_ITEM = "UPDATE items SET name = ?, quantity = MAX(?, " + SQL_LOCATED + "), " +
+            "reorder_threshold = ?, updated_at = ?, version = ?, origin = ?, sync_seq = 0 WHERE id = ?";
+    private static final String SQL_SYNC_TOMBSTONE = "INSERT OR REPLACE INTO sync_tombstones " +
+            "(sync_id, user_id, version, updated_at, origin, sync_seq) VALUES (?, ?, ?, ?, ?, 0)";
+    // / Outbox entry for an item write, taken from the row as the write left it. The key is
+    // / sync_id:version:origin, the version the sync triggers just gave the row and the device
+    // / that made it: two devices writing the same item from the same version get different keys.
+    // / A write that changed nothing keeps the last version and origin, so it repeats the previous
+    // / entry's key: ignored here while that entry is waiting, and a duplicate for the sink after.
+    private static final String SQL_OUTBOX_WRITE = "INSERT OR IGNORE INTO outbox (idempotency_key, user_id, operation, " +
+            "item_id, sync_id, name, quantity, reorder_threshold, version, created_at) " +
+            "SELECT sync_id || ':' || version || ':' || origin, user_id, ?, id, sync_id, name, quantity, reorder_threshold, version, ? " +
+            "FROM items WHERE id = ?";
+    // / Taken before the delete, with the version and origin the delete's tombstone gets
+    private static final String SQL_OUTBOX_DELETE = "INSERT OR IGNORE INTO outbox (idempotency_key, user_id, operation, " +
+            "item_id, sync_id, name, quantity, reorder_threshold, version, created_at) " +
+            "SELECT sync_id || ':' || (version + 1) || ':' || (SELECT device_id FROM sync_state), user_id, 'DELETE', id, sync_id, " +
+            "NULL, 0, reorder_threshold, version + 1, ? FROM items WHERE id = ? AND user_id = ?";
+    private static final String SQL_ITEM_EXISTS = "SELECT count(*) FROM items WHERE id = ? AND user_id = ?";
+    private static final String SQL_LOCATION_QUANTITY = "SELECT ifnull(max(quantity), 0) FROM item_locations WHERE item_id = ? AND location_id = ?";
+    private static final String SQL_SET_LOCATION_QUANTITY = "UPDATE item_locations SET quantity = ? WHERE item_id = ? AND location_id = ?";
+    private static final String SQL_ADJUST_LOCATION_QUANTITY = "UPDATE item_locations SET quantity = MAX(quantity + ?, 0) WHERE item_id = ? AND location_id = ?";
+    private static final String SQL_INSERT_LOCATION = "INSERT INTO item_locations (item_id, location_id, quantity) VALUES (?, ?, ?)";
+    // / A location that runs empty is dropped, so an item only has rows where it is stocked
+    private static final String SQL_DELETE_EMPTY_LOCATION = "DELETE FROM item_locations WHERE item_id = ? AND location_id = ? AND quantity = 0";
+    private static final String SQL_UPDATE_SMS_PREFERENCE = "UPDATE users SET sms_enabled = ? WHERE user_id = ?";
+    // / Queries that return rows go through rawQuery with constant SQL, which the framework keeps
+    // / compiled in each connection's statement cache; sized to hold all of them
+    private static final int SQL_CACHE_SIZE = 64;
+    private final StatementCache statements = new StatementCache(this);
+    private final ItemChangeBus itemChanges = new ItemChangeBus();
+    // / Set once an OutboxFlusher drains this database. Until then single-item writes skip the
+    // / outbox: with no sink registered, nothing would ever remove the entries.
+    private volatile boolean outboxEnabled;
+    // / Item changes made inside beginItemTransaction(), held back until that transaction commits
+    private final ThreadLocal<PendingItemChanges> uncommittedChanges = new ThreadLocal<>();
     private Context context;
+    private final boolean writeAheadLogging;
+    private PasswordHasher passwordHasher; // Created on first use; calibration can take a moment
+    // / Profiles of logged-in users, loaded at login so item edits and alerts never query users
+    private final Map<Integer, UserSession> sessions = new HashMap<>();
+    // / Bumped whenever a session is dropped, so a login that read the row earlier cannot store a stale copy
+    private long sessionsVersion;
+    private final AtomicLong usersQueries = new AtomicLong();
 
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+
+    // / Package-private so benchmarks can run against a scratch database file
+    DatabaseHelper(Context context, String databaseName) {
+        this(context, databaseName, true);
+    }
+
+    // / Package-private so benchmarks can compare WAL against the rollback journal
+    DatabaseHelper(Context context, String databaseName, boolean writeAheadLogging) {
+        super(context, databaseName, null, DATABASE_VERSION);
         this.context = context;
+        this.writeAheadLogging = writeAheadLogging;
+    }
+
+    // / Runs on every open, before onCreate/onUpgrade
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        db.setMaxSqlCacheSize(SQL_CACHE_SIZE);
+        if (writeAheadLogging) {
+            // / WAL lets readers keep going while a write is in progress, and makes the framework
+            // / hand out a pool of read connections instead of serializing everything on one
+            db.enableWriteAheadLogging();
+            // / In WAL mode NORMAL is still crash-safe; only the last commits can be lost on power loss
+            db.execSQL("PRAGMA synchronous = NORMAL");
+        }
+    }
+
+    // / Collects one thread's item changes while its transaction is open. Only the outermost
+    // / transaction carries the listener, so `committed` means the changes are really stored.
+    private static final class PendingItemChanges implements SQLiteTransactionListener {
+        final List<ItemChange> changes = new ArrayList<>();
+        int depth;
+        boolean committed;
+
+        @Override
+        public void onBegin() {}
+
+        @Override
+        public void onCommit() {
+            committed = true;
+        }
+
+        @Override
+        public void onRollback() {
+            committed = false;
+        }
+    }
+
+    // / Where observers hear about committed item writes (see ItemChangeBus)
+    public ItemChangeBus getItemChanges() {
+        return itemChanges;
+    }
+
+    // / Turned on by OutboxFlusher.start() and left on, so writes made after a sink was
+    // / registered wait in the outbox for the next flusher
+    void setOutboxEnabled(boolean enabled) {
+        outboxEnabled = enabled;
+    }
+
+    // / Starts a write transaction whose item changes are only published if it commits; a nested
+    // / call joins the open one. Must be paired with endItemTransaction(db) in a finally block.
+    // / Transactions opened directly on the database are not tracked: writes inside them are
+    // / published as soon as they are made.
+    void beginItemTransaction(SQLiteDatabase db) {
+        PendingItemChanges pending = uncommittedChanges.get();
+        if (pending == null) {
+            pending = new PendingItemChanges();
+            uncommittedChanges.set(pending);
+            db.beginTransactionWithListenerNonExclusive(pending);
+        } else {
+            db.beginTransactionNonExclusive();
+        }
+        pending.depth++;
+    }
+
+    void endItemTransaction(SQLiteDatabase db) {
+        PendingItemChanges pending = uncommittedChanges.get();
+        boolean ended = false;
+        try {
+            db.endTransaction();
+            ended = true;
+        } finally {
+            if (--pending.depth == 0) {
+                uncommittedChanges.remove();
+                // / onCommit runs just before the COMMIT itself, which can still fail
+                if (ended && pending.committed) {
+                    itemChanges.postAll(pending.changes);
+                }
+            }
+        }
+    }
+
+    // / Publishes a write now, or when the enclosing item transaction commits
+    private void itemChanged(ItemChange.Kind kind, long itemId, int userId) {
+        ItemChange change = new ItemChange(kind, (int) itemId, userId);
+        PendingItemChanges pending = uncommittedChanges.get();
+        if (pending != null) {
+            pending.changes.add(change);
+        } else {
+            itemChanges.post(change);
+        }
+    }
+
+    // / Compiled statements hold references into the connection, so they go first
+    @Override
+    public synchronized void close() {
+        statements.close();
+        super.close();
     }
 
     @Override
@@ -49,76 +256,452 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "name TEXT, " +
                 "quantity INTEGER, " +
                 "user_id INTEGER, " +
+                "reorder_threshold INTEGER NOT NULL DEFAULT " + DEFAULT_REORDER_THRESHOLD + ", " +
+                "updated_at INTEGER NOT NULL DEFAULT 0, " +
+                "sync_id TEXT, " +
+                "version INTEGER NOT NULL DEFAULT 1, " +
+                "origin TEXT, " +
+                "sync_seq INTEGER NOT NULL DEFAULT 0, " +
+                "sku TEXT, " +
                 "FOREIGN KEY(user_id) REFERENCES users(user_id))";
 
         db.execSQL(CREATE_USERS_TABLE);
         db.execSQL(CREATE_ITEMS_TABLE);
+        createItemIndexes(db);
+        createSkuIndex(db);
+        createLowStockIndex(db);
+        createSearchIndex(db);
+        createSortIndexes(db);
+        createStockLedger(db);
+        createImportCheckpoints(db);
+        createSyncTables(db);
+        createOutbox(db);
+        createItemLocations(db);
+    }
+
+    // / Every item query filters by user_id. The (user_id) index keeps each user's rows in id order,
+    // / and (user_id, name) serves lookups and sorting by name within a user.
+    private static void createItemIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_user ON items(user_id)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_user_name ON items(user_id, name)");
+    }
+
+    // / A SKU (barcode) names at most one item per user, and a scan finds it with one index seek.
+    // / Items without a SKU are NULL, which a unique index does not compare.
+    private static void createSkuIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_items_user_sku ON items(user_id, sku)");
+    }
+
+    // / Partial index holding only the rows that are below their threshold, so getLowStockItems
+    // / reads just those rows. SQLite keeps it current as quantities change.
+    private static void createLowStockIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_low_stock ON items(user_id) WHERE quantity < reorder_threshold");
+    }
+
+    // / One index per list order (see ItemSort), each ending in the implicit rowid so that
+    // / ORDER BY column, id and the keyset condition are both answered by the index
+    private static void createSortIndexes(SQLiteDatabase db) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_user_name_nocase ON items(user_id, name COLLATE NOCASE)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_user_quantity ON items(user_id, quantity)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_user_updated ON items(user_id, updated_at)");
+    }
+
+    // / Full-text index over item names. It is an external-content FTS4 table, so it stores only
+    // / the index and reads names from items. Triggers keep it in step with every insert, update
+    // / and delete. user_id is indexed too, so a search is narrowed to one user inside the index.
+    private static void createSearchIndex(SQLiteDatabase db) {
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS items_fts USING fts4(content=\"items\", name, user_id)");
+        // / Removal from an external-content index must run BEFORE the row changes, while the old values are still readable
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_fts_before_delete BEFORE DELETE ON items BEGIN " +
+                "DELETE FROM items_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_fts_before_update BEFORE UPDATE OF name, user_id ON items BEGIN " +
+                "DELETE FROM items_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_fts_after_update AFTER UPDATE OF name, user_id ON items BEGIN " +
+                "INSERT INTO items_fts (docid, name, user_id) VALUES (new.id, new.name, new.user_id); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_fts_after_insert AFTER INSERT ON items BEGIN " +
+                "INSERT INTO items_fts (docid, name, user_id) VALUES (new.id, new.name, new.user_id); END");
     }
 
+    // / Append-only ledger of quantity changes. Triggers on items write a movement (the change and
+    // / the resulting quantity) for every insert, quantity update and delete, inside the same
+    // / statement, so no code path can change stock without leaving a record. Old movements are
+    // / folded into stock_snapshots by compactStockMovements to keep the table bounded.
+    private static void createStockLedger(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS stock_movements (" +
+                "id INTEGER PRIMARY KEY, " +
+                "item_id INTEGER NOT NULL, " +
+                "user_id INTEGER NOT NULL, " +
+                "delta INTEGER NOT NULL, " +
+                "quantity INTEGER NOT NULL, " +
+                "created_at INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_stock_movements_item ON stock_movements(item_id, created_at)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_stock_movements_created ON stock_movements(created_at)");
+        // / The last quantity of each item in each compacted period
+        db.execSQL("CREATE TABLE IF NOT EXISTS stock_snapshots (" +
+                "item_id INTEGER NOT NULL, " +
+                "user_id INTEGER NOT NULL, " +
+                "taken_at INTEGER NOT NULL, " +
+                "quantity INTEGER NOT NULL, " +
+                "PRIMARY KEY (item_id, taken_at)) WITHOUT ROWID");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stock_movements_after_insert AFTER INSERT ON items BEGIN " +
+                "INSERT INTO stock_movements (item_id, user_id, delta, quantity, created_at) " +
+                "VALUES (new.id, new.user_id, new.quantity, new.quantity, new.updated_at); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stock_movements_after_update AFTER UPDATE OF quantity ON items " +
+                "WHEN new.quantity IS NOT old.quantity BEGIN " +
+                "INSERT INTO stock_movements (item_id, user_id, delta, quantity, created_at) " +
+                "VALUES (new.id, new.user_id, new.quantity - old.quantity, new.quantity, new.updated_at); END");
+        // / Deletes do not stamp updated_at, so the time comes from SQLite (milliseconds since the epoch)
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS stock_movements_after_delete AFTER DELETE ON items BEGIN " +
+                "INSERT INTO stock_movements (item_id, user_id, delta, quantity, created_at) " +
+                "VALUES (old.id, old.user_id, -old.quantity, 0, CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)); END");
+    }
+
+    // / Progress of imports that have not finished, saved in the same transaction as each chunk
+    // / so an import killed halfway can pick up after the last committed chunk
+    private static void createImportCheckpoints(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS import_checkpoints (" +
+                "import_id TEXT NOT NULL, " +
+                "user_id INTEGER NOT NULL, " +
+                "rows_read INTEGER NOT NULL, " +
+                "inserted INTEGER NOT NULL, " +
+                "updated INTEGER NOT NULL, " +
+                "rejected INTEGER NOT NULL, " +
+                "PRIMARY KEY (import_id, user_id))");
+    }
+
+    // / Bookkeeping for SyncEngine. Each item carries a device-independent sync_id, a version that
+    // / every change raises, the device that made that version (origin) and sync_seq, its position
+    // / in this device's change feed (0 once there is nothing to push). Deleted items leave a
+    // / tombstone. Triggers maintain all of it, so every code path that writes items is tracked;
+    // / while remote changes are applied, sync_state.applying is set and the triggers stand down.
+    private static void createSyncTables(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS sync_state (" +
+                "id INTEGER PRIMARY KEY CHECK (id = 1), " +
+                "device_id TEXT NOT NULL, " +
+                "clock INTEGER NOT NULL, " +
+                "applying INTEGER NOT NULL)");
+        db.execSQL("INSERT OR IGNORE INTO sync_state (id, device_id, clock, applying) VALUES (1, lower(hex(randomblob(16))), 0, 0)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS sync_tombstones (" +
+                "sync_id TEXT PRIMARY KEY, " +
+                "user_id INTEGER NOT NULL, " +
+                "version INTEGER NOT NULL, " +
+                "updated_at INTEGER NOT NULL, " +
+                "origin TEXT NOT NULL, " +
+                "sync_seq INTEGER NOT NULL)");
+        // / How far each user's feed has been pushed, and the server's feed pulled, per scope
+        db.execSQL("CREATE TABLE IF NOT EXISTS sync_checkpoints (" +
+                "user_id INTEGER NOT NULL, " +
+                "scope TEXT NOT NULL, " +
+                "direction TEXT NOT NULL, " +
+                "seq INTEGER NOT NULL, " +
+                "PRIMARY KEY (user_id, scope, direction))");
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_items_sync_id ON items(sync_id)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_user_sync_seq ON items(user_id, sync_seq)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_sync_tombstones_user_seq ON sync_tombstones(user_id, sync_seq)");
+        String local = "(SELECT applying FROM sync_state) = 0";
+        String tick = "UPDATE sync_state SET clock = clock + 1; ";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_sync_after_insert AFTER INSERT ON items WHEN " + local + " BEGIN " + tick +
+                "UPDATE items SET sync_id = coalesce(new.sync_id, lower(hex(randomblob(16)))), " +
+                "origin = (SELECT device_id FROM sync_state), sync_seq = (SELECT clock FROM sync_state) WHERE id = new.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_sync_after_update AFTER UPDATE OF name, quantity, reorder_threshold ON items " +
+                "WHEN " + local + " AND (new.name IS NOT old.name OR new.quantity IS NOT old.quantity " +
+                "OR new.reorder_threshold IS NOT old.reorder_threshold) BEGIN " + tick +
+                "UPDATE items SET version = old.version + 1, origin = (SELECT device_id FROM sync_state), " +
+                "sync_seq = (SELECT clock FROM sync_state) WHERE id = new.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_sync_after_delete AFTER DELETE ON items WHEN " + local + " BEGIN " + tick +
+                "INSERT OR REPLACE INTO sync_tombstones (sync_id, user_id, version, updated_at, origin, sync_seq) " +
+                "VALUES (old.sync_id, old.user_id, old.version + 1, CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER), " +
+                "(SELECT device_id FROM sync_state), (SELECT clock FROM sync_state)); END");
+    }
+
+    // / Item writes waiting for OutboxFlusher, in commit order. Each is inserted in the same
+    // / transaction as the write itself and deleted once a sink has accepted it. Every
+    // / single-item write adds one: insert, update, delete, adjustQuantity (and so scanner
+    // / batches), threshold and location changes. Imports and sync are left out: imports are
+    // / bulk loads from the supplier, and sync already has its own copy of the change.
+    private static void createOutbox(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS outbox (" +
+                "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "idempotency_key TEXT NOT NULL UNIQUE, " +
+                "user_id INTEGER NOT NULL, " +
+                "operation TEXT NOT NULL, " +
+                "item_id INTEGER NOT NULL, " +
+                "sync_id TEXT NOT NULL, " +
+                "name TEXT, " +
+                "quantity INTEGER NOT NULL, " +
+                "reorder_threshold INTEGER NOT NULL, " +
+                "version INTEGER NOT NULL, " +
+                "created_at INTEGER NOT NULL)");
+    }
+
+    // / Stock per storeroom. items.quantity stays the item's total: triggers add every change of a
+    // / location's quantity to it in the same statement, so reads never SUM the locations. Stock
+    // / not in any location is the difference; edits of the total (updateItem, adjustQuantity,
+    // / imports, sync) change that unassigned part and are raised to SQL_LOCATED, so it never
+    // / goes below zero. The totals go through the ordinary items triggers, so the
+    // / stock ledger and sync see location changes like any other quantity change.
+    private static void createItemLocations(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS item_locations (" +
+                "item_id INTEGER NOT NULL, " +
+                "location_id INTEGER NOT NULL, " +
+                "quantity INTEGER NOT NULL CHECK (quantity >= 0), " +
+                "PRIMARY KEY (item_id, location_id)) WITHOUT ROWID");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_item_locations_location ON item_locations(location_id)");
+        String now = "CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)";
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_locations_after_insert AFTER INSERT ON item_locations " +
+                "WHEN new.quantity <> 0 BEGIN " +
+                "UPDATE items SET quantity = quantity + new.quantity, updated_at = " + now + " WHERE id = new.item_id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_locations_after_update AFTER UPDATE OF quantity ON item_locations " +
+                "WHEN new.quantity <> old.quantity BEGIN " +
+                "UPDATE items SET quantity = quantity + new.quantity - old.quantity, updated_at = " + now + " WHERE id = new.item_id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS item_locations_after_delete AFTER DELETE ON item_locations " +
+                "WHEN old.quantity <> 0 BEGIN " +
+                "UPDATE items SET quantity = quantity - old.quantity, updated_at = " + now + " WHERE id = old.item_id; END");
+        // / Runs after the item row is gone, so the delete trigger above finds nothing to update
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS items_locations_after_delete AFTER DELETE ON items BEGIN " +
+                "DELETE FROM item_locations WHERE item_id = old.id; END");
+    }
+
+    // / Upgrades step by step from the installed version so existing users and items are kept
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS users");
-        db.execSQL("DROP TABLE IF EXISTS items");
-        onCreate(db);
+        if (oldVersion < 3) {
+            // / Schemas older than version 3 had no per-user items and cannot be migrated
+            db.execSQL("DROP TABLE IF EXISTS users");
+            db.execSQL("DROP TABLE IF EXISTS items");
+            onCreate(db);
+            return;
+        }
+        if (oldVersion < 4) {
+            createItemIndexes(db);
+        }
+        if (oldVersion < 5) {
+            // / Existing items get the default, which matches the old quantity < 3 rule
+            db.execSQL("ALTER TABLE items ADD COLUMN reorder_threshold INTEGER NOT NULL DEFAULT " + DEFAULT_REORDER_THRESHOLD);
+            createLowStockIndex(db);
+        }
+        if (oldVersion < 6) {
+            createSearchIndex(db);
+            db.execSQL("INSERT INTO items_fts (items_fts) VALUES ('rebuild')"); // Index the existing items
+        }
+        if (oldVersion < 7) {
+            // / Existing items have no known update time; 0 sorts them after anything edited since
+            db.execSQL("ALTER TABLE items ADD COLUMN updated_at INTEGER NOT NULL DEFAULT 0");
+            createSortIndexes(db);
+        }
+        if (oldVersion < 8) {
+            createStockLedger(db);
+            // / Opening balance for every existing item, as of its last update
+            db.execSQL("INSERT INTO stock_movements (item_id, user_id, delta, quantity, created_at) " +
+                    "SELECT id, user_id, quantity, quantity, updated_at FROM items");
+        }
+        if (oldVersion < 9) {
+            createImportCheckpoints(db);
+        }
+        if (oldVersion < 10) {
+            db.execSQL("ALTER TABLE items ADD COLUMN sync_id TEXT");
+            db.execSQL("ALTER TABLE items ADD COLUMN version INTEGER NOT NULL DEFAULT 1");
+            db.execSQL("ALTER TABLE items ADD COLUMN origin TEXT");
+            db.execSQL("ALTER TABLE items ADD COLUMN sync_seq INTEGER NOT NULL DEFAULT 0");
+            // / Ids are filled in before createSyncTables adds the unique index on them; every
+            // / existing item is a local change, in id order, to be pushed on the first sync
+            db.execSQL("UPDATE items SET sync_id = lower(hex(randomblob(16))), sync_seq = id");
+            createSyncTables(db);
+            db.execSQL("UPDATE items SET origin = (SELECT device_id FROM sync_state)");
+            db.execSQL("UPDATE sync_state SET clock = (SELECT ifnull(max(id), 0) FROM items)");
+        }
+        if (oldVersion < 11) {
+            createOutbox(db);
+        }
+        if (oldVersion < 12) {
+            db.execSQL("ALTER TABLE items ADD COLUMN sku TEXT");
+            createSkuIndex(db);
+        }
+        if (oldVersion < 13) {
+            // / Existing stock is not in any location yet, so every total is left as it is
+            createItemLocations(db);
+        }
     }
 
     // / Fix: Get User Phone Number
     public String getUserPhoneNumber(int userId) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        String phoneNumber = null;
+        UserSession session = getUserSession(userId);
+        return session == null ? null : session.getPhoneNumber();
+    }
 
-        Cursor cursor = db.rawQuery("SELECT phone_number FROM users WHERE user_id = ?",
-                new String[]{String.valueOf(userId)});
+    // / The user's profile from memory, loading it from users on first use (null if no such user)
+    public UserSession getUserSession(int userId) {
+        synchronized (sessions) {
+            UserSession session = sessions.get(userId);
+            if (session == null) {
+                // / Loaded under the lock so an invalidation cannot slip in between the read and the put
+                session = loadUserSession(userId);
+                if (session != null) {
+                    sessions.put(userId, session);
+                }
+            }
+            return session;
+        }
+    }
 
+    private UserSession loadUserSession(int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        usersQueries.incrementAndGet();
+        Cursor cursor = db.rawQuery("SELECT username, sms_enabled, phone_number FROM users WHERE user_id = ?",
+                new String[]{String.valueOf(userId)});
+        UserSession session = null;
         if (cursor.moveToFirst()) {
-            phoneNumber = cursor.getString(0);
+            session = new UserSession(userId, cursor.getString(0), cursor.getInt(1) == 1, cursor.getString(2));
         }
         cursor.close();
-        db.close();
+        return session;
+    }
+
+    // / Drops a cached profile, e.g. after it changed or on logout
+    public void invalidateUserSession(int userId) {
+        synchronized (sessions) {
+            sessions.remove(userId);
+            sessionsVersion++;
+        }
+    }
+
+    private void clearUserSessions() {
+        synchronized (sessions) {
+            sessions.clear();
+            sessionsVersion++;
+        }
+    }
 
-        return phoneNumber;
+    // / Number of queries against users so far; lets tests check that item work never reads it
+    public long getUsersQueryCount() {
+        return usersQueries.get();
+    }
+
+    // / Number of statements compiled for the cached writes; flat once they are warm
+    long getCompiledStatementCount() {
+        return statements.getCompiledCount();
     }
 
     // / Fix: Clear Users Table for Testing
     public void clearUsersTable() {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete("users", null, null);
-        db.close();
+        clearUserSessions();
     }
 
     // / Fix: Delete an Item for a Specific User
+    // / The outbox entry goes first, while the row can still be read; both commit or neither
     public boolean deleteItem(int itemId, int userId) {
         SQLiteDatabase db = this.getWritableDatabase();
-        int rowsDeleted = db.delete("items", "id = ? AND user_id = ?",
-                new String[]{String.valueOf(itemId), String.valueOf(userId)});
-        db.close();
-        return rowsDeleted > 0;
+        beginItemTransaction(db);
+        try {
+            if (outboxEnabled) {
+                SQLiteStatement outbox = statements.acquire(SQL_OUTBOX_DELETE);
+                try {
+                    outbox.bindLong(1, System.currentTimeMillis());
+                    outbox.bindLong(2, itemId);
+                    outbox.bindLong(3, userId);
+                    outbox.executeInsert();
+                } finally {
+                    statements.release(SQL_OUTBOX_DELETE, outbox);
+                }
+            }
+            SQLiteStatement delete = statements.acquire(SQL_DELETE_ITEM);
+            try {
+                delete.bindLong(1, itemId);
+                delete.bindLong(2, userId);
+                if (delete.executeUpdateDelete() == 0) {
+                    return false;
+                }
+            } finally {
+                statements.release(SQL_DELETE_ITEM, delete);
+            }
+            itemChanged(ItemChange.Kind.DELETED, itemId, userId);
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            endItemTransaction(db);
+        }
     }
 
     // / Fix: Clear All Items for a Specific User
     public void clearItemsForUser(int userId) {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete("items", "user_id=?", new String[]{String.valueOf(userId)});
-        db.close();
+        itemChanged(ItemChange.Kind.RELOAD, ItemChange.NO_ITEM, userId);
     }
 
     // / Fix: Update an Item for a Specific User
     public boolean updateItem(int itemId, String name, int quantity, int userId) {
+        return updateItem(itemId, name, quantity, userId, System.currentTimeMillis());
+    }
+
+    // / Same, with the time to record as the item's last update
+    public boolean updateItem(int itemId, String name, int quantity, int userId, long updatedAt) {
         SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put("name", name);
-        values.put("quantity", quantity);
+        beginItemTransaction(db);
+        try {
+            if (!updateItemInTransaction(itemId, name, quantity, userId, updatedAt)) {
+                return false;
+            }
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
 
-        int rowsUpdated = db.update("items", values, "id = ? AND user_id = ?",
-                new String[]{String.valueOf(itemId), String.valueOf(userId)});
+    // / Same, returning the item as stored, or null if the user has no such item. The stored
+    // / quantity can be above the one given: a total never drops below its locations' stock.
+    public Item updateItemAndRead(int itemId, String name, int quantity, int userId, long updatedAt) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        beginItemTransaction(db);
+        try {
+            if (!updateItemInTransaction(itemId, name, quantity, userId, updatedAt)) {
+                return null;
+            }
+            Item item = readItemInTransaction(db, itemId, userId);
+            db.setTransactionSuccessful();
+            return item;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
 
-        // / Check if SMS should be sent
-        if (quantity < 3) {
-            sendLowStockAlert(userId, name, quantity);
+    private boolean updateItemInTransaction(int itemId, String name, int quantity, int userId, long updatedAt) {
+        SQLiteStatement update = statements.acquire(SQL_UPDATE_ITEM);
+        try {
+            bindStringOrNull(update, 1, name);
+            update.bindLong(2, quantity);
+            update.bindLong(3, updatedAt);
+            update.bindLong(4, itemId);
+            update.bindLong(5, userId);
+            // / Low-stock alerts are queued by DatabaseController, off the caller's thread
+            if (update.executeUpdateDelete() == 0) {
+                return false;
+            }
+        } finally {
+            statements.release(SQL_UPDATE_ITEM, update);
         }
-        db.close();
+        addToOutbox(OutboxEntry.Operation.UPDATE, itemId, updatedAt);
+        itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+        return true;
+    }
 
-        return rowsUpdated > 0;
+    // / Call inside the write's transaction
+    private void addToOutbox(OutboxEntry.Operation operation, long itemId, long createdAt) {
+        if (!outboxEnabled) {
+            return;
+        }
+        SQLiteStatement outbox = statements.acquire(SQL_OUTBOX_WRITE);
+        try {
+            outbox.bindString(1, operation.name());
+            outbox.bindLong(2, createdAt);
+            outbox.bindLong(3, itemId);
+            outbox.executeInsert();
+        } finally {
+            statements.release(SQL_OUTBOX_WRITE, outbox);
+        }
     }
 
     // / Fix: Register a New User
@@ -126,10 +709,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
 
         // / Check if the username already exists
+        usersQueries.incrementAndGet();
         Cursor cursor = db.rawQuery("SELECT user_id FROM users WHERE username = ?", new String[]{username});
         if (cursor.getCount() > 0) {
             cursor.close();
-            db.close();
             return false; // ❌ Username already exists
         }
         cursor.close();
@@ -137,45 +720,152 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         // / Proceed with inserting the new user
         ContentValues values = new ContentValues();
         values.put("username", username);
-        values.put("password", password);
+        values.put("password", getPasswordHasher().hash(password));
         values.put("sms_enabled", 0);
         values.put("phone_number", "");
 
         long result = db.insert("users", null, values);
-        db.close();
 
         return result != -1; // / Returns true if insert was successful
     }
 
     // / Fix: Authenticate User and Return userId
+    // / The stored hash is fetched by username and checked in Java. Rows still holding a plaintext
+    // / password, or a hash made at an older cost, are rehashed on a successful login.
+    // / The same query loads the user's session, so logging in costs one users lookup.
     public int authenticateUser(String username, String password) {
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT user_id FROM users WHERE username = ? AND password = ?",
-                new String[]{username, password});
+        long versionAtLoad;
+        synchronized (sessions) {
+            versionAtLoad = sessionsVersion;
+        }
+        usersQueries.incrementAndGet();
+        Cursor cursor = db.rawQuery("SELECT user_id, password, sms_enabled, phone_number FROM users WHERE username = ?",
+                new String[]{username});
 
         int userId = -1; // Default to -1 (invalid login)
+        String stored = null;
+        UserSession session = null;
         if (cursor.moveToFirst()) {
             userId = cursor.getInt(0);
+            stored = cursor.getString(1);
+            session = new UserSession(userId, username, cursor.getInt(2) == 1, cursor.getString(3));
         }
         cursor.close();
-        db.close();
+
+        PasswordHasher hasher = getPasswordHasher();
+        if (!hasher.verify(password, stored)) {
+            return -1;
+        }
+        if (hasher.needsRehash(stored)) {
+            ContentValues values = new ContentValues();
+            values.put("password", hasher.hash(password));
+            // / Only replace the value that was verified, in case it changed in the meantime
+            this.getWritableDatabase().update("users", values, "user_id = ? AND password = ?",
+                    new String[]{String.valueOf(userId), stored});
+        }
+        synchronized (sessions) {
+            if (sessionsVersion == versionAtLoad) {
+                sessions.put(userId, session);
+            }
+        }
         return userId;
     }
 
+    synchronized PasswordHasher getPasswordHasher() {
+        if (passwordHasher == null) {
+            passwordHasher = PasswordHasher.forDevice(context);
+        }
+        return passwordHasher;
+    }
+
+    // / Package-private so tests and benchmarks can pin the cost instead of calibrating
+    synchronized void setPasswordHasher(PasswordHasher passwordHasher) {
+        this.passwordHasher = passwordHasher;
+    }
+
     // / Fix: Insert Item for a Specific User
     public boolean insertItem(String name, int quantity, int userId) {
-        SQLiteDatabase db = this.getWritableDatabase();
-        ContentValues values = new ContentValues();
-        values.put("name", name);
-        values.put("quantity", quantity);
-        values.put("user_id", userId);
+        return insertItemAndGetId(name, quantity, userId) != -1;
+    }
 
-        long result = db.insert("items", null, values);
-        db.close();
+    // / Insert Item and return its new id, or -1 if the insert failed
+    public long insertItemAndGetId(String name, int quantity, int userId) {
+        return insertItemAndGetId(name, quantity, DEFAULT_REORDER_THRESHOLD, userId);
+    }
 
+    public long insertItemAndGetId(String name, int quantity, int reorderThreshold, int userId) {
+        return insertItemAndGetId(name, quantity, reorderThreshold, userId, System.currentTimeMillis());
+    }
 
+    // / The item and its outbox entry commit together
+    public long insertItemAndGetId(String name, int quantity, int reorderThreshold, int userId, long updatedAt) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        beginItemTransaction(db);
+        try {
+            long id = insertItemRow(name, quantity, reorderThreshold, userId, updatedAt);
+            if (id != -1) {
+                addToOutbox(OutboxEntry.Operation.INSERT, id, updatedAt);
+                db.setTransactionSuccessful();
+            }
+            return id;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
 
-        return result != -1;
+    private long insertItemRow(String name, int quantity, int reorderThreshold, int userId, long updatedAt) {
+        SQLiteStatement insert = statements.acquire(SQL_INSERT_ITEM);
+        try {
+            bindStringOrNull(insert, 1, name);
+            insert.bindLong(2, quantity);
+            insert.bindLong(3, reorderThreshold);
+            insert.bindLong(4, userId);
+            insert.bindLong(5, updatedAt);
+            long id = insert.executeInsert();
+            if (id != -1) {
+                itemChanged(ItemChange.Kind.INSERTED, id, userId);
+            }
+            return id;
+        } finally {
+            statements.release(SQL_INSERT_ITEM, insert);
+        }
+    }
+
+    // / Bulk Insert Items for a Specific User. Reuses one compiled INSERT and commits every
+    // / BULK_INSERT_CHUNK_SIZE rows instead of paying for a transaction per item.
+    // / Returns the number of rows inserted.
+    public int insertItems(Iterator<Item> items, int userId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement insert = statements.acquire(SQL_INSERT_ITEM);
+        long now = System.currentTimeMillis();
+        int inserted = 0;
+        try {
+            while (items.hasNext()) {
+                beginItemTransaction(db);
+                try {
+                    for (int inChunk = 0; inChunk < BULK_INSERT_CHUNK_SIZE && items.hasNext(); inChunk++) {
+                        Item item = items.next();
+                        bindStringOrNull(insert, 1, item.getName()); // Callers like ItemImporter skip the controller's checks
+                        insert.bindLong(2, item.getQuantity());
+                        insert.bindLong(3, item.getReorderThreshold());
+                        insert.bindLong(4, userId);
+                        insert.bindLong(5, now);
+                        long id = insert.executeInsert();
+                        if (id != -1) {
+                            inserted++;
+                            itemChanged(ItemChange.Kind.INSERTED, id, userId);
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    endItemTransaction(db);
+                }
+            }
+        } finally {
+            statements.release(SQL_INSERT_ITEM, insert);
+        }
+        return inserted;
     }
 
     // / Fix: Clear the Entire Database (For Testing)
@@ -183,52 +873,745 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete("users", null, null);
         db.delete("items", null, null);
-        db.close();
+        db.delete("stock_movements", null, null); // Including the ones the delete just wrote
+        db.delete("stock_snapshots", null, null);
+        db.delete("import_checkpoints", null, null);
+        db.delete("sync_tombstones", null, null);
+        db.delete("sync_checkpoints", null, null);
+        db.delete("outbox", null, null);
+        clearUserSessions();
+        itemChanged(ItemChange.Kind.RELOAD, ItemChange.NO_ITEM, ItemChange.ALL_USERS);
     }
 
     // / Fix: Get All Items for a Specific User
     public List<Item> getAllItems(int userId) {
-        List<Item> itemList = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT id, name, quantity FROM items WHERE user_id = ?",
+        Cursor cursor = db.rawQuery("SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = ? ORDER BY id",
                 new String[]{String.valueOf(userId)});
+        List<Item> itemList = readItems(cursor);
+        cursor.close();
+        return itemList;
+    }
 
+    // / Prefix search over item names: every word typed must start a word of the name, so "sta pap"
+    // / finds "Paper Stapler". Results are in id order, at most `limit` of them. The FTS index is
+    // / scanned first (CROSS JOIN fixes the join order) and each hit is checked against
+    // / items.user_id by primary key, so the cost follows the number of names matching the prefixes,
+    // / across all users, not the size of the user's inventory. A user_id term in the MATCH would
+    // / read that user's whole doclist on every keystroke.
+    // / Pass a CancellationSignal to abandon a query whose results are no longer wanted.
+    public List<Item> searchItems(int userId, String query, int limit, CancellationSignal cancellationSignal) {
+        String match = buildMatchQuery(query);
+        if (match == null) {
+            return new ArrayList<>();
+        }
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT items.id, items.name, items.quantity, items.reorder_threshold, items.updated_at, items.sku " +
+                        "FROM items_fts CROSS JOIN items ON items.id = items_fts.docid " +
+                        "WHERE items_fts MATCH ? AND items.user_id = ? ORDER BY items_fts.docid LIMIT ?",
+                new String[]{match, String.valueOf(userId), String.valueOf(limit)}, cancellationSignal);
+        List<Item> items = readItems(cursor);
+        cursor.close();
+        return items;
+    }
+
+    // / Turns what the user typed into an FTS query, e.g. "Sta pa" -> name:sta* name:pa*.
+    // / Words are split the way FTS4's simple tokenizer splits names (ASCII letters and digits, plus
+    // / any non-ASCII character), so every FTS syntax character is dropped. Null if nothing is left.
+    static String buildMatchQuery(String query) {
+        StringBuilder match = new StringBuilder();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= query.length(); i++) {
+            char c = i < query.length() ? query.charAt(i) : ' ';
+            if (c >= 128 || Character.isLetterOrDigit(c)) {
+                // / The tokenizer folds ASCII case only; lowercase also keeps AND/OR/NOT from being read as operators
+                word.append(c < 128 ? Character.toLowerCase(c) : c);
+            } else if (word.length() > 0) {
+                match.append("name:").append(word).append("* ");
+                word.setLength(0);
+            }
+        }
+        if (match.length() == 0) {
+            return null;
+        }
+        return match.toString().trim();
+    }
+
+    // / Items whose quantity is below their own reorder threshold, in id order. Served from
+    // / idx_items_low_stock, so only the low rows are read no matter how large the table is.
+    public List<Item> getLowStockItems(int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = ? AND quantity < reorder_threshold ORDER BY id",
+                new String[]{String.valueOf(userId)});
+        List<Item> items = readItems(cursor);
+        cursor.close();
+        return items;
+    }
+
+    // / Whether the item is currently below its reorder threshold (false if it does not exist)
+    public boolean isLowStock(int itemId, int userId) {
+        SQLiteStatement query = statements.acquire(SQL_IS_LOW_STOCK);
+        try {
+            query.bindLong(1, itemId);
+            query.bindLong(2, userId);
+            return query.simpleQueryForLong() > 0;
+        } finally {
+            statements.release(SQL_IS_LOW_STOCK, query);
+        }
+    }
+
+    // / Change an item's reorder threshold
+    public boolean updateReorderThreshold(int itemId, int reorderThreshold, int userId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        beginItemTransaction(db);
+        try {
+            SQLiteStatement update = statements.acquire(SQL_UPDATE_REORDER_THRESHOLD);
+            try {
+                update.bindLong(1, reorderThreshold);
+                update.bindLong(2, itemId);
+                update.bindLong(3, userId);
+                if (update.executeUpdateDelete() == 0) {
+                    return false;
+                }
+            } finally {
+                statements.release(SQL_UPDATE_REORDER_THRESHOLD, update);
+            }
+            addToOutbox(OutboxEntry.Operation.UPDATE, itemId, System.currentTimeMillis());
+            itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
+
+    // / Import upsert keyed on (user_id, name): sets the quantity (and the threshold, unless it is
+    // / negative) of the user's item with exactly this name, or inserts a new item if there is
+    // / none. Returns true if an item was inserted, false if one was updated.
+    public boolean upsertItemByName(String name, int quantity, int reorderThreshold, int userId, long updatedAt) {
+        long itemId;
+        SQLiteStatement find = statements.acquire(SQL_FIND_ITEM_BY_NAME);
+        try {
+            find.bindLong(1, userId);
+            find.bindString(2, name);
+            itemId = find.simpleQueryForLong();
+        } finally {
+            statements.release(SQL_FIND_ITEM_BY_NAME, find);
+        }
+        if (itemId != 0) {
+            SQLiteStatement update = statements.acquire(SQL_UPSERT_UPDATE);
+            try {
+                update.bindLong(1, quantity);
+                update.bindLong(2, reorderThreshold);
+                update.bindLong(3, reorderThreshold);
+                update.bindLong(4, updatedAt);
+                update.bindLong(5, itemId);
+                update.executeUpdateDelete();
+            } finally {
+                statements.release(SQL_UPSERT_UPDATE, update);
+            }
+            itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+            return false;
+        }
+        // / Like the other bulk paths, imports do not feed the outbox
+        insertItemRow(name, quantity, reorderThreshold < 0 ? DEFAULT_REORDER_THRESHOLD : reorderThreshold, userId, updatedAt);
+        return true;
+    }
+
+    // / Where an unfinished import stopped, or null if there is nothing to resume
+    public ItemImporter.Result getImportCheckpoint(String importId, int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT rows_read, inserted, updated, rejected FROM import_checkpoints WHERE import_id = ? AND user_id = ?",
+                new String[]{importId, String.valueOf(userId)});
+        ItemImporter.Result checkpoint = null;
         if (cursor.moveToFirst()) {
-            do {
-                int id = cursor.getInt(0);
-                String name = cursor.getString(1);
-                int quantity = cursor.getInt(2);
-                itemList.add(new Item(id, name, quantity));
-            } while (cursor.moveToNext());
+            checkpoint = new ItemImporter.Result(cursor.getLong(0), cursor.getLong(1), cursor.getLong(2), cursor.getLong(3));
         }
         cursor.close();
-        db.close();
-        return itemList;
+        return checkpoint;
     }
 
-    // / Fix: Update SMS Preference for a User
-    public boolean updateSmsPreference(int userId, boolean smsEnabled) {
+    // / Call inside the chunk's transaction, so the checkpoint and the rows commit together
+    public void saveImportCheckpoint(String importId, int userId, ItemImporter.Result progress) {
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
-        values.put("sms_enabled", smsEnabled ? 1 : 0);
+        values.put("import_id", importId);
+        values.put("user_id", userId);
+        values.put("rows_read", progress.getRowsRead());
+        values.put("inserted", progress.getInserted());
+        values.put("updated", progress.getUpdated());
+        values.put("rejected", progress.getRejected());
+        db.insertWithOnConflict("import_checkpoints", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
 
-        int rowsUpdated = db.update("users", values, "user_id = ?", new String[]{String.valueOf(userId)});
-        db.close();
-        return rowsUpdated > 0;
+    public void deleteImportCheckpoint(String importId, int userId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.delete("import_checkpoints", "import_id = ? AND user_id = ?", new String[]{importId, String.valueOf(userId)});
     }
 
-    // / Fix: Retrieve SMS Preference for a User
-    public boolean getSmsPreference(int userId) {
+    // / Random id of this database, stamped as the origin of every local change
+    public String getDeviceId() {
         SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT sms_enabled FROM users WHERE user_id = ?", new String[]{String.valueOf(userId)});
-        boolean isEnabled = false;
+        return DatabaseUtils.stringForQuery(db, "SELECT device_id FROM sync_state", null);
+    }
+
+    // / Position reached in a sync direction (SyncEngine.PUSH or PULL); 0 before the first sync
+    public long getSyncCheckpoint(int userId, String scope, String direction) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return DatabaseUtils.longForQuery(db, "SELECT ifnull(max(seq), 0) FROM sync_checkpoints WHERE user_id = ? AND scope = ? AND direction = ?",
+                new String[]{String.valueOf(userId), scope, direction});
+    }
+
+    public void saveSyncCheckpoint(int userId, String scope, String direction, long seq) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put("user_id", userId);
+        values.put("scope", scope);
+        values.put("direction", direction);
+        values.put("seq", seq);
+        db.insertWithOnConflict("sync_checkpoints", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    // / Up to `limit` of the user's local changes after afterSeq, oldest first: the current state of
+    // / each changed item, or its tombstone. A row changed twice is sent once, as it is now.
+    public List<SyncRecord> getLocalChanges(int userId, long afterSeq, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        String user = String.valueOf(userId);
+        String after = String.valueOf(afterSeq);
+        Cursor cursor = db.rawQuery(SQL_LOCAL_CHANGES, new String[]{user, after, user, after, String.valueOf(limit)});
+        List<SyncRecord> changes = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            changes.add(new SyncRecord(cursor.getString(0), cursor.getString(1), cursor.getInt(2), cursor.getInt(3),
+                    cursor.getLong(4), cursor.getLong(5), cursor.getString(6), cursor.getInt(7) == 1, cursor.getLong(8)));
+        }
+        cursor.close();
+        return changes;
+    }
+
+    // / Applies a pulled batch for the user: each record replaces the local item (or tombstone)
+    // / it beats under SyncRecord.wins and is dropped otherwise. The pull checkpoint is saved in
+    // / the same transaction, so a sync cut off halfway resumes after the last applied batch.
+    // / Returns the number of records that changed something locally.
+    public int applyRemoteChanges(int userId, String scope, List<SyncRecord> records, long pulledSeq) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        int applied = 0;
+        beginItemTransaction(db);
+        try {
+            db.execSQL("UPDATE sync_state SET applying = 1"); // Rolled back with everything else on failure
+            for (SyncRecord record : records) {
+                if (applyRemoteChange(db, userId, record)) {
+                    applied++;
+                }
+            }
+            db.execSQL("UPDATE sync_state SET applying = 0");
+            saveSyncCheckpoint(userId, scope, SyncEngine.PULL, pulledSeq);
+            db.setTransactionSuccessful();
+        } finally {
+            endItemTransaction(db);
+        }
+        return applied;
+    }
 
+    private boolean applyRemoteChange(SQLiteDatabase db, int userId, SyncRecord record) {
+        long itemId = 0;
+        SyncRecord local = null;
+        Cursor cursor = db.rawQuery("SELECT id, version, updated_at, origin FROM items WHERE sync_id = ?",
+                new String[]{record.getSyncId()});
         if (cursor.moveToFirst()) {
-            isEnabled = cursor.getInt(0) == 1;
+            itemId = cursor.getLong(0);
+            local = new SyncRecord(record.getSyncId(), null, 0, 0, cursor.getLong(1), cursor.getLong(2), cursor.getString(3), false, 0);
+        }
+        cursor.close();
+        if (local == null) {
+            cursor = db.rawQuery("SELECT version, updated_at, origin FROM sync_tombstones WHERE sync_id = ?",
+                    new String[]{record.getSyncId()});
+            if (cursor.moveToFirst()) {
+                local = new SyncRecord(record.getSyncId(), null, 0, 0, cursor.getLong(0), cursor.getLong(1), cursor.getString(2), true, 0);
+            }
+            cursor.close();
+        }
+        if (local != null && !SyncRecord.wins(record, local)) {
+            return false; // Ours is newer (and will be pushed), or it is the same change
+        }
+
+        if (record.isDeleted()) {
+            if (itemId != 0) {
+                db.delete("items", "id = ?", new String[]{String.valueOf(itemId)});
+                itemChanged(ItemChange.Kind.DELETED, itemId, userId);
+            }
+            // / Kept so an older copy of the item arriving later cannot bring it back
+            SQLiteStatement tombstone = statements.acquire(SQL_SYNC_TOMBSTONE);
+            try {
+                tombstone.bindString(1, record.getSyncId());
+                tombstone.bindLong(2, userId);
+                tombstone.bindLong(3, record.getVersion());
+                tombstone.bindLong(4, record.getUpdatedAt());
+                tombstone.bindString(5, record.getOrigin());
+                tombstone.executeInsert();
+            } finally {
+                statements.release(SQL_SYNC_TOMBSTONE, tombstone);
+            }
+            return true;
+        }
+
+        String sql = itemId != 0 ? SQL_SYNC_UPDATE_ITEM : SQL_SYNC_INSERT_ITEM;
+        SQLiteStatement write = statements.acquire(sql);
+        try {
+            bindStringOrNull(write, 1, record.getName());
+            write.bindLong(2, record.getQuantity());
+            write.bindLong(3, record.getReorderThreshold());
+            if (itemId != 0) {
+                write.bindLong(4, record.getUpdatedAt());
+                write.bindLong(5, record.getVersion());
+                write.bindString(6, record.getOrigin());
+                write.bindLong(7, itemId);
+                write.executeUpdateDelete();
+                itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+            } else {
+                if (local != null) {
+                    db.delete("sync_tombstones", "sync_id = ?", new String[]{record.getSyncId()}); // Newer than the delete
+                }
+                write.bindLong(4, userId);
+                write.bindLong(5, record.getUpdatedAt());
+                write.bindString(6, record.getSyncId());
+                write.bindLong(7, record.getVersion());
+                write.bindString(8, record.getOrigin());
+                itemChanged(ItemChange.Kind.INSERTED, write.executeInsert(), userId);
+            }
+        } finally {
+            statements.release(sql, write);
+        }
+        return true;
+    }
+
+    // / The oldest `limit` outbox entries, in commit order
+    public List<OutboxEntry> getOutboxBatch(int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT id, idempotency_key, user_id, operation, item_id, sync_id, name, quantity, " +
+                "reorder_threshold, version, created_at FROM outbox ORDER BY id LIMIT ?", new String[]{String.valueOf(limit)});
+        List<OutboxEntry> entries = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            entries.add(new OutboxEntry(cursor.getLong(0), cursor.getString(1), cursor.getInt(2),
+                    OutboxEntry.Operation.valueOf(cursor.getString(3)), cursor.getInt(4), cursor.getString(5),
+                    cursor.isNull(6) ? null : cursor.getString(6), cursor.getInt(7), cursor.getInt(8),
+                    cursor.getLong(9), cursor.getLong(10)));
+        }
+        cursor.close();
+        return entries;
+    }
+
+    // / Drops delivered entries. Entries commit in id order, so everything up to lastId was in
+    // / the batch that was just delivered.
+    public int deleteOutboxEntries(long lastId) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        return db.delete("outbox", "id <= ?", new String[]{String.valueOf(lastId)});
+    }
+
+    public long countOutboxEntries() {
+        return DatabaseUtils.queryNumEntries(this.getReadableDatabase(), "outbox");
+    }
+
+    // / Adds delta (negative to take stock out) to an item's quantity as one UPDATE, so two
+    // / devices or threads adjusting the same item never lose each other's change. The total
+    // / never drops below the stock held in the item's locations (zero if it has none). Returns
+    // / the item as stored after the change, or null if it does not exist.
+    public Item adjustQuantity(int itemId, int userId, int delta, long updatedAt) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        beginItemTransaction(db); // Nothing else can change the row before it is read back
+        try {
+            Item item = adjustQuantityInTransaction(db, itemId, userId, delta, updatedAt);
+            db.setTransactionSuccessful();
+            return item;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
+
+    // / Batch variant for scanners: itemId -> delta, applied in one transaction. Returns the
+    // / adjusted items as stored afterwards; ids that do not exist are skipped.
+    public List<Item> adjustQuantities(Map<Integer, Integer> deltas, int userId, long updatedAt) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        List<Item> adjusted = new ArrayList<>(deltas.size());
+        beginItemTransaction(db);
+        try {
+            for (Map.Entry<Integer, Integer> delta : deltas.entrySet()) {
+                Item item = adjustQuantityInTransaction(db, delta.getKey(), userId, delta.getValue(), updatedAt);
+                if (item != null) {
+                    adjusted.add(item);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            endItemTransaction(db);
+        }
+        return adjusted;
+    }
+
+    private Item adjustQuantityInTransaction(SQLiteDatabase db, int itemId, int userId, int delta, long updatedAt) {
+        SQLiteStatement adjust = statements.acquire(SQL_ADJUST_QUANTITY);
+        try {
+            adjust.bindLong(1, delta);
+            adjust.bindLong(2, updatedAt);
+            adjust.bindLong(3, itemId);
+            adjust.bindLong(4, userId);
+            if (adjust.executeUpdateDelete() == 0) {
+                return null;
+            }
+        } finally {
+            statements.release(SQL_ADJUST_QUANTITY, adjust);
+        }
+        addToOutbox(OutboxEntry.Operation.UPDATE, itemId, updatedAt);
+        itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+        return readItemInTransaction(db, itemId, userId);
+    }
+
+    // / Read back on the same connection, inside the transaction: the value a write produced
+    private Item readItemInTransaction(SQLiteDatabase db, int itemId, int userId) {
+        Cursor cursor = db.rawQuery(SQL_SELECT_ITEM, new String[]{String.valueOf(itemId), String.valueOf(userId)});
+        List<Item> items = readItems(cursor);
+        cursor.close();
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    // / Sets the item's stock at one location. Returns the item with its new total, or null if
+    // / the user has no such item.
+    public Item setLocationQuantity(int itemId, int userId, int locationId, int quantity) {
+        return writeLocation(itemId, userId, locationId, quantity, false);
+    }
+
+    // / Adds delta (negative to take stock out) to the item's stock at one location, stopping at
+    // / zero. Returns the item with its new total, or null if the user has no such item.
+    public Item adjustLocationQuantity(int itemId, int userId, int locationId, int delta) {
+        return writeLocation(itemId, userId, locationId, delta, true);
+    }
+
+    private Item writeLocation(int itemId, int userId, int locationId, int value, boolean relative) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        beginItemTransaction(db);
+        try {
+            if (!itemExists(itemId, userId)) {
+                return null;
+            }
+            writeLocationInTransaction(itemId, locationId, value, relative);
+            addToOutbox(OutboxEntry.Operation.UPDATE, itemId, System.currentTimeMillis());
+            itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+            Item item = readItemInTransaction(db, itemId, userId);
+            db.setTransactionSuccessful();
+            return item;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
+
+    // / Moves stock between two locations of an item in one transaction; the total stays the
+    // / same. Returns the item, or null if it does not exist or `from` holds less than amount.
+    public Item moveStock(int itemId, int userId, int fromLocationId, int toLocationId, int amount) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        beginItemTransaction(db);
+        try {
+            if (!itemExists(itemId, userId) || getLocationQuantity(itemId, fromLocationId) < amount) {
+                return null;
+            }
+            writeLocationInTransaction(itemId, fromLocationId, -amount, true);
+            writeLocationInTransaction(itemId, toLocationId, amount, true);
+            // / The total ends where it was, but the two location writes gave the row new versions
+            addToOutbox(OutboxEntry.Operation.UPDATE, itemId, System.currentTimeMillis());
+            itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+            Item item = readItemInTransaction(db, itemId, userId);
+            db.setTransactionSuccessful();
+            return item;
+        } finally {
+            endItemTransaction(db);
+        }
+    }
+
+    // / One location row: update it, or insert it if there is none yet. The triggers carry the
+    // / difference into items.quantity.
+    private void writeLocationInTransaction(int itemId, int locationId, int value, boolean relative) {
+        String sql = relative ? SQL_ADJUST_LOCATION_QUANTITY : SQL_SET_LOCATION_QUANTITY;
+        int updated;
+        SQLiteStatement update = statements.acquire(sql);
+        try {
+            update.bindLong(1, value);
+            update.bindLong(2, itemId);
+            update.bindLong(3, locationId);
+            updated = update.executeUpdateDelete();
+        } finally {
+            statements.release(sql, update);
+        }
+        if (updated == 0) {
+            int quantity = relative ? Math.max(value, 0) : value;
+            if (quantity == 0) {
+                return;
+            }
+            SQLiteStatement insert = statements.acquire(SQL_INSERT_LOCATION);
+            try {
+                insert.bindLong(1, itemId);
+                insert.bindLong(2, locationId);
+                insert.bindLong(3, quantity);
+                insert.executeInsert();
+            } finally {
+                statements.release(SQL_INSERT_LOCATION, insert);
+            }
+            return;
         }
+        SQLiteStatement deleteEmpty = statements.acquire(SQL_DELETE_EMPTY_LOCATION);
+        try {
+            deleteEmpty.bindLong(1, itemId);
+            deleteEmpty.bindLong(2, locationId);
+            deleteEmpty.executeUpdateDelete();
+        } finally {
+            statements.release(SQL_DELETE_EMPTY_LOCATION, deleteEmpty);
+        }
+    }
+
+    private boolean itemExists(int itemId, int userId) {
+        SQLiteStatement query = statements.acquire(SQL_ITEM_EXISTS);
+        try {
+            query.bindLong(1, itemId);
+            query.bindLong(2, userId);
+            return query.simpleQueryForLong() > 0;
+        } finally {
+            statements.release(SQL_ITEM_EXISTS, query);
+        }
+    }
+
+    private int getLocationQuantity(int itemId, int locationId) {
+        SQLiteStatement query = statements.acquire(SQL_LOCATION_QUANTITY);
+        try {
+            query.bindLong(1, itemId);
+            query.bindLong(2, locationId);
+            return (int) query.simpleQueryForLong();
+        } finally {
+            statements.release(SQL_LOCATION_QUANTITY, query);
+        }
+    }
+
+    // / locationId -> quantity for the locations that hold the item, in location order. Empty if
+    // / none do (or the user has no such item).
+    public Map<Integer, Integer> getLocationQuantities(int itemId, int userId) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT l.location_id, l.quantity FROM item_locations l JOIN items i ON i.id = l.item_id " +
+                "WHERE l.item_id = ? AND i.user_id = ? ORDER BY l.location_id",
+                new String[]{String.valueOf(itemId), String.valueOf(userId)});
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        while (cursor.moveToNext()) {
+            quantities.put(cursor.getInt(0), cursor.getInt(1));
+        }
+        cursor.close();
+        return quantities;
+    }
+
+    // / The item, or null if the user has no item with this id
+    public Item getItem(int itemId, int userId) {
+        return readItemInTransaction(this.getReadableDatabase(), itemId, userId);
+    }
+
+    // / The user's item with this SKU, or null if there is none
+    public Item findItemBySku(int userId, String sku) {
+        Cursor cursor = this.getReadableDatabase().rawQuery(SQL_FIND_ITEM_BY_SKU, new String[]{String.valueOf(userId), sku});
+        List<Item> items = readItems(cursor);
+        cursor.close();
+        return items.isEmpty() ? null : items.get(0);
+    }
+
+    // / Sets (or with null, removes) an item's SKU. Returns false if there is no such item or
+    // / another of the user's items already has this SKU. Not an outbox write: entries carry
+    // / name, quantity and threshold, and a SKU change does not give the row a new version.
+    public boolean setItemSku(int itemId, int userId, String sku) {
+        SQLiteStatement update = statements.acquire(SQL_SET_SKU);
+        try {
+            bindStringOrNull(update, 1, sku);
+            update.bindLong(2, itemId);
+            update.bindLong(3, userId);
+            if (update.executeUpdateDelete() == 0) {
+                return false;
+            }
+        } catch (SQLiteConstraintException e) {
+            return false; // Taken
+        } finally {
+            statements.release(SQL_SET_SKU, update);
+        }
+        itemChanged(ItemChange.Kind.UPDATED, itemId, userId);
+        return true;
+    }
+
+    // / The item's quantity at time T (milliseconds since the epoch), or -1 if it did not exist
+    // / yet. Exact within the uncompacted window; older times are answered from the snapshots,
+    // / which only keep each period's final quantity. Two index seeks, however long the history.
+    public int getQuantityAt(int itemId, int userId, long time) {
+        int quantity = queryQuantityAt(SQL_QUANTITY_AT_MOVEMENT, itemId, userId, time);
+        return quantity != -1 ? quantity : queryQuantityAt(SQL_QUANTITY_AT_SNAPSHOT, itemId, userId, time);
+    }
+
+    private int queryQuantityAt(String sql, int itemId, int userId, long time) {
+        SQLiteStatement query = statements.acquire(sql);
+        try {
+            query.bindLong(1, itemId);
+            query.bindLong(2, userId);
+            query.bindLong(3, time);
+            return (int) query.simpleQueryForLong();
+        } catch (SQLiteDoneException e) {
+            return -1; // No row
+        } finally {
+            statements.release(sql, query);
+        }
+    }
+
+    // / Folds movements older than `before` into one snapshot per item per periodMillis (its last
+    // / quantity in that period) and deletes them. `before` is rounded down to a period boundary
+    // / so a period is never split. Safe to repeat. Returns the number of movements removed.
+    public int compactStockMovements(long before, long periodMillis) {
+        long cutoff = before / periodMillis * periodMillis;
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            // / SQLite takes the bare columns from the row that max(id) picked: the period's last movement
+            db.execSQL("INSERT OR REPLACE INTO stock_snapshots (item_id, user_id, taken_at, quantity) " +
+                    "SELECT item_id, user_id, created_at, quantity FROM (" +
+                    "SELECT item_id, user_id, created_at, quantity, max(id) FROM stock_movements " +
+                    "WHERE created_at < ? GROUP BY item_id, created_at / ?)",
+                    new Object[]{cutoff, periodMillis});
+            int removed = db.delete("stock_movements", "created_at < ?", new String[]{String.valueOf(cutoff)});
+            db.setTransactionSuccessful();
+            return removed;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // / Keyset Page of Items: up to `limit` items with id > afterId, in id order.
+    // / Pass afterId = 0 for the first page. Walks idx_items_user, so the cost depends on the
+    // / page size and not on how far into the list the page is.
+    public List<Item> getItemsPage(int userId, int afterId, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?",
+                new String[]{String.valueOf(userId), String.valueOf(afterId), String.valueOf(limit)});
+        List<Item> page = readItems(cursor);
         cursor.close();
-        db.close();
-        return isEnabled;
+        return page;
+    }
+
+    // / Raw cursor over the next keyset chunk (ITEM_COLUMNS, id > afterId), for streaming readers
+    // / that write rows out without building Items. The caller closes it.
+    public Cursor queryItemsChunk(int userId, int afterId, int limit, CancellationSignal cancellationSignal) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        return db.rawQuery("SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?",
+                new String[]{String.valueOf(userId), String.valueOf(afterId), String.valueOf(limit)}, cancellationSignal);
+    }
+
+    public long countItems(int userId) {
+        return DatabaseUtils.queryNumEntries(this.getReadableDatabase(), "items", "user_id = ?",
+                new String[]{String.valueOf(userId)});
+    }
+
+    // / Keyset Page of Items going backwards: up to `limit` items with id < beforeId, in id order
+    public List<Item> getItemsPageBefore(int userId, int beforeId, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT " + ITEM_COLUMNS + " FROM items WHERE user_id = ? AND id < ? ORDER BY id DESC LIMIT ?",
+                new String[]{String.valueOf(userId), String.valueOf(beforeId), String.valueOf(limit)});
+        List<Item> page = readItems(cursor);
+        cursor.close();
+        Collections.reverse(page);
+        return page;
+    }
+
+    // / Sorted and filtered keyset page: up to `limit` items that come after `after` in the given
+    // / order (the first page when after is null). Sorting and filtering happen in SQLite on the
+    // / ItemSort index, so only the page itself is read.
+    public List<Item> getItemsPage(int userId, ItemSort sort, ItemFilter filter, Item after, int limit) {
+        return queryItemsPage(userId, sort, filter, after, false, false, limit);
+    }
+
+    // / Same, but the page starts at `first` itself; used to re-read a window in place
+    public List<Item> getItemsPageFrom(int userId, ItemSort sort, ItemFilter filter, Item first, int limit) {
+        return queryItemsPage(userId, sort, filter, first, true, false, limit);
+    }
+
+    // / Page of items that come before `before` in the given order, returned in that order
+    public List<Item> getItemsPageBefore(int userId, ItemSort sort, ItemFilter filter, Item before, int limit) {
+        List<Item> page = queryItemsPage(userId, sort, filter, before, false, true, limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    private List<Item> queryItemsPage(int userId, ItemSort sort, ItemFilter filter, Item anchor,
+                                      boolean inclusive, boolean backwards, int limit) {
+        // / Walking backwards flips both the comparison and the direction of the scan
+        boolean descending = sort.descending != backwards;
+        String direction = descending ? " DESC" : "";
+        StringBuilder sql = new StringBuilder("SELECT ").append(ITEM_COLUMNS).append(" FROM items WHERE user_id = ?");
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(userId));
+        if (filter.condition != null) {
+            sql.append(" AND ").append(filter.condition);
+        }
+        if (anchor != null) {
+            String comparison = (descending ? " <" : " >") + (inclusive ? "= " : " ");
+            if (sort.column == null) {
+                sql.append(" AND id").append(comparison).append("?");
+            } else {
+                // / Row value (column, id) so rows with equal sort keys are neither skipped nor repeated
+                sql.append(" AND (").append(sort.column).append(", id)").append(comparison)
+                        .append("(?").append(sort.collation).append(", ?)");
+                args.add(sort.keyOf(anchor));
+            }
+            args.add(String.valueOf(anchor.getId()));
+        }
+        if (sort.column != null) {
+            sql.append(" ORDER BY ").append(sort.column).append(sort.collation).append(direction).append(", id").append(direction);
+        } else {
+            sql.append(" ORDER BY id").append(direction);
+        }
+        sql.append(" LIMIT ?");
+        args.add(String.valueOf(limit));
+
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(sql.toString(), args.toArray(new String[0]));
+        List<Item> page = readItems(cursor);
+        cursor.close();
+        return page;
+    }
+
+    // / Reads ITEM_COLUMNS rows into Items
+    private static List<Item> readItems(Cursor cursor) {
+        List<Item> items = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            Item item = new Item(cursor.getInt(0), cursor.getString(1), cursor.getInt(2), cursor.getInt(3), cursor.getLong(4));
+            item.setSku(cursor.getString(5));
+            items.add(item);
+        }
+        return items;
+    }
+
+    // / bindString() rejects null, which ContentValues used to store as NULL
+    private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    // / Fix: Update SMS Preference for a User
+    public boolean updateSmsPreference(int userId, boolean smsEnabled) {
+        SQLiteStatement update = statements.acquire(SQL_UPDATE_SMS_PREFERENCE);
+        int rowsUpdated;
+        try {
+            update.bindLong(1, smsEnabled ? 1 : 0);
+            update.bindLong(2, userId);
+            rowsUpdated = update.executeUpdateDelete();
+        } finally {
+            statements.release(SQL_UPDATE_SMS_PREFERENCE, update);
+        }
+        invalidateUserSession(userId); // Reloaded with the new value on next use
+        return rowsUpdated > 0;
+    }
+
+    // / Fix: Retrieve SMS Preference for a User
+    public boolean getSmsPreference(int userId) {
+        UserSession session = getUserSession(userId);
+        return session != null && session.isSmsEnabled();
     }
 
     // / Fix: Register a New User with Phone Number
@@ -236,32 +1619,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put("username", username);
-        values.put("password", password);
+        values.put("password", getPasswordHasher().hash(password)); // Never stored in plaintext
         values.put("sms_enabled", 0); // Default to SMS off
         values.put("phone_number", phoneNumber); // Store phone number
 
         long result = db.insert("users", null, values);
-        db.close();
         return result != -1;
     }
 
-    // / Send SMS Alert When Stock is Low
-    private void sendLowStockAlert(int userId, String itemName, int quantity) {
-        SQLiteDatabase db = this.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT sms_enabled, phone_number FROM users WHERE user_id = ?",
-                new String[]{String.valueOf(userId)});
-
-        if (cursor.moveToFirst()) {
-            boolean smsEnabled = cursor.getInt(0) == 1;
-            String phoneNumber = cursor.getString(1);
-
-            if (smsEnabled && phoneNumber != null && !phoneNumber.isEmpty()) {
-                String message = "Attention, you are running low on " + itemName + " with a quantity of " + quantity + ". Buy more!";
-                SmsManager smsManager = SmsManager.getDefault();
-                smsManager.sendTextMessage(phoneNumber, null, message, null, null);
-            }
-        }
-        cursor.close();
-        db.close();
+    // / Phone Number to Alert: the user's number if SMS alerts are enabled, otherwise null
+    public String getSmsRecipient(int userId) {
+        UserSession session = getUserSession(userId);
+        return session == null ? null : session.getSmsRecipient();
     }
 }
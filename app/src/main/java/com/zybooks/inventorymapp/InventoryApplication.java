@@ -0,0 +1,153 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.app.Application;
+import android.content.Context;
+import java.util.concurrent.TimeUnit;
+
+public class InventoryApplication extends Application {
+    private DatabaseHelper dbHelper;
+    private LowStockAlertQueue alertQueue;
+    private DatabaseController dbController;
+    private AsyncDatabaseController asyncController;
+    private OutboxFlusher outboxFlusher;
+
+    /**
+     * Returns the process-wide DatabaseHelper. The underlying SQLiteDatabase is opened on
+     * first use and stays open until the process goes away, so activities and controllers
+     * never pay for reopening inventory.db.
+     *
+     * @param context Any context belonging to this application.
+     */
+    public static DatabaseHelper getDatabaseHelper(Context context) {
+        InventoryApplication app = (InventoryApplication) context.getApplicationContext();
+        synchronized (app) {
+            if (app.dbHelper == null) {
+                app.dbHelper = new DatabaseHelper(app);
+            }
+            return app.dbHelper;
+        }
+    }
+
+    /**
+     * Returns the process-wide queue that batches low-stock SMS alerts.
+     *
+     * @param context Any context belonging to this application.
+     */
+    public static LowStockAlertQueue getLowStockAlertQueue(Context context) {
+        InventoryApplication app = (InventoryApplication) context.getApplicationContext();
+        DatabaseHelper helper = getDatabaseHelper(app);
+        synchronized (app) {
+            if (app.alertQueue == null) {
+                app.alertQueue = new LowStockAlertQueue(helper, new SmsManagerSender());
+            }
+            return app.alertQueue;
+        }
+    }
+
+    /**
+     * Returns the process-wide DatabaseController backed by the shared DatabaseHelper.
+     *
+     * @param context Any context belonging to this application.
+     */
+    public static DatabaseController getDatabaseController(Context context) {
+        InventoryApplication app = (InventoryApplication) context.getApplicationContext();
+        DatabaseHelper helper = getDatabaseHelper(app);
+        LowStockAlertQueue queue = getLowStockAlertQueue(app);
+        synchronized (app) {
+            if (app.dbController == null) {
+                app.dbController = new DatabaseController(helper, queue);
+            }
+            return app.dbController;
+        }
+    }
+
+    /**
+     * Returns the process-wide asynchronous controller that activities use so that no
+     * database work runs on the main thread.
+     *
+     * @param context Any context belonging to this application.
+     */
+    public static AsyncDatabaseController getAsyncController(Context context) {
+        InventoryApplication app = (InventoryApplication) context.getApplicationContext();
+        DatabaseController controller = getDatabaseController(app);
+        synchronized (app) {
+            if (app.asyncController == null) {
+                app.asyncController = new AsyncDatabaseController(controller);
+            }
+            return app.asyncController;
+        }
+    }
+
+    /**
+     * Starts delivering item writes from the outbox to a downstream system, replacing any sink
+     * set before. Until this is first called, item writes are not recorded in the outbox at all,
+     * so an app without a downstream system never accumulates entries.
+     *
+     * @param context Any context belonging to this application.
+     * @param sink    Receives the writes on the outbox thread.
+     */
+    public static OutboxFlusher startOutboxFlusher(Context context, OutboxSink sink) {
+        InventoryApplication app = (InventoryApplication) context.getApplicationContext();
+        DatabaseHelper helper = getDatabaseHelper(app);
+        synchronized (app) {
+            if (app.outboxFlusher != null) {
+                app.outboxFlusher.shutdown();
+            }
+            app.outboxFlusher = new OutboxFlusher(helper, sink);
+            app.outboxFlusher.start();
+            return app.outboxFlusher;
+        }
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // / Once per process start is often enough to keep the stock ledger bounded
+        getAsyncController(this).compactStockHistory(null);
+    }
+
+    @Override
+    public void onTerminate() {
+        // / Only called on emulators; on devices the process is killed and SQLite recovers on next open
+        synchronized (this) {
+            if (asyncController != null) {
+                asyncController.shutdown();
+                asyncController = null;
+            }
+            if (outboxFlusher != null) {
+                outboxFlusher.shutdown(); // Undelivered writes stay in the outbox
+                outboxFlusher = null;
+            }
+            if (alertQueue != null) {
+                alertQueue.shutdown(); // Send anything still pending while the database is open
+                try {
+                    alertQueue.awaitTermination(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                alertQueue = null;
+            }
+            if (dbHelper != null) {
+                dbHelper.close();
+                dbHelper = null;
+            }
+        }
+        super.onTerminate();
+    }
+}
@@ -23,11 +23,24 @@ public class Item {
     private int id;
     private String name;
     private int quantity;
+    private int reorderThreshold; // Quantities below this count as low stock
+    private long updatedAt; // Last change to name or quantity, in epoch millis
+    private String sku; // Barcode, or null if the item has none
 
     public Item(int id, String name, int quantity) {
+        this(id, name, quantity, DatabaseHelper.DEFAULT_REORDER_THRESHOLD);
+    }
+
+    public Item(int id, String name, int quantity, int reorderThreshold) {
+        this(id, name, quantity, reorderThreshold, 0);
+    }
+
+    public Item(int id, String name, int quantity, int reorderThreshold, long updatedAt) {
         this.id = id;
         this.name = name;
         this.quantity = quantity;
+        this.reorderThreshold = reorderThreshold;
+        this.updatedAt = updatedAt;
     }
 
     // Getters and Setters
@@ -54,4 +67,32 @@ public class Item {
     public void setQuantity(int quantity) {
         this.quantity = quantity;
     }
+
+    public int getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public void setReorderThreshold(int reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public boolean isLowStock() {
+        return quantity < reorderThreshold;
+    }
 }
@@ -23,11 +23,18 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
 import java.util.List;
 
-public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder> {
-    private List<Item> itemList;
+// / Diffs each new list against the current one on a background thread (ListAdapter runs
+// / AsyncListDiffer), so only rows that actually changed are rebound
+public class ItemAdapter extends ListAdapter<Item, ItemAdapter.ItemViewHolder> {
+    // / Payload sent when only the quantity of a row changed
+    static final Object PAYLOAD_QUANTITY = new Object();
+
     private OnItemDeleteListener deleteListener;
     private OnItemUpdateListener updateListener;
 
@@ -41,43 +48,81 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder
         void onItemUpdate(Item item);
     }
 
-    public ItemAdapter(List<Item> itemList, OnItemDeleteListener deleteListener, OnItemUpdateListener updateListener) {
-        this.itemList = itemList;
+    // / Rows are the same item when their ids match; a quantity-only change is sent as a payload
+    static final DiffUtil.ItemCallback<Item> DIFF_CALLBACK = new DiffUtil.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.getQuantity() == newItem.getQuantity()
+                    && oldItem.getName().equals(newItem.getName());
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.getName().equals(newItem.getName()) ? PAYLOAD_QUANTITY : null;
+        }
+    };
+
+    public ItemAdapter(OnItemDeleteListener deleteListener, OnItemUpdateListener updateListener) {
+        super(DIFF_CALLBACK);
         this.deleteListener = deleteListener;
         this.updateListener = updateListener;
+        setHasStableIds(true);
     }
 
+    // / Items must not be mutated after they are handed over; pass new Item objects for changes
     public void updateItems(List<Item> newList) {
-        this.itemList = newList;
-        notifyDataSetChanged();
+        submitList(new ArrayList<>(newList));
     }
 
-    @NonNull
     @Override
-    public ItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext()).inflate(android.R.layout.simple_list_item_2, parent, false);
-        return new ItemViewHolder(view);
+    public long getItemId(int position) {
+        return getItem(position).getId();
     }
 
+    @NonNull
     @Override
-    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
-        Item item = itemList.get(position);
-        holder.itemName.setText(item.getName());
-        holder.itemQuantity.setText("Quantity: " + item.getQuantity());
+    public ItemViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(android.R.layout.simple_list_item_2, parent, false);
+        ItemViewHolder holder = new ItemViewHolder(view);
 
         // Handle delete when clicked
-        holder.itemView.setOnClickListener(v -> deleteListener.onItemDelete(item));
+        view.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                deleteListener.onItemDelete(getItem(position));
+            }
+        });
 
         // Handle update on long press
-        holder.itemView.setOnLongClickListener(v -> {
-            updateListener.onItemUpdate(item);
+        view.setOnLongClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                updateListener.onItemUpdate(getItem(position));
+            }
             return true;
         });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
+        Item item = getItem(position);
+        holder.itemName.setText(item.getName());
+        holder.bindQuantity(item);
     }
 
     @Override
-    public int getItemCount() {
-        return itemList.size();
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position); // Full rebind
+        } else {
+            holder.bindQuantity(getItem(position)); // PAYLOAD_QUANTITY: only the quantity text changed
+        }
     }
 
     static class ItemViewHolder extends RecyclerView.ViewHolder {
@@ -88,5 +133,9 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder
             itemName = itemView.findViewById(android.R.id.text1);
             itemQuantity = itemView.findViewById(android.R.id.text2);
         }
+
+        void bindQuantity(Item item) {
+            itemQuantity.setText("Quantity: " + item.getQuantity());
+        }
     }
 }
@@ -0,0 +1,217 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory copy of each recently used user's complete item list, kept in id order and
+ * updated write-through by DatabaseController. A user is only cached when all of their items
+ * fit under maxItemsPerUser, so a cached list is always complete; the least recently used
+ * user is evicted once more than maxUsers are cached.
+ *
+ * Items are copied on the way in and out, so callers can never mutate cached state.
+ * All methods are synchronized; the controller is called from several database threads.
+ */
+class ItemCache {
+    private final int maxUsers;
+    private final int maxItemsPerUser;
+    private final LinkedHashMap<Integer, LinkedHashMap<Integer, Item>> users;
+    // / Users seen with more than maxItemsPerUser items; they are always served from SQLite
+    private final Set<Integer> oversizedUsers = new HashSet<>();
+    // / Bumped by every write so a load that raced with a write is not stored
+    private long writeStamp;
+    private long hits;
+    private long misses;
+
+    ItemCache(int maxUsers, int maxItemsPerUser) {
+        this.maxUsers = maxUsers;
+        this.maxItemsPerUser = maxItemsPerUser;
+        // / Access order: the eldest entry is the user that has been inactive the longest
+        this.users = new LinkedHashMap<Integer, LinkedHashMap<Integer, Item>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, LinkedHashMap<Integer, Item>> eldest) {
+                return size() > ItemCache.this.maxUsers;
+            }
+        };
+    }
+
+    static Item copy(Item item) {
+        Item copy = new Item(item.getId(), item.getName(), item.getQuantity(), item.getReorderThreshold(), item.getUpdatedAt());
+        copy.setSku(item.getSku());
+        return copy;
+    }
+
+    // / Returns every item for the user, or null (a miss) when the user is not cached
+    synchronized List<Item> getAll(int userId) {
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        if (items == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        List<Item> result = new ArrayList<>(items.size());
+        for (Item item : items.values()) {
+            result.add(copy(item));
+        }
+        return result;
+    }
+
+    // / Same as getAll but only the keyset page after afterId, or null when the user is not cached
+    synchronized List<Item> getPage(int userId, int afterId, int limit) {
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        if (items == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        List<Item> page = new ArrayList<>(Math.min(limit, items.size()));
+        Iterator<Item> iterator = items.values().iterator();
+        while (iterator.hasNext() && page.size() < limit) {
+            Item item = iterator.next();
+            if (item.getId() > afterId) {
+                page.add(copy(item));
+            }
+        }
+        return page;
+    }
+
+    // / Looks up a single item, or null when the user is not cached or has no such item
+    synchronized Item get(int userId, int itemId) {
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        Item item = items == null ? null : items.get(itemId);
+        if (item == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(item);
+    }
+
+    synchronized long writeStamp() {
+        return writeStamp;
+    }
+
+    int getMaxItemsPerUser() {
+        return maxItemsPerUser;
+    }
+
+    synchronized boolean isOversized(int userId) {
+        return oversizedUsers.contains(userId);
+    }
+
+    // / Caches a full list read from the database at the given stamp. Skipped if a write has
+    // / happened since (the list may be stale) or if the list is too large to keep.
+    // / Returns true if the list was cached.
+    synchronized boolean putAll(int userId, List<Item> items, long stampAtLoad) {
+        if (items.size() > maxItemsPerUser) {
+            oversizedUsers.add(userId);
+            return false;
+        }
+        if (stampAtLoad != writeStamp) {
+            return false;
+        }
+        LinkedHashMap<Integer, Item> cached = new LinkedHashMap<>();
+        for (Item item : items) {
+            cached.put(item.getId(), copy(item));
+        }
+        users.put(userId, cached);
+        return true;
+    }
+
+    // / Write-through for an insert. New ids are the highest, so appending keeps id order.
+    synchronized void onInserted(int userId, Item item) {
+        writeStamp++;
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        if (items == null) {
+            return;
+        }
+        if (items.size() >= maxItemsPerUser) {
+            users.remove(userId); // Can no longer hold the complete list
+            oversizedUsers.add(userId);
+            return;
+        }
+        items.put(item.getId(), copy(item));
+    }
+
+    // / Write-through for an update of name and quantity; the cached reorder threshold and SKU
+    // / are kept, and replacing the value keeps its position
+    synchronized void onUpdated(int userId, Item item) {
+        writeStamp++;
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        Item cached = items == null ? null : items.get(item.getId());
+        if (cached != null) {
+            Item updated = new Item(item.getId(), item.getName(), item.getQuantity(),
+                    cached.getReorderThreshold(), item.getUpdatedAt());
+            updated.setSku(cached.getSku());
+            items.put(item.getId(), updated);
+        }
+    }
+
+    synchronized void onReorderThresholdChanged(int userId, int itemId, int reorderThreshold) {
+        writeStamp++;
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        Item cached = items == null ? null : items.get(itemId);
+        if (cached != null) {
+            cached.setReorderThreshold(reorderThreshold); // Private copy, safe to mutate
+        }
+    }
+
+    synchronized void onSkuChanged(int userId, int itemId, String sku) {
+        writeStamp++;
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        Item cached = items == null ? null : items.get(itemId);
+        if (cached != null) {
+            cached.setSku(sku); // Private copy, safe to mutate
+        }
+    }
+
+    synchronized void onDeleted(int userId, int itemId) {
+        writeStamp++;
+        LinkedHashMap<Integer, Item> items = users.get(userId);
+        if (items != null) {
+            items.remove(itemId);
+        }
+    }
+
+    // / Drops one user, e.g. after a bulk change that is cheaper to reload than to apply
+    synchronized void invalidateUser(int userId) {
+        writeStamp++;
+        users.remove(userId);
+        oversizedUsers.remove(userId);
+    }
+
+    synchronized void clear() {
+        writeStamp++;
+        users.clear();
+        oversizedUsers.clear();
+    }
+
+    synchronized long getHitCount() {
+        return hits;
+    }
+
+    synchronized long getMissCount() {
+        return misses;
+    }
+}
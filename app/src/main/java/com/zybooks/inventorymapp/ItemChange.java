@@ -0,0 +1,75 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * One committed change to the items table, as published on the ItemChangeBus.
+ */
+public final class ItemChange {
+    /**
+     * What happened to the row.
+     */
+    public enum Kind {
+        INSERTED,
+        UPDATED,
+        DELETED,
+        // / Too many rows changed to list (a clear, or a burst larger than one frame's worth):
+        // / anything the user has on screen may be stale and should be re-read
+        RELOAD
+    }
+
+    // / itemId of a RELOAD, which is about the user's rows in general
+    public static final int NO_ITEM = -1;
+    // / userId of a RELOAD that covers every user, e.g. after the whole database was cleared
+    public static final int ALL_USERS = -1;
+
+    private final Kind kind;
+    private final int itemId;
+    private final int userId;
+
+    ItemChange(Kind kind, int itemId, int userId) {
+        this.kind = kind;
+        this.itemId = itemId;
+        this.userId = userId;
+    }
+
+    static ItemChange reload(int userId) {
+        return new ItemChange(Kind.RELOAD, NO_ITEM, userId);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    // / Whether an observer showing this user's items needs to look at this change
+    public boolean affects(int userId) {
+        return this.userId == userId || this.userId == ALL_USERS;
+    }
+
+    @Override
+    public String toString() {
+        return kind + "(item " + itemId + ", user " + userId + ")";
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tells observers which items changed once the write has committed. DatabaseHelper posts a
+ * change for every item row it writes; the first change of a batch schedules a delivery one
+ * frame (FRAME_MILLIS) later on the bus thread, and everything posted until then is merged by
+ * item into that delivery, so a burst of writes costs one refresh per frame instead of one per row.
+ *
+ * Observers are called on the bus thread, never the main thread; a screen hops to the main
+ * thread itself (e.g. with runOnUiThread) to apply the changes.
+ */
+public class ItemChangeBus {
+    private static final String TAG = "ItemChangeBus";
+    // / One frame at 60 Hz. A fixed window rather than Choreographer: vsync on a background
+    // / thread is not tied to the UI's own frames anyway, and this behaves the same everywhere.
+    static final long FRAME_MILLIS = 16;
+    // / More distinct items than this in one frame become a RELOAD for their user: re-reading the
+    // / screen is cheaper than applying that many row changes, and memory stays bounded
+    static final int MAX_CHANGES_PER_FRAME = 500;
+
+    /**
+     * Receives the changes made since the previous call.
+     */
+    public interface Observer {
+        /**
+         * @param changes At most one change per item, in the order the items first changed,
+         *                after any RELOADs. Never empty.
+         */
+        void onItemsChanged(List<ItemChange> changes);
+    }
+
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+    private final Object lock = new Object();
+    private Handler handler; // Bus thread, started with the first observer
+    // / Waiting for the next frame: itemId -> merged change, and the users (or ALL_USERS) to reload
+    private final LinkedHashMap<Integer, ItemChange> pending = new LinkedHashMap<>();
+    private final Set<Integer> pendingReloads = new LinkedHashSet<>();
+    private boolean frameScheduled;
+    private final Runnable deliver = this::deliver;
+
+    public void addObserver(Observer observer) {
+        synchronized (lock) {
+            if (handler == null) {
+                HandlerThread thread = new HandlerThread("item-changes");
+                thread.start();
+                handler = new Handler(thread.getLooper());
+            }
+        }
+        observers.add(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    // / Called by DatabaseHelper after the change committed. Only touches memory, so it is cheap
+    // / enough to call for every row of a bulk write.
+    void post(ItemChange change) {
+        if (observers.isEmpty()) {
+            return; // Nobody is listening
+        }
+        synchronized (lock) {
+            add(change);
+        }
+    }
+
+    // / A committed transaction's changes, added at once so they land in the same delivery
+    void postAll(List<ItemChange> changes) {
+        if (observers.isEmpty() || changes.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (ItemChange change : changes) {
+                add(change);
+            }
+        }
+    }
+
+    // / Called with the lock held
+    private void add(ItemChange change) {
+        if (pendingReloads.contains(ItemChange.ALL_USERS) || pendingReloads.contains(change.getUserId())) {
+            return; // The reload already covers it
+        }
+        if (change.getKind() == ItemChange.Kind.RELOAD) {
+            addReload(change.getUserId());
+        } else {
+            ItemChange merged = merge(pending.get(change.getItemId()), change);
+            if (merged == null) {
+                pending.remove(change.getItemId());
+            } else {
+                pending.put(change.getItemId(), merged); // Keeps the item's original position
+            }
+            if (pending.size() > MAX_CHANGES_PER_FRAME) {
+                addReload(change.getUserId());
+            }
+        }
+        if (!frameScheduled) {
+            frameScheduled = true;
+            handler.postDelayed(deliver, FRAME_MILLIS);
+        }
+    }
+
+    private void addReload(int userId) {
+        pendingReloads.add(userId);
+        pending.values().removeIf(pendingChange -> pendingChange.affects(userId) || userId == ItemChange.ALL_USERS);
+    }
+
+    // / What an observer needs to hear about an item that changed twice within one frame; null if
+    // / nothing (it was inserted and deleted again before anyone saw it)
+    static ItemChange merge(ItemChange previous, ItemChange next) {
+        if (previous != null && previous.getKind() == ItemChange.Kind.INSERTED) {
+            // / Still new to the observer, whatever happened to it since
+            return next.getKind() == ItemChange.Kind.DELETED ? null : previous;
+        }
+        return next; // Ids are never reused, so nothing follows a delete
+    }
+
+    private void deliver() {
+        List<ItemChange> changes;
+        synchronized (lock) {
+            frameScheduled = false;
+            changes = new ArrayList<>(pendingReloads.size() + pending.size());
+            for (int userId : pendingReloads) {
+                changes.add(ItemChange.reload(userId));
+            }
+            changes.addAll(pending.values());
+            pendingReloads.clear();
+            pending.clear();
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<ItemChange> delivered = Collections.unmodifiableList(changes);
+        for (Observer observer : observers) {
+            try {
+                observer.onItemsChanged(delivered);
+            } catch (RuntimeException e) {
+                // / One broken screen must not stop the others from hearing about changes
+                Log.e(TAG, "Observer failed on " + changes.size() + " item changes", e);
+            }
+        }
+    }
+}
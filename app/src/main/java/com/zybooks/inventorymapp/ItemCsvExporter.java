@@ -0,0 +1,110 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.database.Cursor;
+import android.os.CancellationSignal;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Streams a user's items to CSV. Rows are read in keyset chunks of CHUNK_SIZE and written
+ * straight from the Cursor to a buffered writer, without building Items, so memory use is the
+ * same for ten items or ten million. Each chunk is its own short query, so a long export never
+ * holds a read transaction open against the writer.
+ *
+ * Columns are id, name, quantity, reorder_threshold and updated_at (ISO-8601, UTC).
+ */
+public class ItemCsvExporter {
+    static final int CHUNK_SIZE = 1_000;
+    static final String HEADER = "id,name,quantity,reorder_threshold,updated_at";
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    /**
+     * Notified after every chunk, on the exporting thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param rowsWritten Rows written so far.
+         * @param totalRows   Rows the export expects to write; items added meanwhile may push
+         *                    rowsWritten past it.
+         */
+        void onProgress(long rowsWritten, long totalRows);
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public ItemCsvExporter(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Writes every item of the user to out as CSV. The stream is flushed but not closed.
+     *
+     * @param listener           Progress callback, or null.
+     * @param cancellationSignal Stops the export between (or during) chunks by throwing
+     *                           OperationCanceledException; may be null.
+     * @return The number of items written.
+     */
+    public long export(int userId, OutputStream out, ProgressListener listener, CancellationSignal cancellationSignal) throws IOException {
+        long totalRows = dbHelper.countItems(userId);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        writer.write(HEADER);
+        writer.write(Csv.LINE_END);
+
+        long rowsWritten = 0;
+        int afterId = 0;
+        int rowsInChunk;
+        do {
+            if (cancellationSignal != null) {
+                cancellationSignal.throwIfCanceled();
+            }
+            rowsInChunk = 0;
+            Cursor cursor = dbHelper.queryItemsChunk(userId, afterId, CHUNK_SIZE, cancellationSignal);
+            try {
+                while (cursor.moveToNext()) {
+                    afterId = cursor.getInt(0);
+                    writer.write(Integer.toString(afterId));
+                    writer.write(',');
+                    Csv.writeField(writer, cursor.getString(1));
+                    writer.write(',');
+                    writer.write(Integer.toString(cursor.getInt(2)));
+                    writer.write(',');
+                    writer.write(Integer.toString(cursor.getInt(3)));
+                    writer.write(',');
+                    writer.write(Instant.ofEpochMilli(cursor.getLong(4)).toString());
+                    writer.write(Csv.LINE_END);
+                    rowsInChunk++;
+                }
+            } finally {
+                cursor.close();
+            }
+            rowsWritten += rowsInChunk;
+            if (listener != null) {
+                listener.onProgress(rowsWritten, Math.max(totalRows, rowsWritten));
+            }
+        } while (rowsInChunk == CHUNK_SIZE);
+
+        writer.flush();
+        return rowsWritten;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * Filters for the item list, applied in the WHERE clause of the page query.
+ */
+public enum ItemFilter {
+    ALL(null),
+    // / Served by the idx_items_low_stock partial index
+    BELOW_THRESHOLD("quantity < reorder_threshold");
+
+    // / Extra WHERE condition, or null for none
+    final String condition;
+
+    ItemFilter(String condition) {
+        this.condition = condition;
+    }
+}
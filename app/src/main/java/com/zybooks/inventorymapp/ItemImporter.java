@@ -0,0 +1,281 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.os.CancellationSignal;
+import android.util.JsonReader;
+import android.util.JsonToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports items from a supplier's CSV or JSON file. The file is parsed one row at a time, so
+ * its size does not matter. Rows are checked with the same rules as DatabaseController.addItem
+ * and upserted by name: a row for a name the user already has updates that item, any other
+ * row adds one. A name that appears twice in a file therefore ends up as one item.
+ *
+ * Rows are committed CHUNK_SIZE at a time, together with a checkpoint recording how far the
+ * file has been read. If the import is cancelled or the process dies, running it again with the
+ * same importId skips the rows that were already committed.
+ *
+ * CSV files need a header with "name" and "quantity" columns and may have "reorder_threshold";
+ * other columns (such as the export's id and updated_at) are ignored. JSON files hold an array
+ * of objects with the same keys.
+ */
+public class ItemImporter {
+    static final int CHUNK_SIZE = 1_000;
+    // / Threshold for rows that do not give one: new items get the default, existing ones keep theirs
+    private static final int KEEP_THRESHOLD = -1;
+    // / Stands in for a row that could not be parsed
+    private static final Item REJECTED = new Item(0, null, 0);
+
+    public enum Format {
+        CSV, JSON;
+
+        // / Guesses from a file name or MIME type; anything that does not look like JSON is CSV
+        public static Format guess(String nameOrType) {
+            return nameOrType != null && nameOrType.toLowerCase(Locale.ROOT).contains("json") ? JSON : CSV;
+        }
+    }
+
+    /**
+     * Row counts for an import, or for the part of it committed so far.
+     */
+    public static final class Result {
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long rejected;
+
+        Result() {}
+
+        Result(long rowsRead, long inserted, long updated, long rejected) {
+            this.rowsRead = rowsRead;
+            this.inserted = inserted;
+            this.updated = updated;
+            this.rejected = rejected;
+        }
+
+        // / Rows taken from the file, including rejected ones
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getInserted() {
+            return inserted;
+        }
+
+        public long getUpdated() {
+            return updated;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+
+    // / Rows of the file in order: null at the end, REJECTED for a row that does not parse
+    private interface RowSource {
+        Item next() throws IOException;
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public ItemImporter(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Imports the file into the user's items. The stream is read to the end but not closed.
+     *
+     * @param importId           Identifies the file across attempts (e.g. its URI); an unfinished
+     *                           import with the same id is resumed.
+     * @param cancellationSignal Stops the import between chunks by throwing
+     *                           OperationCanceledException; the checkpoint is kept. May be null.
+     * @return Counts for the whole import, including chunks committed by earlier attempts.
+     */
+    public Result importItems(int userId, String importId, InputStream in, Format format,
+                              CancellationSignal cancellationSignal) throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RowSource rows = format == Format.JSON ? new JsonRows(reader) : new CsvRows(reader);
+
+        Result result = dbHelper.getImportCheckpoint(importId, userId);
+        if (result == null) {
+            result = new Result();
+        }
+        for (long skipped = 0; skipped < result.rowsRead && rows.next() != null; skipped++) {
+            // / Committed by an earlier attempt
+        }
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        long now = System.currentTimeMillis();
+        boolean finished = false;
+        while (!finished) {
+            if (cancellationSignal != null) {
+                cancellationSignal.throwIfCanceled();
+            }
+            dbHelper.beginItemTransaction(db); // Observers hear about the chunk's rows once it commits
+            try {
+                for (int inChunk = 0; inChunk < CHUNK_SIZE; inChunk++) {
+                    Item row = rows.next();
+                    if (row == null) {
+                        finished = true;
+                        break;
+                    }
+                    result.rowsRead++;
+                    if (row == REJECTED || !DatabaseController.isValidItem(row.getName(), row.getQuantity())) {
+                        result.rejected++;
+                    } else if (dbHelper.upsertItemByName(row.getName().trim(), row.getQuantity(), row.getReorderThreshold(), userId, now)) {
+                        result.inserted++;
+                    } else {
+                        result.updated++;
+                    }
+                }
+                if (finished) {
+                    dbHelper.deleteImportCheckpoint(importId, userId);
+                } else {
+                    dbHelper.saveImportCheckpoint(importId, userId, result);
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                dbHelper.endItemTransaction(db);
+            }
+        }
+        return result;
+    }
+
+    // / Builds a row from its text values (null when missing); REJECTED if they do not parse
+    private static Item toRow(String name, String quantity, String reorderThreshold) {
+        if (name == null || quantity == null) {
+            return REJECTED;
+        }
+        try {
+            int threshold = KEEP_THRESHOLD;
+            if (reorderThreshold != null && !reorderThreshold.trim().isEmpty()) {
+                threshold = Integer.parseInt(reorderThreshold.trim());
+                if (threshold < 0) {
+                    return REJECTED; // Same rule as setReorderThreshold
+                }
+            }
+            return new Item(0, name, Integer.parseInt(quantity.trim()), threshold);
+        } catch (NumberFormatException e) {
+            return REJECTED;
+        }
+    }
+
+    private static class CsvRows implements RowSource {
+        private final Csv.RecordReader records;
+        private int nameColumn = -1;
+        private int quantityColumn = -1;
+        private int thresholdColumn = -1;
+        private boolean headerRead;
+
+        CsvRows(Reader reader) {
+            this.records = new Csv.RecordReader(reader);
+        }
+
+        @Override
+        public Item next() throws IOException {
+            if (!headerRead) {
+                readHeader();
+            }
+            List<String> fields = records.next();
+            if (fields == null) {
+                return null;
+            }
+            return toRow(field(fields, nameColumn), field(fields, quantityColumn), field(fields, thresholdColumn));
+        }
+
+        private void readHeader() throws IOException {
+            headerRead = true;
+            List<String> header = records.next();
+            if (header == null) {
+                return; // Empty file
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // / Spreadsheet programs often start the file with a byte order mark
+                String column = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                if (column.equals("name")) {
+                    nameColumn = i;
+                } else if (column.equals("quantity")) {
+                    quantityColumn = i;
+                } else if (column.equals("reorder_threshold")) {
+                    thresholdColumn = i;
+                }
+            }
+            if (nameColumn == -1 || quantityColumn == -1) {
+                throw new IOException("CSV header needs name and quantity columns: " + header);
+            }
+        }
+
+        private static String field(List<String> fields, int column) {
+            return column >= 0 && column < fields.size() ? fields.get(column) : null;
+        }
+    }
+
+    private static class JsonRows implements RowSource {
+        private final JsonReader json;
+        private boolean started;
+
+        JsonRows(Reader reader) {
+            this.json = new JsonReader(reader);
+        }
+
+        @Override
+        public Item next() throws IOException {
+            if (!started) {
+                started = true;
+                json.beginArray();
+            }
+            if (!json.hasNext()) {
+                return null; // The closing bracket is left unread; nothing follows it that matters
+            }
+            if (json.peek() != JsonToken.BEGIN_OBJECT) {
+                json.skipValue();
+                return REJECTED;
+            }
+            Map<String, String> values = new HashMap<>();
+            boolean valid = true;
+            json.beginObject();
+            while (json.hasNext()) {
+                String key = json.nextName();
+                JsonToken token = json.peek();
+                if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+                    values.put(key, json.nextString());
+                } else {
+                    json.skipValue();
+                    valid &= !isItemKey(key); // null, a boolean or a nested value where a field belongs
+                }
+            }
+            json.endObject();
+            return valid ? toRow(values.get("name"), values.get("quantity"), values.get("reorder_threshold")) : REJECTED;
+        }
+
+        private static boolean isItemKey(String key) {
+            return key.equals("name") || key.equals("quantity") || key.equals("reorder_threshold");
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps a bounded window of a user's items in memory and pages more in from the database as
+ * the list scrolls. Pages are fetched with keyset queries in the current ItemSort order (after
+ * the last item / before the first item), and once the window grows past MAX_RESIDENT_ITEMS the
+ * far end is dropped, so memory stays flat no matter how many items the account has.
+ *
+ * All methods must be called on the main thread; page loads run through the
+ * AsyncDatabaseController and come back on the main thread.
+ */
+public class ItemPager {
+    static final int PAGE_SIZE = 50;
+    static final int MAX_RESIDENT_ITEMS = 200;
+    // / Start loading the next page when the user is this close to either end of the window
+    private static final int PREFETCH_DISTANCE = 15;
+
+    /**
+     * Notified whenever the window changes.
+     */
+    public interface Listener {
+        /**
+         * @param items The items currently resident, in list order.
+         */
+        void onItemsChanged(List<Item> items);
+    }
+
+    private final AsyncDatabaseController dbController;
+    private final int userId;
+    private final Listener listener;
+    private final List<Item> window = new ArrayList<>();
+    private ItemSort sort = ItemSort.ADDED;
+    private ItemFilter filter = ItemFilter.ALL;
+    private boolean loading;
+    private boolean reachedStart = true;
+    private boolean reachedEnd;
+    // / Bumped by reload()/refresh() so pages requested before them are ignored when they arrive
+    private int generation;
+
+    public ItemPager(AsyncDatabaseController dbController, int userId, Listener listener) {
+        this.dbController = dbController;
+        this.userId = userId;
+        this.listener = listener;
+    }
+
+    public List<Item> getItems() {
+        return Collections.unmodifiableList(window);
+    }
+
+    // / Changes the order and filter and starts over from the first page
+    public void setOrder(ItemSort sort, ItemFilter filter) {
+        if (sort == this.sort && filter == this.filter) {
+            return;
+        }
+        this.sort = sort;
+        this.filter = filter;
+        reload();
+    }
+
+    // / In the default order new items go at the end and edits never move a row, so only changes
+    // / inside the window (or at its end) matter; in any other order any change may
+    private boolean isAddedOrder() {
+        return sort == ItemSort.ADDED && filter == ItemFilter.ALL;
+    }
+
+    // / Starts over from the first page. The old rows stay on screen until it arrives.
+    public void reload() {
+        generation++;
+        window.clear();
+        loading = false;
+        reachedStart = true;
+        reachedEnd = false;
+        loadNext();
+    }
+
+    // / Re-reads the rows in the current window (and up to a page past it) in one query and
+    // / replaces the window with the result, so after an edit the adapter only sees the rows
+    // / that actually changed and the scroll position is kept
+    public void refresh() {
+        if (window.isEmpty()) {
+            reload();
+            return;
+        }
+        generation++;
+        loading = true;
+        int requestGeneration = generation;
+        int limit = Math.min(window.size() + PAGE_SIZE, MAX_RESIDENT_ITEMS);
+        AsyncDatabaseController.Callback<List<Item>> onPage = page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (page == null) {
+                return; // Query failed: keep the window; the next scroll or change tries again
+            }
+            reachedEnd = page.size() < limit;
+            window.clear();
+            window.addAll(page);
+            listener.onItemsChanged(getItems());
+        };
+        if (reachedStart) {
+            // / From the very top, so a row that now sorts before the old first row is included
+            dbController.getItemsPage(userId, sort, filter, null, limit, onPage);
+        } else {
+            dbController.getItemsPageFrom(userId, sort, filter, window.get(0), limit, onPage);
+        }
+    }
+
+    // / Applies committed changes from the ItemChangeBus. Deleted rows are dropped in place; any
+    // / other change that can alter what the window shows costs one refresh(), however many rows
+    // / it covers. Changes to rows outside the window are picked up when they are paged in.
+    public void applyChanges(List<ItemChange> changes) {
+        boolean stale = false;
+        boolean removed = false;
+        for (ItemChange change : changes) {
+            if (!change.affects(userId)) {
+                continue;
+            }
+            switch (change.getKind()) {
+                case DELETED:
+                    int index = indexOf(change.getItemId());
+                    if (index != -1) {
+                        window.remove(index);
+                        removed = true;
+                    }
+                    break;
+                case INSERTED:
+                    // / In the default order a new item goes at the end, so it only shows if the window reaches it
+                    stale |= !isAddedOrder() || reachedEnd;
+                    break;
+                case UPDATED:
+                    // / In any other order the row may have moved into the window, or left the filter
+                    stale |= !isAddedOrder() || indexOf(change.getItemId()) != -1;
+                    break;
+                default:
+                    stale = true; // RELOAD
+            }
+        }
+        if (stale) {
+            refresh();
+        } else if (removed) {
+            listener.onItemsChanged(getItems());
+        }
+    }
+
+    private int indexOf(int itemId) {
+        for (int i = 0; i < window.size(); i++) {
+            if (window.get(i).getId() == itemId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // / Called by the list as it scrolls, with the first and last visible positions
+    public void onScrolled(int firstVisible, int lastVisible) {
+        if (lastVisible >= window.size() - PREFETCH_DISTANCE) {
+            loadNext();
+        } else if (firstVisible <= PREFETCH_DISTANCE) {
+            loadPrevious();
+        }
+    }
+
+    private void loadNext() {
+        if (loading || reachedEnd) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        Item after = window.isEmpty() ? null : window.get(window.size() - 1);
+        dbController.getItemsPage(userId, sort, filter, after, PAGE_SIZE, page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (page == null) {
+                return; // Query failed: keep the window; the next scroll or change tries again
+            }
+            reachedEnd = page.size() < PAGE_SIZE;
+            window.addAll(page);
+
+            int dropped = Math.max(0, window.size() - MAX_RESIDENT_ITEMS);
+            if (dropped > 0) {
+                window.subList(0, dropped).clear();
+                reachedStart = false;
+            }
+            listener.onItemsChanged(getItems());
+        });
+    }
+
+    private void loadPrevious() {
+        if (loading || reachedStart || window.isEmpty()) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        Item before = window.get(0);
+        dbController.getItemsPageBefore(userId, sort, filter, before, PAGE_SIZE, page -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (page == null) {
+                return; // Query failed: keep the window; the next scroll or change tries again
+            }
+            reachedStart = page.size() < PAGE_SIZE;
+            window.addAll(0, page);
+
+            int dropped = Math.max(0, window.size() - MAX_RESIDENT_ITEMS);
+            if (dropped > 0) {
+                window.subList(window.size() - dropped, window.size()).clear();
+                reachedEnd = false;
+            }
+            listener.onItemsChanged(getItems());
+        });
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Search-as-you-type over item names. Keystrokes are debounced, so a query only runs once the
+ * user pauses, and starting a new query cancels the one still running, so results for text the
+ * user has already changed are never shown.
+ *
+ * All methods must be called on the main thread; results arrive on the main thread.
+ */
+public class ItemSearch {
+    static final long DEBOUNCE_MILLIS = 250;
+    static final int MAX_RESULTS = 200;
+
+    /**
+     * Notified with the results for the current query.
+     */
+    public interface Listener {
+        /**
+         * @param items Matching items, or null when the search box was cleared.
+         */
+        void onSearchResults(List<Item> items);
+    }
+
+    private final AsyncDatabaseController dbController;
+    private final int userId;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable runQuery = this::runQuery;
+    private String query = "";
+    private CancellationSignal inFlight;
+
+    public ItemSearch(AsyncDatabaseController dbController, int userId, Listener listener) {
+        this.dbController = dbController;
+        this.userId = userId;
+        this.listener = listener;
+    }
+
+    // / True while the list shows search results instead of the paged item list
+    public boolean isActive() {
+        return !query.isEmpty();
+    }
+
+    // / Called on every keystroke
+    public void setQuery(String text) {
+        String trimmed = text.trim();
+        if (trimmed.equals(query)) {
+            return;
+        }
+        query = trimmed;
+        cancelPending();
+        if (query.isEmpty()) {
+            listener.onSearchResults(null);
+        } else {
+            handler.postDelayed(runQuery, DEBOUNCE_MILLIS);
+        }
+    }
+
+    // / Runs the current query again right away, e.g. after an item was edited
+    public void rerun() {
+        if (isActive()) {
+            cancelPending();
+            runQuery();
+        }
+    }
+
+    // / Drops any pending or running query; call when the screen goes away
+    public void cancel() {
+        cancelPending();
+    }
+
+    private void cancelPending() {
+        handler.removeCallbacks(runQuery);
+        if (inFlight != null) {
+            inFlight.cancel();
+            inFlight = null;
+        }
+    }
+
+    private void runQuery() {
+        CancellationSignal signal = dbController.searchItems(userId, query, MAX_RESULTS, items -> {
+            inFlight = null;
+            // / A failed query shows no matches rather than leaving the old results up
+            listener.onSearchResults(items != null ? items : Collections.emptyList());
+        });
+        inFlight = signal;
+    }
+}
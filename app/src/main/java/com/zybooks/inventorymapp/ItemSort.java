@@ -0,0 +1,62 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * Orders the item list can be shown in. Each order is served by an index on
+ * (user_id, sort column), and pages are fetched by keyset on (sort column, id), so SQLite
+ * returns rows already sorted and only one page is ever read.
+ */
+public enum ItemSort {
+    ADDED("Date added", null, "", false),
+    NAME("Name", "name", " COLLATE NOCASE", false),
+    QUANTITY("Lowest stock first", "quantity", "", false),
+    RECENT("Recently updated", "updated_at", "", true);
+
+    final String label;
+    // / Sort column, or null when the order is just id
+    final String column;
+    // / Appended to the key parameter so comparisons use the same collation as the index
+    final String collation;
+    final boolean descending;
+
+    ItemSort(String label, String column, String collation, boolean descending) {
+        this.label = label;
+        this.column = column;
+        this.collation = collation;
+        this.descending = descending;
+    }
+
+    // / Value of the sort column for an item, as a query argument
+    String keyOf(Item item) {
+        switch (this) {
+            case NAME:
+                return item.getName();
+            case QUANTITY:
+                return String.valueOf(item.getQuantity());
+            case RECENT:
+                return String.valueOf(item.getUpdatedAt());
+            default:
+                return String.valueOf(item.getId());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label; // Shown in the sort spinner
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the sync server, for tests, benchmarks and single-device demos. Keeps
+ * the winning record of every item per scope, each under a new sequence number whenever it
+ * changes, so pulling "after N" returns exactly the changes made since N. Counts payload bytes
+ * in both directions.
+ */
+public class LocalSyncServer implements SyncTransport {
+    private static final class Scope {
+        final Map<String, SyncRecord> bySyncId = new HashMap<>();
+        final TreeMap<Long, SyncRecord> bySeq = new TreeMap<>();
+        long lastSeq;
+    }
+
+    private final Map<String, Scope> scopes = new HashMap<>();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private Scope scope(String name) {
+        Scope scope = scopes.get(name);
+        if (scope == null) {
+            scope = new Scope();
+            scopes.put(name, scope);
+        }
+        return scope;
+    }
+
+    @Override
+    public synchronized void push(String scopeName, byte[] batch) throws IOException {
+        bytesReceived.addAndGet(batch.length);
+        Scope scope = scope(scopeName);
+        for (SyncRecord record : SyncCodec.decode(batch).getRecords()) {
+            SyncRecord current = scope.bySyncId.get(record.getSyncId());
+            if (current != null && !SyncRecord.wins(record, current)) {
+                if (SyncRecord.wins(current, record)) {
+                    rejected.incrementAndGet(); // Lost a conflict; the device gets the winner on its next pull
+                }
+                continue;
+            }
+            if (current != null) {
+                scope.bySeq.remove(current.getSeq());
+            }
+            SyncRecord stored = record.withSeq(++scope.lastSeq);
+            scope.bySyncId.put(stored.getSyncId(), stored);
+            scope.bySeq.put(stored.getSeq(), stored);
+        }
+    }
+
+    @Override
+    public synchronized byte[] pull(String scopeName, String deviceId, long since, int limit) {
+        Scope scope = scope(scopeName);
+        List<SyncRecord> records = new ArrayList<>(Math.min(limit, scope.bySeq.size()));
+        long cursor = since;
+        for (SyncRecord record : scope.bySeq.tailMap(since, false).values()) {
+            if (records.size() == limit) {
+                break;
+            }
+            cursor = record.getSeq();
+            if (!record.getOrigin().equals(deviceId)) {
+                records.add(record);
+            }
+        }
+        byte[] batch = SyncCodec.encode(records, cursor);
+        bytesSent.addAndGet(batch.length);
+        return batch;
+    }
+
+    // / Payload bytes pushed by devices
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    // / Payload bytes pulled by devices
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    // / Pushed records that lost a conflict against what the server already had
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    // / Live items (not deleted) in a scope
+    public synchronized int getItemCount(String scopeName) {
+        int count = 0;
+        for (SyncRecord record : scope(scopeName).bySyncId.values()) {
+            if (!record.isDeleted()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
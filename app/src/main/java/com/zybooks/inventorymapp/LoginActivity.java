@@ -29,7 +29,7 @@ import androidx.appcompat.app.AppCompatActivity;
 public class LoginActivity extends AppCompatActivity {
     private EditText usernameEditText, passwordEditText;
     private Button loginButton, registerButton;
-    private DatabaseHelper dbHelper;
+    private AsyncDatabaseController dbController;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,7 +40,7 @@ public class LoginActivity extends AppCompatActivity {
         passwordEditText = findViewById(R.id.passwordEditText);
         loginButton = findViewById(R.id.loginButton);
         registerButton = findViewById(R.id.registerButton);
-        dbHelper = new DatabaseHelper(this);
+        dbController = InventoryApplication.getAsyncController(this);
 
         // Check if user is already logged in
         if (isUserLoggedIn()) {
@@ -55,8 +55,13 @@ public class LoginActivity extends AppCompatActivity {
         String username = usernameEditText.getText().toString().trim();
         String password = passwordEditText.getText().toString().trim();
 
-        int userId = dbHelper.authenticateUser(username, password);
-        if (userId != -1) {
+        dbController.authenticateUser(username, password, userId -> onLoginResult(username, userId));
+    }
+
+    private void onLoginResult(String username, int userId) {
+        if (userId == DatabaseController.LOGIN_THROTTLED) {
+            Toast.makeText(this, "Too many failed attempts. Try again later.", Toast.LENGTH_LONG).show();
+        } else if (userId != -1) {
             SharedPreferences preferences = getSharedPreferences("UserSession", Context.MODE_PRIVATE);
             SharedPreferences.Editor editor = preferences.edit();
             editor.putBoolean("is_logged_in", true);
@@ -0,0 +1,80 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Slows down password guessing. After FREE_ATTEMPTS failed logins for a username, further
+ * attempts are refused for a lockout that doubles with each failure (capped at MAX_LOCKOUT_MILLIS).
+ * A successful login clears the record. Refused attempts never reach the password hash, so a
+ * guessing loop cannot tie up the database threads either.
+ */
+public class LoginThrottle {
+    static final int FREE_ATTEMPTS = 5;
+    static final long BASE_LOCKOUT_MILLIS = 30_000;
+    static final long MAX_LOCKOUT_MILLIS = 15 * 60_000;
+
+    // / Time source, replaceable in tests
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    private static class Failures {
+        int count;
+        long lockedUntil;
+    }
+
+    private final Clock clock;
+    private final Map<String, Failures> failures = new HashMap<>();
+
+    public LoginThrottle() {
+        this(System::currentTimeMillis);
+    }
+
+    LoginThrottle(Clock clock) {
+        this.clock = clock;
+    }
+
+    // / Milliseconds until the username may try again; 0 if it may try now
+    public synchronized long getRetryDelayMillis(String username) {
+        Failures record = failures.get(username);
+        if (record == null) {
+            return 0;
+        }
+        return Math.max(0, record.lockedUntil - clock.currentTimeMillis());
+    }
+
+    public synchronized void onFailure(String username) {
+        Failures record = failures.get(username);
+        if (record == null) {
+            record = new Failures();
+            failures.put(username, record);
+        }
+        record.count++;
+        if (record.count >= FREE_ATTEMPTS) {
+            int doublings = Math.min(record.count - FREE_ATTEMPTS, 10);
+            long lockout = Math.min(MAX_LOCKOUT_MILLIS, BASE_LOCKOUT_MILLIS << doublings);
+            record.lockedUntil = clock.currentTimeMillis() + lockout;
+        }
+    }
+
+    public synchronized void onSuccess(String username) {
+        failures.remove(username);
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.util.Log;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects low-stock events and sends them as one SMS digest per user. The first event for a
+ * user schedules a flush WINDOW later on a background thread; events arriving in the meantime
+ * join that digest, and an item reported several times is listed once with its latest quantity.
+ *
+ * enqueue() only touches memory, so it is cheap enough to call from inside a write. The
+ * recipient lookup and the send both happen on the alert thread.
+ */
+public class LowStockAlertQueue extends CoalescingBatcher<String, Integer> {
+    private static final String TAG = "LowStockAlertQueue";
+    static final long DEFAULT_WINDOW_MILLIS = 30_000;
+
+    private final DatabaseHelper dbHelper;
+    private final SmsSender smsSender;
+
+    public LowStockAlertQueue(DatabaseHelper dbHelper, SmsSender smsSender) {
+        this(dbHelper, smsSender, DEFAULT_WINDOW_MILLIS);
+    }
+
+    LowStockAlertQueue(DatabaseHelper dbHelper, SmsSender smsSender, long windowMillis) {
+        super("low-stock-alerts", windowMillis, (previous, latest) -> latest);
+        this.dbHelper = dbHelper;
+        this.smsSender = smsSender;
+    }
+
+    // / Records that an item is low; the alert goes out with the user's next digest
+    public void enqueue(int userId, String itemName, int quantity) {
+        add(userId, itemName, quantity);
+    }
+
+    @Override
+    protected void write(int userId, LinkedHashMap<String, Integer> items) {
+        try {
+            String phoneNumber = dbHelper.getSmsRecipient(userId);
+            if (phoneNumber != null) {
+                smsSender.sendTextMessage(phoneNumber, buildDigest(items));
+            }
+        } catch (RuntimeException e) {
+            // / A failed alert must never take down the worker; the next event schedules a new one
+            Log.e(TAG, "Failed to send low-stock alert for user " + userId, e);
+        }
+    }
+
+    static String buildDigest(Map<String, Integer> items) {
+        if (items.size() == 1) {
+            Map.Entry<String, Integer> item = items.entrySet().iterator().next();
+            return "Attention, you are running low on " + item.getKey() + " with a quantity of " + item.getValue() + ". Buy more!";
+        }
+        StringBuilder message = new StringBuilder("Attention, you are running low on ")
+                .append(items.size()).append(" items: ");
+        boolean first = true;
+        for (Map.Entry<String, Integer> item : items.entrySet()) {
+            if (!first) {
+                message.append(", ");
+            }
+            message.append(item.getKey()).append(" (").append(item.getValue()).append(')');
+            first = false;
+        }
+        return message.append(". Buy more!").toString();
+    }
+}
@@ -23,24 +23,36 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.CancellationSignal;
 import android.os.Bundle;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.CheckBox;
 import android.widget.CompoundButton;
-import android.widget.ListView;
+import android.widget.Spinner;
 import android.widget.Switch;
 import android.widget.TextView;
 import android.widget.Button;
-import android.widget.ArrayAdapter;
 import android.widget.Toast;
+import android.view.KeyEvent;
 import android.view.View;
-import android.widget.AdapterView;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.textfield.TextInputEditText;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import android.widget.EditText;
+import android.text.Editable;
 import android.text.InputType;
+import android.text.TextWatcher;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 
@@ -51,17 +63,29 @@ import androidx.activity.result.contract.ActivityResultContracts;
 
 
 public class MainActivity extends AppCompatActivity {
-    private DatabaseController dbController;
-    private ListView listView;
-    private ArrayAdapter<String> adapter;
-    private List<Item> itemList;
-    private Button btnAdd, btnClear, btnLogout;
+    private AsyncDatabaseController dbController;
+    private RecyclerView recyclerView;
+    private ItemAdapter adapter;
+    private ItemPager itemPager;
+    private ItemSearch itemSearch;
+    private EditText searchEditText;
+    private Spinner sortSpinner;
+    private CheckBox lowStockCheckBox;
+    private CheckBox scanModeCheckBox;
+    private WedgeScanner wedgeScanner;
+    private ScanBatcher scanBatcher;
+    private Button btnAdd, btnClear, btnExport, btnImport, btnLogout;
     private TextView tvUsername;
     private Switch smsToggleSwitch;
     public boolean isSmsEnabled;
     private static final int SMS_PERMISSION_REQUEST_CODE = 101;
     private int userId; // Store the logged-in user's ID
-    private ActivityResultLauncher<Intent> addItemLauncher;
+    // / Every committed item write, including imports and other background jobs, reaches the
+    // / list through the change bus; the bus calls back on its own thread
+    private final ItemChangeBus.Observer itemObserver = changes -> runOnUiThread(() -> onItemsChanged(changes));
+    private ActivityResultLauncher<String> exportLauncher;
+    private CancellationSignal export; // Non-null while an export is running
+    private ActivityResultLauncher<String[]> importLauncher;
 
 
     @Override
@@ -73,14 +97,23 @@ public class MainActivity extends AppCompatActivity {
         tvUsername = findViewById(R.id.tvUsername);
         smsToggleSwitch = findViewById(R.id.smsToggleSwitch);
 
-        listView = findViewById(R.id.listView);
+        recyclerView = findViewById(R.id.recyclerView);
+        searchEditText = findViewById(R.id.searchEditText);
+        sortSpinner = findViewById(R.id.sortSpinner);
+        lowStockCheckBox = findViewById(R.id.lowStockCheckBox);
+        scanModeCheckBox = findViewById(R.id.scanModeCheckBox);
         btnAdd = findViewById(R.id.btnAddItem);
         btnClear = findViewById(R.id.btnClear);
+        btnExport = findViewById(R.id.btnExport);
+        btnImport = findViewById(R.id.btnImport);
         btnLogout = findViewById(R.id.btnLogout);
-        dbController = new DatabaseController(this);
-        itemList = new ArrayList<>();
-        adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1, new ArrayList<>());
-        listView.setAdapter(adapter);
+        dbController = InventoryApplication.getAsyncController(this); // All database work runs off the UI thread
+        // / Short press deletes, long press edits; rows are diffed by item id
+        adapter = new ItemAdapter(this::confirmDelete, this::showUpdateDialog);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        recyclerView.setAdapter(adapter);
 
         // / Retrieve user info from SharedPreferences
         SharedPreferences preferences = getSharedPreferences("UserSession", MODE_PRIVATE);
@@ -95,40 +128,82 @@ public class MainActivity extends AppCompatActivity {
 
         tvUsername.setText("Welcome, " + username + "!");
 
-        // / Load SMS preference from database
-        boolean isSmsEnabled = dbController.getSmsPreference(userId);
-        //boolean isSmsEnabled = preferences.getBoolean("sms_enabled", false);
-        smsToggleSwitch.setChecked(isSmsEnabled);
-
-        // / Handle SMS toggle switch change
-        smsToggleSwitch.setOnCheckedChangeListener((CompoundButton buttonView, boolean isChecked) -> {
-            boolean success = dbController.updateSmsPreference(userId, isChecked);
-            if (success) {
-                SharedPreferences.Editor editor = preferences.edit();
-                editor.putBoolean("sms_enabled", isChecked);
-                editor.apply();
-
-                if (isChecked) {
-                    requestSmsPermission(); // / Request permission if enabled
+        // / Load SMS preference from database, then attach the listener so the initial
+        // / setChecked() does not write the value straight back
+        dbController.getSmsPreference(userId, isSmsEnabled -> {
+            smsToggleSwitch.setChecked(isSmsEnabled);
+
+            // / Handle SMS toggle switch change
+            smsToggleSwitch.setOnCheckedChangeListener((CompoundButton buttonView, boolean isChecked) ->
+                    dbController.updateSmsPreference(userId, isChecked, success -> {
+                        if (success) {
+                            // The user's session is refreshed by the controller; nothing to mirror here
+                            if (isChecked) {
+                                requestSmsPermission(); // / Request permission if enabled
+                            }
+                        } else {
+                            Toast.makeText(MainActivity.this, "Failed to update SMS preference!", Toast.LENGTH_SHORT).show();
+                        }
+                    }));
+        });
+
+        // / Items are paged in as the list scrolls instead of being loaded all at once
+        itemPager = new ItemPager(dbController, userId, this::showItems);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView view, int dx, int dy) {
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible != RecyclerView.NO_POSITION && !itemSearch.isActive()) {
+                    itemPager.onScrolled(layoutManager.findFirstVisibleItemPosition(), lastVisible);
                 }
-            } else {
+            }
+        });
 
-                Toast.makeText(MainActivity.this, "Failed to update SMS preference!", Toast.LENGTH_SHORT).show();
+        // / Sorting and the low-stock filter run in SQLite; changing either reloads from the first page
+        ArrayAdapter<ItemSort> sortAdapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, ItemSort.values());
+        sortAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        sortSpinner.setAdapter(sortAdapter);
+        sortSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                applyListOrder();
             }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
         });
+        lowStockCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> applyListOrder());
 
-        // / Load items for the logged-in user
-        loadItems();
+        // / Search as you type; while a query is active the list shows its results instead of the pages
+        itemSearch = new ItemSearch(dbController, userId, this::showSearchResults);
+        searchEditText.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
 
-        // / Initialize ActivityResultLauncher to handle results from AddNewItemActivity
-        addItemLauncher = registerForActivityResult(
-                new ActivityResultContracts.StartActivityForResult(),
-                result -> {
-                    if (result.getResultCode() == RESULT_OK) {
-                        loadItems(); // Refresh the list when returning from AddNewItemActivity
-                    }
-                }
-        );
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                itemSearch.setQuery(s.toString());
+            }
+        });
+
+        // / Keyboard-wedge scanner: in scan mode keystrokes are read as barcodes instead of going to
+        // / the search box, and each scan receives one unit of the item with that SKU. Scans are
+        // / written in batches; the list picks them up through the change bus.
+        scanBatcher = new ScanBatcher(InventoryApplication.getDatabaseController(this), null);
+        wedgeScanner = new WedgeScanner(this::onScan);
+        scanModeCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            wedgeScanner.reset();
+            if (isChecked) {
+                searchEditText.clearFocus();
+            }
+        });
+
+        // / Load items for the logged-in user, then follow changes row by row
+        dbController.getItemChanges().addObserver(itemObserver);
+        loadItems();
 
         btnAdd.setOnClickListener(v -> {
             Toast.makeText(MainActivity.this, "Add Item button clicked!", Toast.LENGTH_SHORT).show();
@@ -139,7 +214,7 @@ public class MainActivity extends AppCompatActivity {
                 intent.putExtra("userId", userId);
                 System.out.println("DEBUG: Intent created successfully!");
 
-                addItemLauncher.launch(intent);
+                startActivity(intent); // The new item shows up through the change bus
                 System.out.println("DEBUG: Intent launched successfully!");
 
             } catch (Exception e) {
@@ -150,56 +225,189 @@ public class MainActivity extends AppCompatActivity {
         });
 
         // / Clear all items
-        btnClear.setOnClickListener(v -> {
-            dbController.clearDatabase();
-            loadItems();
-            Toast.makeText(MainActivity.this, "All items cleared", Toast.LENGTH_SHORT).show();
+        btnClear.setOnClickListener(v -> dbController.clearDatabase(cleared ->
+                Toast.makeText(MainActivity.this, cleared ? "All items cleared" : "Failed to clear items",
+                        Toast.LENGTH_SHORT).show()));
+
+        // / Export to a CSV file the user picks (Storage Access Framework); pressing again cancels
+        exportLauncher = registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"), this::exportItems);
+        btnExport.setOnClickListener(v -> {
+            if (export != null) {
+                export.cancel();
+                onExportFinished();
+                Toast.makeText(MainActivity.this, "Export cancelled", Toast.LENGTH_SHORT).show();
+            } else {
+                exportLauncher.launch("inventory.csv");
+            }
         });
 
+        // / Import a supplier's CSV or JSON file; items with a known name are updated, not duplicated
+        importLauncher = registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importItems);
+        btnImport.setOnClickListener(v -> importLauncher.launch(new String[]{
+                "text/csv", "text/comma-separated-values", "application/json", "text/plain"}));
+
         // / Logout functionality
         btnLogout.setOnClickListener(v -> logoutUser());
 
-        // / Long Press to edit item
-        listView.setOnItemLongClickListener((parent, view, position, id) -> {
-            Item selectedItem = itemList.get(position);
-            showUpdateDialog(selectedItem); // Open update dialog on long press
-            return true;
+    }
+
+    private void exportItems(Uri uri) {
+        if (uri == null) {
+            return; // Picker dismissed
+        }
+        OutputStream out;
+        try {
+            out = getContentResolver().openOutputStream(uri);
+        } catch (FileNotFoundException e) {
+            out = null;
+        }
+        if (out == null) {
+            Toast.makeText(this, "Could not open the export file", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        btnExport.setText("Cancel Export");
+        export = dbController.exportItemsCsv(userId, out,
+                (rowsWritten, totalRows) -> {
+                    if (export != null && totalRows > 0) {
+                        btnExport.setText("Cancel Export (" + (rowsWritten * 100 / totalRows) + "%)");
+                    }
+                },
+                rows -> {
+                    onExportFinished();
+                    Toast.makeText(MainActivity.this, rows < 0 ? "Export failed" : "Exported " + rows + " items",
+                            Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void onExportFinished() {
+        export = null;
+        btnExport.setText("Export CSV");
+    }
+
+    private void importItems(Uri uri) {
+        if (uri == null) {
+            return; // Picker dismissed
+        }
+        InputStream in;
+        try {
+            in = getContentResolver().openInputStream(uri);
+        } catch (FileNotFoundException e) {
+            in = null;
+        }
+        if (in == null) {
+            Toast.makeText(this, "Could not open the file", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        String type = getContentResolver().getType(uri);
+        ItemImporter.Format format = ItemImporter.Format.guess(type != null ? type : uri.getPath());
+        btnImport.setEnabled(false);
+        btnImport.setText("Importing...");
+        // / Keyed by the URI, so picking the same file again after a crash resumes where it stopped
+        dbController.importItems(userId, uri.toString(), in, format, result -> {
+            btnImport.setEnabled(true);
+            btnImport.setText("Import File");
+            if (result == null) {
+                Toast.makeText(MainActivity.this, "Import failed: the file could not be read", Toast.LENGTH_LONG).show();
+                return;
+            }
+            Toast.makeText(MainActivity.this, "Imported: " + result.getInserted() + " added, " + result.getUpdated()
+                    + " updated, " + result.getRejected() + " rejected", Toast.LENGTH_LONG).show();
         });
+    }
 
-        // / Short Press to delete item
-        listView.setOnItemClickListener((parent, view, position, id) -> {
-            Item selectedItem = itemList.get(position);
-
-            // Show a confirmation dialog for deletion
-            new AlertDialog.Builder(this)
-                    .setTitle("Confirm Delete")
-                    .setMessage("Are you sure you want to delete this item?")
-                    .setPositiveButton("Delete", (dialog, which) -> {
-                        // Proceed with item deletion if user confirms
-                        boolean success = dbController.deleteItem(selectedItem.getId(), userId);
+    // / Short Press to delete item
+    private void confirmDelete(Item selectedItem) {
+        // Show a confirmation dialog for deletion
+        new AlertDialog.Builder(this)
+                .setTitle("Confirm Delete")
+                .setMessage("Are you sure you want to delete this item?")
+                .setPositiveButton("Delete", (dialog, which) -> {
+                    // Proceed with item deletion if user confirms
+                    dbController.deleteItem(selectedItem.getId(), userId, success -> {
                         if (success) {
                             Toast.makeText(MainActivity.this, "Item Deleted", Toast.LENGTH_SHORT).show();
                         } else {
                             Toast.makeText(MainActivity.this, "Delete Failed", Toast.LENGTH_SHORT).show();
+                            itemPager.refresh(); // Re-read in case the row is already gone
                         }
-                        loadItems(); // Refresh item list
-                    })
-                    .setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss()) // Do nothing on cancel
-                    .show();
-        });
+                    });
+                })
+                .setNegativeButton("Cancel", (dialog, which) -> dialog.dismiss()) // Do nothing on cancel
+                .show();
+    }
+
+    private void applyListOrder() {
+        ItemSort sort = (ItemSort) sortSpinner.getSelectedItem();
+        ItemFilter filter = lowStockCheckBox.isChecked() ? ItemFilter.BELOW_THRESHOLD : ItemFilter.ALL;
+        itemPager.setOrder(sort != null ? sort : ItemSort.ADDED, filter);
+        recyclerView.scrollToPosition(0);
     }
 
     private void loadItems() {
-        itemList = dbController.getAllItems(userId);  // Fetch the items for the logged-in user
-        List<String> itemNames = new ArrayList<>();
+        // Fetch the first page of items for the logged-in user in the background
+        itemPager.reload();
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        if (scanModeCheckBox != null && scanModeCheckBox.isChecked() && wedgeScanner.onKeyEvent(event)) {
+            return true;
+        }
+        return super.dispatchKeyEvent(event);
+    }
+
+    private void onScan(String sku) {
+        dbController.findBySku(userId, sku, item -> {
+            if (item != null) {
+                scanBatcher.record(userId, item.getId(), 1);
+            } else if (!isDestroyed()) {
+                Toast.makeText(MainActivity.this, "Unknown SKU: " + sku, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
-        for (Item item : itemList) {
-            itemNames.add(item.getName() + " - " + item.getQuantity());  // Display name and quantity
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (scanBatcher != null) {
+            scanBatcher.shutdown(); // The scans still waiting are written on the batch thread
+        }
+        if (dbController != null) {
+            dbController.getItemChanges().removeObserver(itemObserver);
+        }
+        if (itemSearch != null) {
+            itemSearch.cancel(); // No point finishing a search nobody will see
+        }
+    }
+
+    private void onItemsChanged(List<ItemChange> changes) {
+        if (isDestroyed()) {
+            return;
+        }
+        itemPager.applyChanges(changes);
+        for (ItemChange change : changes) {
+            if (change.affects(userId)) {
+                itemSearch.rerun(); // A new or renamed item can change what matches
+                return;
+            }
         }
+    }
+
+    private void showSearchResults(List<Item> results) {
+        if (isDestroyed()) {
+            return;
+        }
+        // null means the search box was cleared: go back to the paged list
+        adapter.updateItems(results != null ? results : itemPager.getItems());
+    }
 
-        adapter.clear();  // Clear the previous data
-        adapter.addAll(itemNames);  // Add the new list of items
-        adapter.notifyDataSetChanged();  // Notify the adapter that the data has changed
+    private void showItems(List<Item> items) {
+        if (isDestroyed() || itemSearch.isActive()) {
+            return; // Result arrived after the screen was closed, or search results are showing
+        }
+        // The adapter diffs against what is on screen, so only changed rows are rebound
+        // and rows sliding in or out of the window do not move the visible ones
+        adapter.updateItems(items);
     }
 
     private void showUpdateDialog(Item item) {
@@ -220,6 +428,11 @@ public class MainActivity extends AppCompatActivity {
         quantityInput.setText(String.valueOf(item.getQuantity())); // Pre-fill the quantity of the item to be updated
         layout.addView(quantityInput);
 
+        final EditText skuInput = new EditText(this);
+        skuInput.setHint("SKU / barcode (optional)");
+        skuInput.setText(item.getSku());
+        layout.addView(skuInput);
+
         builder.setView(layout);
 
         builder.setPositiveButton("Update", (dialog, which) -> {
@@ -239,12 +452,20 @@ public class MainActivity extends AppCompatActivity {
             }
 
             // Update the item in the database
-            boolean success = dbController.updateItem(item.getId(), updatedName, updatedQuantity, userId);
-            if (success) {
-                Toast.makeText(MainActivity.this, "Item Updated", Toast.LENGTH_SHORT).show();
-                loadItems(); // Refresh the list after updating
-            } else {
-                Toast.makeText(MainActivity.this, "Update Failed", Toast.LENGTH_SHORT).show();
+            dbController.updateItem(item.getId(), updatedName, updatedQuantity, userId, success -> {
+                if (success) {
+                    Toast.makeText(MainActivity.this, "Item Updated", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(MainActivity.this, "Update Failed", Toast.LENGTH_SHORT).show();
+                }
+            });
+            String updatedSku = skuInput.getText().toString().trim();
+            if (!updatedSku.equals(item.getSku() == null ? "" : item.getSku())) {
+                dbController.setSku(item.getId(), userId, updatedSku, saved -> {
+                    if (!saved) {
+                        Toast.makeText(MainActivity.this, "SKU already in use", Toast.LENGTH_SHORT).show();
+                    }
+                });
             }
         });
 
@@ -265,17 +486,18 @@ public class MainActivity extends AppCompatActivity {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
                 Toast.makeText(this, "SMS Permission Granted!", Toast.LENGTH_SHORT).show();
                 smsToggleSwitch.setChecked(true); // Reset switch if denied
-                dbController.setSmsPreference(userId, true);
+                dbController.setSmsPreference(userId, true, null);
 
             } else {
                 Toast.makeText(this, "SMS Permission Denied!", Toast.LENGTH_SHORT).show();
                 smsToggleSwitch.setChecked(false); // Reset switch if denied
-                dbController.setSmsPreference(userId, false);
+                dbController.setSmsPreference(userId, false, null);
             }
         }
     }
 
     private void logoutUser() {
+        dbController.endSession(userId);
         SharedPreferences preferences = getSharedPreferences("UserSession", MODE_PRIVATE);
         SharedPreferences.Editor editor = preferences.edit();
         editor.clear();
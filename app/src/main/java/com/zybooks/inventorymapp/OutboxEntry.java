@@ -0,0 +1,106 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * One item write waiting in the outbox for downstream systems: what happened and the item as it
+ * was right after. Entries are delivered at least once, so a sink must drop repeats by
+ * getIdempotencyKey(), which names the item (its sync id), the version the write produced and
+ * the device that wrote it, so equal versions written on two devices never collide.
+ *
+ * Every single-item write of name, quantity or reorder threshold adds one, including scanner
+ * adjustments and location changes (which change the total). Imports, changes applied by sync
+ * and SKU edits do not: the first two are bulk or already replicated, and SKUs are not part of
+ * an entry. Nothing is recorded before an OutboxFlusher has been started on the database,
+ * since without a sink the entries would never leave.
+ */
+public final class OutboxEntry {
+    public enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final long id; // Position in the outbox
+    private final String idempotencyKey;
+    private final int userId;
+    private final Operation operation;
+    private final int itemId;
+    private final String syncId;
+    private final String name; // null for a delete
+    private final int quantity;
+    private final int reorderThreshold;
+    private final long version;
+    private final long createdAt;
+
+    OutboxEntry(long id, String idempotencyKey, int userId, Operation operation, int itemId, String syncId,
+                String name, int quantity, int reorderThreshold, long version, long createdAt) {
+        this.id = id;
+        this.idempotencyKey = idempotencyKey;
+        this.userId = userId;
+        this.operation = operation;
+        this.itemId = itemId;
+        this.syncId = syncId;
+        this.name = name;
+        this.quantity = quantity;
+        this.reorderThreshold = reorderThreshold;
+        this.version = version;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public int getItemId() {
+        return itemId;
+    }
+
+    public String getSyncId() {
+        return syncId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+}
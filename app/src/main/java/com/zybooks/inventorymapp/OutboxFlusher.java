@@ -0,0 +1,190 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.util.Log;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox into an OutboxSink on a background thread. A batch goes out once
+ * batchSize writes have committed, or maxDelay after the first of them, whichever is sooner;
+ * the flusher learns about writes from the ItemChangeBus, so writers never wait for it.
+ *
+ * Entries leave the outbox only after the sink accepted them. If the sink fails, the same
+ * entries are retried with exponential backoff, and because they are stored in inventory.db
+ * they also survive the process: start() delivers whatever an earlier run left behind.
+ */
+public class OutboxFlusher {
+    private static final String TAG = "OutboxFlusher";
+    static final int DEFAULT_BATCH_SIZE = 100;
+    static final long DEFAULT_MAX_DELAY_MILLIS = 2_000;
+    static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 1_000;
+    static final long DEFAULT_MAX_BACKOFF_MILLIS = 5 * 60_000;
+
+    private final DatabaseHelper dbHelper;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final long maxDelayMillis;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final ScheduledExecutorService scheduler;
+    private final ItemChangeBus.Observer observer = this::onItemsChanged;
+    private final Object drainLock = new Object(); // Keeps the sink single-threaded
+    private final AtomicLong delivered = new AtomicLong();
+    // / Guarded by this: the next scheduled drain and when it runs (System.nanoTime), writes seen
+    // / since the last drain started, and sink failures in a row
+    private ScheduledFuture<?> nextDrain;
+    private long nextDrainAt;
+    private int unflushedWrites;
+    private int failures;
+
+    public OutboxFlusher(DatabaseHelper dbHelper, OutboxSink sink) {
+        this(dbHelper, sink, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_INITIAL_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS);
+    }
+
+    OutboxFlusher(DatabaseHelper dbHelper, OutboxSink sink, int batchSize, long maxDelayMillis,
+                  long initialBackoffMillis, long maxBackoffMillis) {
+        this.dbHelper = dbHelper;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxDelayMillis = maxDelayMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // / Starts watching for writes and delivers anything already waiting. Writes are only
+    // / recorded in the outbox from here on (see DatabaseHelper.setOutboxEnabled).
+    public void start() {
+        dbHelper.setOutboxEnabled(true);
+        dbHelper.getItemChanges().addObserver(observer);
+        schedule(0);
+    }
+
+    // / Delivers everything pending on the calling thread, e.g. from tests. Returns how many
+    // / entries were delivered; stops at the first sink failure.
+    public int flush() {
+        synchronized (this) {
+            unflushedWrites = 0;
+        }
+        int count = 0;
+        synchronized (drainLock) {
+            List<OutboxEntry> batch;
+            do {
+                batch = dbHelper.getOutboxBatch(batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                try {
+                    sink.deliver(batch);
+                } catch (IOException | RuntimeException e) {
+                    onDeliveryFailed(e);
+                    return count;
+                }
+                // / A crash between deliver and delete sends the batch again; the sink drops repeats by key
+                dbHelper.deleteOutboxEntries(batch.get(batch.size() - 1).getId());
+                count += batch.size();
+                delivered.addAndGet(batch.size());
+            } while (batch.size() == batchSize);
+        }
+        synchronized (this) {
+            failures = 0;
+        }
+        return count;
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    // / Stops the flusher; undelivered entries stay in the outbox for the next start()
+    public void shutdown() {
+        dbHelper.getItemChanges().removeObserver(observer);
+        scheduler.shutdown();
+    }
+
+    // / On the bus thread: a full batch drains now, anything less within maxDelay
+    private void onItemsChanged(List<ItemChange> changes) {
+        long delay;
+        synchronized (this) {
+            if (failures > 0) {
+                return; // The backoff retry picks these up
+            }
+            for (ItemChange change : changes) {
+                // / A RELOAD stands for more writes than the bus keeps track of
+                unflushedWrites += change.getKind() == ItemChange.Kind.RELOAD ? batchSize : 1;
+            }
+            delay = unflushedWrites >= batchSize ? 0 : maxDelayMillis;
+        }
+        schedule(delay);
+    }
+
+    // / Runs a drain after delayMillis, unless one is already due by then
+    private synchronized void schedule(long delayMillis) {
+        long at = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        if (nextDrain != null) {
+            if (nextDrainAt - at <= 0) {
+                return;
+            }
+            nextDrain.cancel(false);
+        }
+        try {
+            nextDrain = scheduler.schedule(this::drain, delayMillis, TimeUnit.MILLISECONDS);
+            nextDrainAt = at;
+        } catch (RejectedExecutionException e) {
+            nextDrain = null; // Shut down
+        }
+    }
+
+    private void drain() {
+        synchronized (this) {
+            nextDrain = null; // Writes from now on need a drain of their own
+        }
+        flush();
+    }
+
+    private void onDeliveryFailed(Exception e) {
+        long delay;
+        synchronized (this) {
+            failures++;
+            delay = backoffMillis(failures, initialBackoffMillis, maxBackoffMillis);
+            if (nextDrain != null) {
+                nextDrain.cancel(false); // The retry below replaces it
+                nextDrain = null;
+            }
+        }
+        Log.w(TAG, "Outbox delivery failed (" + e + "), retrying in " + delay + " ms");
+        schedule(delay);
+    }
+
+    // / initial, 2x, 4x, ... capped at max
+    static long backoffMillis(int failures, long initialMillis, long maxMillis) {
+        int doublings = Math.min(failures - 1, 62);
+        return initialMillis > maxMillis >> doublings ? maxMillis : Math.min(initialMillis << doublings, maxMillis);
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Downstream system (ERP, POS, ...) that receives item writes from the outbox. Tests substitute
+ * a fake that records the batches.
+ */
+public interface OutboxSink {
+    /**
+     * Called on the outbox thread, never concurrently.
+     *
+     * @param batch Entries in the order the writes committed.
+     * @throws IOException If the batch was not accepted; the same entries are offered again
+     *                     after a backoff, possibly with newer ones behind them.
+     */
+    void deliver(List<OutboxEntry> batch) throws IOException;
+}
@@ -0,0 +1,162 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashing. Hashes are stored as
+ * "pbkdf2$iterations$salt$hash" (Base64), so each row remembers the cost it was made with and
+ * the cost can be raised later without breaking existing logins.
+ *
+ * Rows written before hashing was added hold the plaintext password. verify() still accepts
+ * them and needsRehash() reports them, so the caller can replace them on the next good login.
+ *
+ * Hashing is deliberately slow; never call it on the main thread.
+ */
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    // / Bounds for calibration: never weaker than MIN, never slower than MAX however fast the device
+    static final int MIN_ITERATIONS = 10_000;
+    static final int MAX_ITERATIONS = 1_000_000;
+    // / Target time for one hash. Shift-change logins arrive in bursts, so keep this modest.
+    static final long TARGET_HASH_MILLIS = 100;
+    private static final String PREFS_NAME = "Security";
+    private static final String PREF_ITERATIONS = "pbkdf2_iterations";
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int iterations) {
+        this.iterations = Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations));
+    }
+
+    /**
+     * Returns a hasher whose cost was calibrated for this device. Calibration runs once and the
+     * result is kept in SharedPreferences, so later calls are cheap.
+     *
+     * @param context Any context belonging to this application.
+     */
+    public static PasswordHasher forDevice(Context context) {
+        SharedPreferences preferences = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        int iterations = preferences.getInt(PREF_ITERATIONS, 0);
+        if (iterations == 0) {
+            iterations = calibrate(TARGET_HASH_MILLIS);
+            preferences.edit().putInt(PREF_ITERATIONS, iterations).apply();
+        }
+        return new PasswordHasher(iterations);
+    }
+
+    /**
+     * Picks the iteration count whose hash takes about targetMillis on this device, by timing
+     * a probe hash and scaling linearly (PBKDF2 cost is proportional to iterations).
+     *
+     * @param targetMillis Desired time for one hash.
+     * @return The iteration count, clamped to [MIN_ITERATIONS, MAX_ITERATIONS].
+     */
+    public static int calibrate(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        char[] probe = "calibration".toCharArray();
+        int probeIterations = MIN_ITERATIONS;
+        derive(probe, salt, probeIterations); // Warm up the provider and the JIT
+        long elapsed = 0;
+        // / Double the probe until it runs long enough to time reliably
+        while (probeIterations < MAX_ITERATIONS) {
+            long start = System.nanoTime();
+            derive(probe, salt, probeIterations);
+            elapsed = System.nanoTime() - start;
+            if (elapsed >= 20_000_000L) {
+                break;
+            }
+            probeIterations *= 2;
+        }
+        long scaled = elapsed == 0 ? MAX_ITERATIONS : probeIterations * (targetMillis * 1_000_000L) / elapsed;
+        return (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, scaled));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // / Returns the encoded salted hash of the password
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        byte[] hash = derive(password.toCharArray(), salt, iterations);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(hash);
+    }
+
+    // / Checks a password against a stored value, hashed or legacy plaintext. A null stored value
+    // / (unknown user) still costs one hash, so the response time does not reveal which usernames exist.
+    public boolean verify(String password, String stored) {
+        if (stored == null) {
+            derive(password.toCharArray(), new byte[SALT_BYTES], iterations);
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password.toCharArray(), salt, storedIterations));
+        } catch (IllegalArgumentException e) {
+            return false; // Corrupt row
+        }
+    }
+
+    // / True for plaintext rows and for hashes made with a different cost than the current one
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || !parts[1].equals(String.valueOf(iterations));
+    }
+
+    private static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX + "$");
+    }
+
+    private static byte[] derive(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
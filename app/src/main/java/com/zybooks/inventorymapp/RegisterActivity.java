@@ -34,7 +34,7 @@ import com.google.android.material.textfield.TextInputEditText;
 public class RegisterActivity extends AppCompatActivity {
     private EditText usernameEditText, passwordEditText, phoneEditText;
     private Button registerButton, goBackButton;
-    private DatabaseHelper dbHelper;
+    private AsyncDatabaseController dbController;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,7 +51,7 @@ public class RegisterActivity extends AppCompatActivity {
         phoneEditText = findViewById(R.id.phoneEditText);
         registerButton = findViewById(R.id.registerButton);
         goBackButton = findViewById(R.id.btnGoback);
-        dbHelper = new DatabaseHelper(this);
+        dbController = InventoryApplication.getAsyncController(this);
 
         registerButton.setOnClickListener(v -> registerUser());
         // / Set OnClickListener inside onCreate()
@@ -80,7 +80,10 @@ public class RegisterActivity extends AppCompatActivity {
             return;
         }
 
-        boolean success = dbHelper.registerUser(username, password, phoneNumber);
+        dbController.registerUser(username, password, phoneNumber, this::onRegisterResult);
+    }
+
+    private void onRegisterResult(boolean success) {
         if (success) {
             Toast.makeText(this, "Registration successful! Please login.", Toast.LENGTH_SHORT).show();
 
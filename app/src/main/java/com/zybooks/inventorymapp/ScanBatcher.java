@@ -0,0 +1,79 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.util.Log;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Buffers stock movements from a barcode scanner and writes them in batches. The first scan for
+ * a user schedules a flush WINDOW later on a background thread; scans arriving in the meantime
+ * are added to the same batch, and several scans of one item become a single delta. The batch
+ * is then applied with DatabaseController.adjustQuantities in one transaction.
+ *
+ * record() only touches memory, so it can be called for every scan on the main thread.
+ */
+public class ScanBatcher extends CoalescingBatcher<Integer, Integer> {
+    private static final String TAG = "ScanBatcher";
+    static final long DEFAULT_WINDOW_MILLIS = 250;
+
+    /**
+     * Notified on the batch thread after each batch is written.
+     */
+    public interface Listener {
+        /**
+         * @param items The adjusted items as stored after the batch.
+         */
+        void onAdjusted(int userId, List<Item> items);
+    }
+
+    private final DatabaseController controller;
+    private final Listener listener; // null when nobody is interested
+
+    public ScanBatcher(DatabaseController controller, Listener listener) {
+        this(controller, listener, DEFAULT_WINDOW_MILLIS);
+    }
+
+    ScanBatcher(DatabaseController controller, Listener listener, long windowMillis) {
+        super("scan-batcher", windowMillis, Integer::sum);
+        this.controller = controller;
+        this.listener = listener;
+    }
+
+    // / Records a movement of delta units (negative for stock going out)
+    public void record(int userId, int itemId, int delta) {
+        add(userId, itemId, delta);
+    }
+
+    @Override
+    protected void write(int userId, LinkedHashMap<Integer, Integer> deltas) {
+        deltas.values().removeIf(delta -> delta == 0); // Scanned in and back out again
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            List<Item> items = controller.adjustQuantities(deltas, userId);
+            if (listener != null) {
+                listener.onAdjusted(userId, items);
+            }
+        } catch (RuntimeException e) {
+            // / Must never take down the worker; the scans in this batch are lost and logged
+            Log.e(TAG, "Failed to write " + deltas.size() + " stock movements for user " + userId, e);
+        }
+    }
+}
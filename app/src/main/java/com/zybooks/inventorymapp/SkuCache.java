@@ -0,0 +1,158 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded map from (user, SKU) to the item itself for the scanner path, so a SKU scanned again
+ * is answered without SQLite. The least recently scanned SKU is evicted once more than
+ * maxEntries are held.
+ *
+ * DatabaseController keeps entries current the way it keeps ItemCache current: its writes
+ * replace or drop the entry of the item they touched, and bulk paths drop the user. A load
+ * that raced with a write is not stored (see writeStamp). All methods are synchronized.
+ */
+class SkuCache {
+    private static final class Key {
+        final int userId;
+        final String sku;
+
+        Key(int userId, String sku) {
+            this.userId = userId;
+            this.sku = sku;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return userId == other.userId && sku.equals(other.sku);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * userId + sku.hashCode();
+        }
+    }
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Item> items;
+    // / itemId -> its key above, so a write can find the entry without knowing the old SKU
+    private final Map<Integer, Key> keysByItem = new HashMap<>();
+    // / Bumped by every write so a load that raced with a write is not stored
+    private long writeStamp;
+    private long hits;
+    private long misses;
+
+    SkuCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        // / Access order: the eldest entry is the SKU scanned longest ago
+        this.items = new LinkedHashMap<Key, Item>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Item> eldest) {
+                if (size() <= SkuCache.this.maxEntries) {
+                    return false;
+                }
+                keysByItem.remove(eldest.getValue().getId());
+                return true;
+            }
+        };
+    }
+
+    // / A copy of the item last seen with this SKU, or null (a miss)
+    synchronized Item get(int userId, String sku) {
+        Item item = items.get(new Key(userId, sku));
+        if (item == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return ItemCache.copy(item);
+    }
+
+    synchronized long writeStamp() {
+        return writeStamp;
+    }
+
+    // / Caches an item read from the database at the given stamp, unless a write happened since
+    synchronized void put(int userId, Item item, long stampAtLoad) {
+        if (stampAtLoad != writeStamp || item.getSku() == null) {
+            return;
+        }
+        remove(item.getId());
+        Key key = new Key(userId, item.getSku());
+        items.put(key, ItemCache.copy(item));
+        keysByItem.put(item.getId(), key);
+    }
+
+    // / Write-through with the item as stored after the write; only refreshes an item already held
+    synchronized void onUpdated(int userId, Item item) {
+        writeStamp++;
+        if (remove(item.getId()) && item.getSku() != null) {
+            Key key = new Key(userId, item.getSku());
+            items.put(key, ItemCache.copy(item));
+            keysByItem.put(item.getId(), key);
+        }
+    }
+
+    // / For writes that do not have the whole item at hand (renames, thresholds, SKUs, deletes)
+    synchronized void invalidateItem(int itemId) {
+        writeStamp++;
+        remove(itemId);
+    }
+
+    synchronized void invalidateUser(int userId) {
+        writeStamp++;
+        Iterator<Map.Entry<Integer, Key>> entries = keysByItem.entrySet().iterator();
+        while (entries.hasNext()) {
+            Key key = entries.next().getValue();
+            if (key.userId == userId) {
+                items.remove(key);
+                entries.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        writeStamp++;
+        items.clear();
+        keysByItem.clear();
+    }
+
+    private boolean remove(int itemId) {
+        Key key = keysByItem.remove(itemId);
+        return key != null && items.remove(key) != null;
+    }
+
+    synchronized int size() {
+        return items.size();
+    }
+
+    synchronized long getHitCount() {
+        return hits;
+    }
+
+    synchronized long getMissCount() {
+        return misses;
+    }
+}
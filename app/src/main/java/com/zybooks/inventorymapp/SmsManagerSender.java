@@ -0,0 +1,35 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.telephony.SmsManager;
+import java.util.ArrayList;
+
+// / SmsSender backed by the platform SmsManager
+public class SmsManagerSender implements SmsSender {
+    @Override
+    public void sendTextMessage(String phoneNumber, String message) {
+        SmsManager smsManager = SmsManager.getDefault();
+        // / A digest can exceed one SMS, so split it and let the carrier reassemble the parts
+        ArrayList<String> parts = smsManager.divideMessage(message);
+        if (parts.size() > 1) {
+            smsManager.sendMultipartTextMessage(phoneNumber, null, parts, null, null);
+        } else {
+            smsManager.sendTextMessage(phoneNumber, null, message, null, null);
+        }
+    }
+}
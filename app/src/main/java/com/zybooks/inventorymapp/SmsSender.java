@@ -0,0 +1,29 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * Sends a text message. The app uses SmsManagerSender; tests substitute a fake that records
+ * messages instead of sending them.
+ */
+public interface SmsSender {
+    /**
+     * @param phoneNumber Destination number.
+     * @param message     Message text; may be longer than a single SMS.
+     */
+    void sendTextMessage(String phoneNumber, String message);
+}
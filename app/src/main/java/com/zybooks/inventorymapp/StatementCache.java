@@ -0,0 +1,116 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pool of compiled SQLiteStatements, keyed by SQL, owned by the long-lived DatabaseHelper.
+ *
+ * A SQLiteStatement holds its own bind arguments, so two threads must never use one at the same
+ * time. Rather than locking a statement for the whole execution (which can deadlock against a
+ * transaction on another thread waiting for the same statement), a caller acquires a statement
+ * for its exclusive use and releases it afterwards. Idle statements are kept for reuse, at most
+ * MAX_IDLE_PER_SQL per statement, which covers the database threads running concurrently.
+ */
+class StatementCache {
+    private static final int MAX_IDLE_PER_SQL = 4;
+
+    private final SQLiteOpenHelper helper;
+    private final Map<String, ArrayDeque<SQLiteStatement>> idle = new HashMap<>();
+    // / Statements compiled against `database`; anything else is closed on release
+    private final Set<SQLiteStatement> live = Collections.newSetFromMap(new IdentityHashMap<>());
+    private SQLiteDatabase database; // The one the live statements were compiled against
+    private long compiled;
+
+    StatementCache(SQLiteOpenHelper helper) {
+        this.helper = helper;
+    }
+
+    // / A statement for sql with no bindings, for the caller's exclusive use until release()
+    SQLiteStatement acquire(String sql) {
+        // / Cheap once open; the database may need to be opened first, so not under the lock
+        SQLiteDatabase db = helper.getWritableDatabase();
+        synchronized (this) {
+            if (db != database) {
+                // / The database was closed and reopened (directly, not through close() below),
+                // / so everything pooled belongs to the old one
+                closeIdle();
+                database = db;
+            }
+            ArrayDeque<SQLiteStatement> statements = idle.get(sql);
+            if (statements != null && !statements.isEmpty()) {
+                return statements.pop();
+            }
+        }
+        SQLiteStatement statement = db.compileStatement(sql);
+        synchronized (this) {
+            if (db == database) {
+                live.add(statement);
+            }
+            compiled++;
+        }
+        return statement;
+    }
+
+    void release(String sql, SQLiteStatement statement) {
+        statement.clearBindings(); // Do not keep bound strings alive
+        synchronized (this) {
+            ArrayDeque<SQLiteStatement> statements = idle.get(sql);
+            if (statements == null) {
+                statements = new ArrayDeque<>(MAX_IDLE_PER_SQL);
+                idle.put(sql, statements);
+            }
+            // / A statement from before close() belongs to a closed database and is not reused
+            if (live.contains(statement) && statements.size() < MAX_IDLE_PER_SQL) {
+                statements.push(statement);
+                return;
+            }
+            live.remove(statement);
+        }
+        statement.close();
+    }
+
+    // / Number of statements compiled so far; stays flat once the pool is warm
+    synchronized long getCompiledCount() {
+        return compiled;
+    }
+
+    // / Closes every idle statement. Must be called before the database itself is closed.
+    synchronized void close() {
+        closeIdle();
+        database = null;
+    }
+
+    private void closeIdle() {
+        for (ArrayDeque<SQLiteStatement> statements : idle.values()) {
+            for (SQLiteStatement statement : statements) {
+                statement.close();
+            }
+        }
+        idle.clear();
+        live.clear();
+    }
+}
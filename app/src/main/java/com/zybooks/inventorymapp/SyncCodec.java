@@ -0,0 +1,119 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Wire format of a sync batch: a cursor and a list of SyncRecords in a compact binary layout,
+ * gzipped. Sync ids and origins repeat from row to row, so a batch compresses well.
+ */
+public final class SyncCodec {
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * A decoded batch.
+     */
+    public static final class Batch {
+        private final List<SyncRecord> records;
+        private final long cursor;
+
+        Batch(List<SyncRecord> records, long cursor) {
+            this.records = records;
+            this.cursor = cursor;
+        }
+
+        public List<SyncRecord> getRecords() {
+            return records;
+        }
+
+        // / Position in the sender's change feed that this batch reaches
+        public long getCursor() {
+            return cursor;
+        }
+    }
+
+    private SyncCodec() {}
+
+    public static byte[] encode(List<SyncRecord> records, long cursor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(cursor);
+            out.writeInt(records.size());
+            for (SyncRecord record : records) {
+                out.writeUTF(record.getSyncId());
+                out.writeBoolean(record.isDeleted());
+                if (!record.isDeleted()) {
+                    out.writeBoolean(record.getName() != null);
+                    if (record.getName() != null) {
+                        out.writeUTF(record.getName());
+                    }
+                    out.writeInt(record.getQuantity());
+                    out.writeInt(record.getReorderThreshold());
+                }
+                out.writeLong(record.getVersion());
+                out.writeLong(record.getUpdatedAt());
+                out.writeUTF(record.getOrigin());
+                out.writeLong(record.getSeq());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // In-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    // / Throws IOException if the payload is truncated, corrupt or of an unknown version
+    public static Batch decode(byte[] batch) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(batch)))) {
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported sync batch version " + formatVersion);
+            }
+            long cursor = in.readLong();
+            int count = in.readInt();
+            List<SyncRecord> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String syncId = in.readUTF();
+                boolean deleted = in.readBoolean();
+                String name = null;
+                int quantity = 0;
+                int reorderThreshold = 0;
+                if (!deleted) {
+                    name = in.readBoolean() ? in.readUTF() : null;
+                    quantity = in.readInt();
+                    reorderThreshold = in.readInt();
+                }
+                long version = in.readLong();
+                long updatedAt = in.readLong();
+                String origin = in.readUTF();
+                long seq = in.readLong();
+                records.add(new SyncRecord(syncId, name, quantity, reorderThreshold, version, updatedAt, origin, deleted, seq));
+            }
+            return new Batch(Collections.unmodifiableList(records), cursor);
+        }
+    }
+}
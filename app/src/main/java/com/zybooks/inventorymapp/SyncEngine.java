@@ -0,0 +1,97 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Two-way delta sync of one user's items with a server, through any SyncTransport.
+ *
+ * A sync first pushes the local changes made since the last push, then pulls the server's
+ * changes since the last pull, both in batches of BATCH_SIZE records. Only rows that changed
+ * travel, never the whole table. Both checkpoints are stored in the database after each batch,
+ * so an interrupted sync resumes where it stopped, and repeating a batch is harmless.
+ * Conflicts are settled by SyncRecord.wins, the same rule on every device and on the server.
+ */
+public class SyncEngine {
+    static final String PUSH = "push";
+    static final String PULL = "pull";
+    static final int BATCH_SIZE = 500;
+
+    /**
+     * What one sync did.
+     */
+    public static final class Result {
+        private int pushed;
+        private int pulled;
+        private int applied;
+
+        // / Local changes sent to the server
+        public int getPushed() {
+            return pushed;
+        }
+
+        // / Server changes received
+        public int getPulled() {
+            return pulled;
+        }
+
+        // / Received changes that won and were written locally
+        public int getApplied() {
+            return applied;
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final SyncTransport transport;
+
+    public SyncEngine(DatabaseHelper dbHelper, SyncTransport transport) {
+        this.dbHelper = dbHelper;
+        this.transport = transport;
+    }
+
+    // / Syncs the user's items with the shared inventory named `scope`. Blocking; run it off the
+    // / main thread. Throws IOException if the transport fails; what was done so far is kept.
+    public Result sync(int userId, String scope) throws IOException {
+        Result result = new Result();
+
+        long pushed = dbHelper.getSyncCheckpoint(userId, scope, PUSH);
+        List<SyncRecord> changes;
+        do {
+            changes = dbHelper.getLocalChanges(userId, pushed, BATCH_SIZE);
+            if (changes.isEmpty()) {
+                break;
+            }
+            pushed = changes.get(changes.size() - 1).getSeq();
+            transport.push(scope, SyncCodec.encode(changes, pushed));
+            dbHelper.saveSyncCheckpoint(userId, scope, PUSH, pushed);
+            result.pushed += changes.size();
+        } while (changes.size() == BATCH_SIZE);
+
+        long pulled = dbHelper.getSyncCheckpoint(userId, scope, PULL);
+        String deviceId = dbHelper.getDeviceId();
+        SyncCodec.Batch batch;
+        do {
+            batch = SyncCodec.decode(transport.pull(scope, deviceId, pulled, BATCH_SIZE));
+            result.applied += dbHelper.applyRemoteChanges(userId, scope, batch.getRecords(), batch.getCursor());
+            result.pulled += batch.getRecords().size();
+            pulled = batch.getCursor();
+        } while (batch.getRecords().size() == BATCH_SIZE);
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * One item as exchanged during sync: its state on the sending side (or a tombstone if it was
+ * deleted), keyed by the item's device-independent sync id.
+ *
+ * Every change to an item raises its version. When two devices changed the same item, the
+ * higher (version, updatedAt, origin) wins everywhere, so all devices and the server settle on
+ * the same row no matter in which order they sync.
+ */
+public final class SyncRecord {
+    private final String syncId;
+    private final String name; // null for a tombstone
+    private final int quantity;
+    private final int reorderThreshold;
+    private final long version;
+    private final long updatedAt;
+    private final String origin; // Device that made this version
+    private final boolean deleted;
+    // / Position in the sender's change feed: the local sync_seq, or the server's sequence
+    private final long seq;
+
+    SyncRecord(String syncId, String name, int quantity, int reorderThreshold, long version, long updatedAt,
+               String origin, boolean deleted, long seq) {
+        this.syncId = syncId;
+        this.name = name;
+        this.quantity = quantity;
+        this.reorderThreshold = reorderThreshold;
+        this.version = version;
+        this.updatedAt = updatedAt;
+        this.origin = origin;
+        this.deleted = deleted;
+        this.seq = seq;
+    }
+
+    // / The same record at another position in a change feed
+    SyncRecord withSeq(long seq) {
+        return new SyncRecord(syncId, name, quantity, reorderThreshold, version, updatedAt, origin, deleted, seq);
+    }
+
+    // / Whether `a` replaces `b`. Equal records are the same change, so neither wins.
+    static boolean wins(SyncRecord a, SyncRecord b) {
+        if (a.version != b.version) {
+            return a.version > b.version;
+        }
+        if (a.updatedAt != b.updatedAt) {
+            return a.updatedAt > b.updatedAt;
+        }
+        return a.origin.compareTo(b.origin) > 0;
+    }
+
+    public String getSyncId() {
+        return syncId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import java.io.IOException;
+
+/**
+ * Carries sync batches between a device and the server. Payloads are opaque byte arrays
+ * produced by SyncCodec (compressed), so an implementation only has to move bytes: over HTTP,
+ * a socket, or in process like LocalSyncServer.
+ *
+ * A scope names the shared inventory (e.g. a store account); devices syncing the same scope
+ * converge on the same items.
+ */
+public interface SyncTransport {
+    /**
+     * Sends one batch of local changes. The server keeps each record that wins against what it
+     * already has and drops the rest. Must be safe to repeat.
+     */
+    void push(String scope, byte[] batch) throws IOException;
+
+    /**
+     * Returns a batch with up to `limit` of the server's changes after position `since`, oldest
+     * first, leaving out changes made by deviceId itself. The batch's cursor is where to continue.
+     */
+    byte[] pull(String scope, String deviceId, long since, int limit) throws IOException;
+}
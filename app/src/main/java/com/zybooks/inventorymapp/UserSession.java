@@ -0,0 +1,60 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+/**
+ * The profile of a logged-in user, read from the users table once at login and then served
+ * from memory by DatabaseHelper. Immutable: changing the SMS preference drops the session and
+ * the next lookup loads a fresh one.
+ */
+public class UserSession {
+    private final int userId;
+    private final String username;
+    private final boolean smsEnabled;
+    private final String phoneNumber;
+
+    public UserSession(int userId, String username, boolean smsEnabled, String phoneNumber) {
+        this.userId = userId;
+        this.username = username;
+        this.smsEnabled = smsEnabled;
+        this.phoneNumber = phoneNumber;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public boolean isSmsEnabled() {
+        return smsEnabled;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    // / Phone number to alert: the user's number if SMS alerts are enabled, otherwise null
+    public String getSmsRecipient() {
+        if (smsEnabled && phoneNumber != null && !phoneNumber.isEmpty()) {
+            return phoneNumber;
+        }
+        return null;
+    }
+}
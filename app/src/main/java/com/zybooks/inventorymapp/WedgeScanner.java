@@ -0,0 +1,72 @@
+/**
+ * Inventory Management App
+ * Developed by Gonzalo Patino
+ * Software Engineer
+ * Southern New Hampshire University
+ * CS360 - Software Architecture
+ *
+ * Description: This app provides an inventory management system with user authentication,
+ * SMS notifications for low inventory and upcoming events, and a structured UI
+ * following the MVC architecture. It integrates an SQLite database for user authentication
+ * and ensures incremental testing with JUnit at each development stage.
+ *
+ * Date: February 22, 2025
+ */
+
+
+package com.zybooks.inventorymapp;
+
+import android.view.KeyEvent;
+
+/**
+ * Reads barcodes from a keyboard-wedge scanner, which "types" each code as key presses followed
+ * by Enter (or Tab, depending on how it is set up). Feed it the activity's key events; every
+ * terminated code goes to the listener on the calling thread.
+ */
+public class WedgeScanner {
+    // / Longer input is not a barcode; the rest of it is dropped
+    static final int MAX_CODE_LENGTH = 64;
+
+    /**
+     * Called once per scanned code.
+     */
+    public interface Listener {
+        void onScan(String code);
+    }
+
+    private final Listener listener;
+    private final StringBuilder code = new StringBuilder();
+
+    public WedgeScanner(Listener listener) {
+        this.listener = listener;
+    }
+
+    // / From Activity.dispatchKeyEvent. Returns true if the key was part of a scan; keys that
+    // / type nothing (Back, volume, ...) are left to the activity.
+    public boolean onKeyEvent(KeyEvent event) {
+        return onKey(event.getAction(), event.getKeyCode(), event.getUnicodeChar());
+    }
+
+    boolean onKey(int action, int keyCode, int unicodeChar) {
+        if (keyCode == KeyEvent.KEYCODE_ENTER || keyCode == KeyEvent.KEYCODE_NUMPAD_ENTER || keyCode == KeyEvent.KEYCODE_TAB) {
+            if (action == KeyEvent.ACTION_DOWN && code.length() > 0) {
+                String scanned = code.toString();
+                code.setLength(0);
+                listener.onScan(scanned);
+            }
+            return true;
+        }
+        if (unicodeChar == 0 || Character.isISOControl(unicodeChar)) {
+            return false;
+        }
+        if (action == KeyEvent.ACTION_DOWN && code.length() < MAX_CODE_LENGTH) {
+            code.appendCodePoint(unicodeChar);
+        }
+        return true;
+    }
+
+    // / Drops a partly typed code, e.g. when scan mode is switched
+    public void reset() {
+        code.setLength(0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+public class CsvTest {
+    private static String write(String value) throws IOException {
+        StringWriter out = new StringWriter();
+        Csv.writeField(out, value);
+        return out.toString();
+    }
+
+    // ✅ Plain values are written as is
+    @Test
+    public void testPlainField() throws IOException {
+        assertEquals("Stapler", write("Stapler"));
+        assertEquals("", write(""));
+        assertEquals("", write(null));
+    }
+
+    // ✅ Commas, quotes and line breaks are quoted, with quotes doubled
+    @Test
+    public void testQuotedFields() throws IOException {
+        assertEquals("\"Pens, blue\"", write("Pens, blue"));
+        assertEquals("\"12\"\" ruler\"", write("12\" ruler"));
+        assertEquals("\"two\nlines\"", write("two\nlines"));
+        assertEquals("\"cr\r\"", write("cr\r"));
+    }
+
+    // ✅ Records are read back field by field, quoting undone
+    @Test
+    public void testReadRecords() throws IOException {
+        Csv.RecordReader reader = new Csv.RecordReader(new StringReader(
+                "name,quantity\r\n\"Pens, blue\",12\n\n\"12\"\" ruler\",2\r\n\"two\nlines\",\r\nlast,7"));
+        assertEquals(Arrays.asList("name", "quantity"), reader.next());
+        assertEquals(Arrays.asList("Pens, blue", "12"), reader.next());
+        assertEquals("Blank lines are skipped", Arrays.asList("12\" ruler", "2"), reader.next());
+        assertEquals(Arrays.asList("two\nlines", ""), reader.next());
+        assertEquals("No line end needed at the end", Arrays.asList("last", "7"), reader.next());
+        assertNull(reader.next());
+    }
+
+    // ✅ Whatever writeField produces reads back unchanged
+    @Test
+    public void testRoundTrip() throws IOException {
+        String[] values = {"plain", "a,b", "say \"hi\"", "multi\r\nline", ""};
+        StringWriter out = new StringWriter();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Csv.writeField(out, values[i]);
+        }
+        out.write(Csv.LINE_END);
+        Csv.RecordReader reader = new Csv.RecordReader(new StringReader(out.toString()));
+        assertEquals(Arrays.asList(values), reader.next());
+        assertNull(reader.next());
+    }
+}
@@ -0,0 +1,41 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import androidx.recyclerview.widget.DiffUtil;
+import org.junit.Test;
+
+public class ItemAdapterTest {
+    private final DiffUtil.ItemCallback<Item> diff = ItemAdapter.DIFF_CALLBACK;
+
+    // ✅ Rows are matched by item id, not by position or name
+    @Test
+    public void testItemsMatchedById() {
+        assertTrue(diff.areItemsTheSame(new Item(7, "Tape", 3), new Item(7, "Packing Tape", 9)));
+        assertFalse(diff.areItemsTheSame(new Item(7, "Tape", 3), new Item(8, "Tape", 3)));
+    }
+
+    // ✅ A quantity-only change produces the partial-rebind payload
+    @Test
+    public void testQuantityChangeUsesPayload() {
+        Item before = new Item(7, "Tape", 3);
+        Item after = new Item(7, "Tape", 9);
+        assertFalse(diff.areContentsTheSame(before, after));
+        assertSame(ItemAdapter.PAYLOAD_QUANTITY, diff.getChangePayload(before, after));
+    }
+
+    // ✅ A rename needs a full rebind
+    @Test
+    public void testRenameRebindsWholeRow() {
+        Item before = new Item(7, "Tape", 3);
+        Item after = new Item(7, "Packing Tape", 3);
+        assertFalse(diff.areContentsTheSame(before, after));
+        assertNull(diff.getChangePayload(before, after));
+    }
+
+    // ✅ Unchanged rows are left alone
+    @Test
+    public void testUnchangedItemIsSame() {
+        assertTrue(diff.areContentsTheSame(new Item(7, "Tape", 3), new Item(7, "Tape", 3)));
+    }
+}
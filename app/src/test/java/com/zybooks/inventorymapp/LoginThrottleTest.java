@@ -0,0 +1,53 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LoginThrottleTest {
+    private long now = 1_000_000;
+    private final LoginThrottle throttle = new LoginThrottle(() -> now);
+
+    private void fail(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.onFailure(username);
+        }
+    }
+
+    // ✅ The first few failures are free
+    @Test
+    public void testFreeAttempts() {
+        fail("clerk", LoginThrottle.FREE_ATTEMPTS - 1);
+        assertEquals(0, throttle.getRetryDelayMillis("clerk"));
+    }
+
+    // ❌ Too many failures lock the username, and the lockout doubles
+    @Test
+    public void testLockoutDoubles() {
+        fail("clerk", LoginThrottle.FREE_ATTEMPTS);
+        assertEquals(LoginThrottle.BASE_LOCKOUT_MILLIS, throttle.getRetryDelayMillis("clerk"));
+
+        now += LoginThrottle.BASE_LOCKOUT_MILLIS;
+        assertEquals(0, throttle.getRetryDelayMillis("clerk"));
+        fail("clerk", 1);
+        assertEquals(2 * LoginThrottle.BASE_LOCKOUT_MILLIS, throttle.getRetryDelayMillis("clerk"));
+        assertEquals("Other users are not affected", 0, throttle.getRetryDelayMillis("manager"));
+    }
+
+    // ✅ Lockouts are capped
+    @Test
+    public void testLockoutIsCapped() {
+        fail("clerk", LoginThrottle.FREE_ATTEMPTS + 40);
+        assertEquals(LoginThrottle.MAX_LOCKOUT_MILLIS, throttle.getRetryDelayMillis("clerk"));
+    }
+
+    // ✅ A successful login clears the record
+    @Test
+    public void testSuccessResets() {
+        fail("clerk", LoginThrottle.FREE_ATTEMPTS);
+        throttle.onSuccess("clerk");
+        assertEquals(0, throttle.getRetryDelayMillis("clerk"));
+        fail("clerk", LoginThrottle.FREE_ATTEMPTS - 1);
+        assertEquals(0, throttle.getRetryDelayMillis("clerk"));
+    }
+}
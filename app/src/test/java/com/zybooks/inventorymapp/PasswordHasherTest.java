@@ -0,0 +1,58 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PasswordHasherTest {
+    private final PasswordHasher hasher = new PasswordHasher(PasswordHasher.MIN_ITERATIONS);
+
+    // ✅ A hash verifies against its own password only
+    @Test
+    public void testHashVerifies() {
+        String stored = hasher.hash("password123");
+        assertTrue(stored.startsWith("pbkdf2$" + PasswordHasher.MIN_ITERATIONS + "$"));
+        assertTrue(hasher.verify("password123", stored));
+        assertFalse(hasher.verify("password124", stored));
+    }
+
+    // ✅ Each hash gets its own salt
+    @Test
+    public void testHashIsSalted() {
+        assertNotEquals(hasher.hash("password123"), hasher.hash("password123"));
+    }
+
+    // ✅ Legacy plaintext rows still log in and are flagged for rehashing
+    @Test
+    public void testLegacyPlaintextVerifiesAndNeedsRehash() {
+        assertTrue(hasher.verify("legacyPass", "legacyPass"));
+        assertFalse(hasher.verify("wrong", "legacyPass"));
+        assertTrue(hasher.needsRehash("legacyPass"));
+        assertFalse(hasher.needsRehash(hasher.hash("legacyPass")));
+    }
+
+    // ✅ A hash made at another cost still verifies but is flagged for rehashing
+    @Test
+    public void testCostChangeNeedsRehash() {
+        String stored = new PasswordHasher(PasswordHasher.MIN_ITERATIONS * 2).hash("password123");
+        assertTrue(hasher.verify("password123", stored));
+        assertTrue(hasher.needsRehash(stored));
+    }
+
+    // ❌ Unknown users and corrupt rows never verify
+    @Test
+    public void testMissingOrCorruptStoredValue() {
+        assertFalse(hasher.verify("password123", null));
+        assertFalse(hasher.verify("password123", "pbkdf2$oops"));
+        assertFalse(hasher.verify("password123", "pbkdf2$10000$!!!$!!!"));
+    }
+
+    // ✅ Calibration stays within bounds
+    @Test
+    public void testCalibrateIsClamped() {
+        int iterations = PasswordHasher.calibrate(10);
+        assertTrue(iterations >= PasswordHasher.MIN_ITERATIONS);
+        assertTrue(iterations <= PasswordHasher.MAX_ITERATIONS);
+        assertEquals(PasswordHasher.MAX_ITERATIONS, new PasswordHasher(Integer.MAX_VALUE).getIterations());
+    }
+}
@@ -0,0 +1,304 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.app.Application;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+// / JMH-style benchmarks for DatabaseHelper/DatabaseController that run on the JVM: Robolectric
+// / provides the Android framework and its native SQLite, so no device is needed. Each operation
+// / is warmed up, then timed over several iterations, for every dataset size.
+// /
+// / Skipped by default. Run with: ./gradlew :app:testDebugUnitTest -Pbenchmark --tests '*JvmBenchmark'
+// / Dataset sizes come from -Pbenchmark.sizes=1000,100000. Results are written as JSON to
+// / app/build/benchmark-results/persistence.json (see app/build.gradle.kts).
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(sdk = 30, application = Application.class) // No InventoryApplication: its startup work would skew the numbers
+public class PersistenceJvmBenchmark {
+    private static final String BENCHMARK_DB = "jvm-benchmark.db";
+    private static final String SYNC_PEER_DB = "jvm-benchmark-peer.db";
+    private static final String DEFAULT_SIZES = "1000,10000,100000";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final int OPS_PER_ITERATION = 1_000;
+    private static final int READS_PER_ITERATION = 5;
+    private static final int LOGINS_PER_ITERATION = 20;
+    // / Share of the items that change between two syncs
+    private static final int SYNC_CHURN_PERCENT = 1;
+    // / Storerooms every item is stocked in for itemLocations
+    private static final int LOCATIONS = 50;
+    // / Results of this run so far; the whole file is rewritten after every benchmark
+    private static final List<String> results = new ArrayList<>();
+
+    // / One operation; `i` counts up across warmup and measured iterations
+    private interface Operation {
+        void run(int i);
+    }
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "rows={0}")
+    public static List<Object[]> datasetSizes() {
+        List<Object[]> sizes = new ArrayList<>();
+        for (String size : System.getProperty("benchmark.sizes", DEFAULT_SIZES).split(",")) {
+            sizes.add(new Object[]{Integer.parseInt(size.trim())});
+        }
+        return sizes;
+    }
+
+    private final int rows;
+    private Context context;
+    private DatabaseHelper dbHelper;
+    private DatabaseController controller;
+    private int userId;
+    private final Random random = new Random(42);
+
+    public PersistenceJvmBenchmark(int rows) {
+        this.rows = rows;
+    }
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(BENCHMARK_DB);
+        dbHelper = new DatabaseHelper(context, BENCHMARK_DB);
+        // / Fixed cost instead of per-machine calibration, so login numbers compare across CI boxes
+        dbHelper.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+        controller = new DatabaseController(dbHelper);
+        assertTrue(dbHelper.registerUser("benchUser", "benchPass", "5555555555"));
+        userId = dbHelper.authenticateUser("benchUser", "benchPass");
+        assertEquals(rows, dbHelper.insertItems(items("Seed", rows).iterator(), userId));
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+        context.deleteDatabase(BENCHMARK_DB);
+    }
+
+    private static List<Item> items(String prefix, int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(0, prefix + " " + i, i % 50 + 1));
+        }
+        return items;
+    }
+
+    // / Any seeded item of the user; seeded ids are 1..rows
+    private int randomItemId() {
+        return 1 + random.nextInt(rows);
+    }
+
+    private void measure(String name, int opsPerIteration, Runnable beforeIteration, Operation operation) throws IOException {
+        int i = 0;
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+            beforeIteration.run();
+            for (int op = 0; op < opsPerIteration; op++) {
+                operation.run(i++);
+            }
+        }
+        long[] nanosPerOp = new long[MEASURED_ITERATIONS];
+        for (int iteration = 0; iteration < MEASURED_ITERATIONS; iteration++) {
+            beforeIteration.run(); // Not timed
+            long start = System.nanoTime();
+            for (int op = 0; op < opsPerIteration; op++) {
+                operation.run(i++);
+            }
+            nanosPerOp[iteration] = (System.nanoTime() - start) / opsPerIteration;
+        }
+        record(name, opsPerIteration, nanosPerOp);
+    }
+
+    private void measure(String name, int opsPerIteration, Operation operation) throws IOException {
+        measure(name, opsPerIteration, () -> {}, operation);
+    }
+
+    // / Adds one result in the shape JMH uses (average time per op, with the spread over iterations)
+    private void record(String name, int opsPerIteration, long[] nanosPerOp) throws IOException {
+        long[] sorted = nanosPerOp.clone();
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (long nanos : sorted) {
+            mean += nanos / (double) sorted.length;
+        }
+        String result = String.format(Locale.ROOT,
+                "{\"benchmark\": \"%s\", \"params\": {\"rows\": %d}, \"mode\": \"avgt\", \"unit\": \"us/op\", " +
+                        "\"score\": %.3f, \"min\": %.3f, \"median\": %.3f, \"max\": %.3f, " +
+                        "\"warmupIterations\": %d, \"measurementIterations\": %d, \"opsPerIteration\": %d}",
+                name, rows, mean / 1e3, sorted[0] / 1e3, sorted[sorted.length / 2] / 1e3, sorted[sorted.length - 1] / 1e3,
+                WARMUP_ITERATIONS, MEASURED_ITERATIONS, opsPerIteration);
+        System.out.println(result);
+        synchronized (results) {
+            results.add(result);
+            writeResults();
+        }
+    }
+
+    private static void writeResults() throws IOException {
+        String path = System.getProperty("benchmark.output");
+        if (path == null) {
+            return; // Console only
+        }
+        File file = new File(path);
+        file.getParentFile().mkdirs();
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                out.write("  " + results.get(i) + (i < results.size() - 1 ? ",\n" : "\n"));
+            }
+            out.write("]\n");
+        }
+    }
+
+    @Test
+    public void insert() throws IOException {
+        measure("insert", OPS_PER_ITERATION, i -> dbHelper.insertItemAndGetId("Insert " + i, i % 50 + 1, userId));
+    }
+
+    @Test
+    public void bulkInsert() throws IOException {
+        List<Item> batch = items("Bulk", OPS_PER_ITERATION);
+        // / One op is one insertItems call with the whole batch
+        measure("bulkInsert" + OPS_PER_ITERATION, 1, i -> dbHelper.insertItems(batch.iterator(), userId));
+    }
+
+    @Test
+    public void getAllItems() throws IOException {
+        measure("getAllItems", READS_PER_ITERATION, i -> assertEquals(rows, dbHelper.getAllItems(userId).size()));
+    }
+
+    @Test
+    public void getAllItemsCached() throws IOException {
+        measure("controller.getAllItems", READS_PER_ITERATION, i -> controller.getAllItems(userId));
+    }
+
+    @Test
+    public void update() throws IOException {
+        measure("update", OPS_PER_ITERATION, i -> dbHelper.updateItem(randomItemId(), "Updated " + i, i % 50 + 1, userId));
+    }
+
+    @Test
+    public void delete() throws IOException {
+        int[] ids = new int[OPS_PER_ITERATION];
+        // / Each iteration deletes rows inserted just before it, so the dataset keeps its size
+        measure("delete", OPS_PER_ITERATION, () -> {
+            for (int op = 0; op < ids.length; op++) {
+                ids[op] = (int) dbHelper.insertItemAndGetId("Delete " + op, 1, userId);
+            }
+        }, i -> assertTrue(dbHelper.deleteItem(ids[i % ids.length], userId)));
+    }
+
+    @Test
+    public void authenticate() throws IOException {
+        measure("authenticate", LOGINS_PER_ITERATION, i -> assertEquals(userId, controller.authenticateUser("benchUser", "benchPass")));
+    }
+
+    // / One sync round between two devices through LocalSyncServer after SYNC_CHURN_PERCENT of
+    // / the items changed on one of them: the device pushes, the peer pulls. The initial copy of
+    // / all rows is done once up front and not timed.
+    @Test
+    public void syncChurn() throws IOException {
+        context.deleteDatabase(SYNC_PEER_DB);
+        DatabaseHelper peerHelper = new DatabaseHelper(context, SYNC_PEER_DB);
+        try {
+            peerHelper.setPasswordHasher(new PasswordHasher(PasswordHasher.MIN_ITERATIONS));
+            assertTrue(peerHelper.registerUser("benchUser", "benchPass", "5555555555"));
+            int peerUserId = peerHelper.authenticateUser("benchUser", "benchPass");
+            LocalSyncServer server = new LocalSyncServer();
+            SyncEngine device = new SyncEngine(dbHelper, server);
+            SyncEngine peer = new SyncEngine(peerHelper, server);
+            device.sync(userId, "benchUser");
+            peer.sync(peerUserId, "benchUser");
+            assertEquals(rows, peerHelper.countItems(peerUserId));
+
+            int churn = Math.max(1, rows * SYNC_CHURN_PERCENT / 100);
+            measure("syncChurn" + SYNC_CHURN_PERCENT + "pct", 1, () -> {
+                for (int op = 0; op < churn; op++) {
+                    dbHelper.adjustQuantity(randomItemId(), userId, 1, System.currentTimeMillis());
+                }
+            }, i -> {
+                try {
+                    // / Random picks can repeat, so at most `churn` rows move
+                    assertTrue(device.sync(userId, "benchUser").getPushed() <= churn);
+                    assertTrue(peer.sync(peerUserId, "benchUser").getApplied() <= churn);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        } finally {
+            peerHelper.close();
+            context.deleteDatabase(SYNC_PEER_DB);
+        }
+    }
+
+    // / Stock per location with LOCATIONS rows per item: reads of the trigger-maintained totals
+    // / against summing the locations at read time, then the location writes and a total edit
+    // / that has to respect the located stock. Seeding is not timed.
+    @Test
+    public void itemLocations() throws IOException {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO item_locations (item_id, location_id, quantity) VALUES (?, ?, ?)");
+        db.beginTransaction();
+        try {
+            for (int location = 1; location <= LOCATIONS; location++) {
+                for (int itemId = 1; itemId <= rows; itemId++) {
+                    insert.bindLong(1, itemId);
+                    insert.bindLong(2, location);
+                    insert.bindLong(3, (itemId + location) % 7 + 1);
+                    insert.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        insert.close();
+
+        measure("locations.getAllItems", READS_PER_ITERATION, i -> assertEquals(rows, dbHelper.getAllItems(userId).size()));
+        measure("locations.sumAtRead", READS_PER_ITERATION, i -> {
+            Cursor cursor = db.rawQuery("SELECT i.id, i.name, ifnull(sum(l.quantity), 0) FROM items i " +
+                    "LEFT JOIN item_locations l ON l.item_id = i.id WHERE i.user_id = ? GROUP BY i.id",
+                    new String[]{String.valueOf(userId)});
+            int read = 0;
+            while (cursor.moveToNext()) {
+                cursor.getInt(2);
+                read++;
+            }
+            cursor.close();
+            assertEquals(rows, read);
+        });
+        measure("adjustLocationQuantity", OPS_PER_ITERATION, i -> assertNotNull(dbHelper.adjustLocationQuantity(
+                randomItemId(), userId, 1 + random.nextInt(LOCATIONS), i % 2 == 0 ? 3 : -2)));
+        measure("moveStock", OPS_PER_ITERATION, i -> {
+            int from = 1 + random.nextInt(LOCATIONS);
+            dbHelper.moveStock(randomItemId(), userId, from, from % LOCATIONS + 1, 1); // Null when `from` has run empty
+        });
+        measure("locations.adjustQuantity", OPS_PER_ITERATION, i -> assertNotNull(dbHelper.adjustQuantity(
+                randomItemId(), userId, i % 2 == 0 ? 1 : -2, System.currentTimeMillis())));
+
+        Cursor cursor = db.rawQuery("SELECT count(*) FROM items WHERE quantity < " +
+                "(SELECT ifnull(sum(quantity), 0) FROM item_locations WHERE item_id = items.id)", null);
+        assertTrue(cursor.moveToFirst());
+        assertEquals("A total fell below its locations", 0, cursor.getInt(0));
+        cursor.close();
+    }
+}
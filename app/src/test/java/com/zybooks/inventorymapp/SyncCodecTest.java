@@ -0,0 +1,73 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SyncCodecTest {
+    // ✅ Records and the cursor survive a round trip, tombstones included
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<SyncRecord> records = Arrays.asList(
+                new SyncRecord("a1", "Pens, blue", 12, 3, 2, 1_000, "device-1", false, 7),
+                new SyncRecord("b2", null, 0, 0, 5, 2_000, "device-2", true, 9));
+        SyncCodec.Batch batch = SyncCodec.decode(SyncCodec.encode(records, 9));
+
+        assertEquals(9, batch.getCursor());
+        assertEquals(2, batch.getRecords().size());
+        SyncRecord item = batch.getRecords().get(0);
+        assertEquals("a1", item.getSyncId());
+        assertEquals("Pens, blue", item.getName());
+        assertEquals(12, item.getQuantity());
+        assertEquals(3, item.getReorderThreshold());
+        assertEquals(2, item.getVersion());
+        assertEquals(1_000, item.getUpdatedAt());
+        assertEquals("device-1", item.getOrigin());
+        assertFalse(item.isDeleted());
+        assertEquals(7, item.getSeq());
+        SyncRecord tombstone = batch.getRecords().get(1);
+        assertTrue(tombstone.isDeleted());
+        assertNull(tombstone.getName());
+        assertEquals(5, tombstone.getVersion());
+    }
+
+    // ✅ Repetitive batches compress well below their raw size
+    @Test
+    public void testBatchIsCompressed() {
+        List<SyncRecord> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            records.add(new SyncRecord(String.format("%032x", i), "Item " + i, i, 5, 1, 1_700_000_000_000L + i, "device-1", false, i));
+        }
+        assertTrue(SyncCodec.encode(records, 500).length < 500 * 40);
+    }
+
+    // ❌ Corrupt or truncated payloads are rejected with an IOException
+    @Test
+    public void testCorruptBatch() {
+        byte[] batch = SyncCodec.encode(Arrays.asList(new SyncRecord("a1", "Tape", 1, 0, 1, 0, "d", false, 1)), 1);
+        try {
+            SyncCodec.decode(Arrays.copyOf(batch, batch.length / 2));
+            fail("Truncated batch was accepted");
+        } catch (IOException expected) {
+        }
+        try {
+            SyncCodec.decode(new byte[]{1, 2, 3});
+            fail("Garbage was accepted");
+        } catch (IOException expected) {
+        }
+    }
+
+    // ✅ Higher version wins, then later edit, then origin; a record never beats itself
+    @Test
+    public void testConflictRule() {
+        SyncRecord base = new SyncRecord("a1", "Tape", 1, 0, 2, 1_000, "device-1", false, 0);
+        assertTrue(SyncRecord.wins(new SyncRecord("a1", "Tape", 1, 0, 3, 0, "device-0", false, 0), base));
+        assertTrue(SyncRecord.wins(new SyncRecord("a1", "Tape", 1, 0, 2, 2_000, "device-0", false, 0), base));
+        assertTrue(SyncRecord.wins(new SyncRecord("a1", "Tape", 1, 0, 2, 1_000, "device-2", false, 0), base));
+        assertFalse(SyncRecord.wins(base, base));
+    }
+}
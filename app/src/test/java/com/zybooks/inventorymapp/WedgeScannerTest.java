@@ -0,0 +1,62 @@
+package com.zybooks.inventorymapp;
+
+import static org.junit.Assert.*;
+
+import android.view.KeyEvent;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WedgeScannerTest {
+    private final List<String> scans = new ArrayList<>();
+    private final WedgeScanner scanner = new WedgeScanner(scans::add);
+
+    private void type(String text, int terminator) {
+        for (char c : text.toCharArray()) {
+            assertTrue(scanner.onKey(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_UNKNOWN, c));
+            assertTrue(scanner.onKey(KeyEvent.ACTION_UP, KeyEvent.KEYCODE_UNKNOWN, c));
+        }
+        assertTrue(scanner.onKey(KeyEvent.ACTION_DOWN, terminator, 0));
+        assertTrue(scanner.onKey(KeyEvent.ACTION_UP, terminator, 0));
+    }
+
+    // ✅ Each code ends at Enter or Tab and is reported once
+    @Test
+    public void testScansAreSplitAtTerminator() {
+        type("0123456789012", KeyEvent.KEYCODE_ENTER);
+        type("ABC-42", KeyEvent.KEYCODE_TAB);
+        assertEquals(2, scans.size());
+        assertEquals("0123456789012", scans.get(0));
+        assertEquals("ABC-42", scans.get(1));
+    }
+
+    // ✅ An empty line is not a scan
+    @Test
+    public void testEmptyCodeIsIgnored() {
+        type("", KeyEvent.KEYCODE_ENTER);
+        assertTrue(scans.isEmpty());
+    }
+
+    // ❌ Keys that type nothing are left to the activity
+    @Test
+    public void testNonTypingKeysPassThrough() {
+        assertFalse(scanner.onKey(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_BACK, 0));
+        assertFalse(scanner.onKey(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_VOLUME_UP, 0));
+    }
+
+    // ✅ Overlong input is cut at MAX_CODE_LENGTH, and reset() drops a partial code
+    @Test
+    public void testLengthLimitAndReset() {
+        StringBuilder longCode = new StringBuilder();
+        for (int i = 0; i < WedgeScanner.MAX_CODE_LENGTH + 10; i++) {
+            longCode.append('7');
+        }
+        type(longCode.toString(), KeyEvent.KEYCODE_ENTER);
+        assertEquals(WedgeScanner.MAX_CODE_LENGTH, scans.get(0).length());
+
+        scanner.onKey(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_UNKNOWN, 'X');
+        scanner.reset();
+        type("Y", KeyEvent.KEYCODE_ENTER);
+        assertEquals("Y", scans.get(1));
+    }
+}